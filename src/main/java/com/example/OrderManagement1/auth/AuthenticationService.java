@@ -1,5 +1,6 @@
 package com.example.OrderManagement1.auth;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
 import com.example.OrderManagement1.config.JwtService;
 import com.example.OrderManagement1.entity.Customer;
 import com.example.OrderManagement1.repository.CustomerRepository;
@@ -29,6 +30,7 @@ public class AuthenticationService {
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
   private final AuthenticationManager authenticationManager;
+  private final NegativeLookupCache<String> missingCustomerEmails;
 
   public AuthenticationResponse register(RegisterRequest request) {
     var user = Customer.builder()
@@ -39,6 +41,7 @@ public class AuthenticationService {
         .role(request.getRole())
         .build();
     var savedUser = repository.save(user);
+    missingCustomerEmails.invalidate(savedUser.getEmail());
     var jwtToken = jwtService.generateToken(user);
     var refreshToken = jwtService.generateRefreshToken(user);
     saveUserToken(savedUser, jwtToken);
@@ -0,0 +1,142 @@
+package com.example.OrderManagement1.bulkhead;
+
+import com.example.OrderManagement1.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A Bulkhead runs the slow queries of one class of endpoints on its own bounded pool of threads, so that they
+ * cannot hold the request threads the other endpoints need. A call returns at once with a future, which the
+ * controller returns to release its request thread. Every call has a deadline, counted from its submission:
+ * it runs in a read-only transaction whose timeout is the time left, so Hibernate gives its JDBC statements a
+ * query timeout and the database cancels a query still running at the deadline. A call submitted while all
+ * threads are busy and the queue is full, still queued at its deadline, or not completed by it, fails with a
+ * {@link ServiceUnavailableException}.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final PlatformTransactionManager transactionManager;
+    private final long deadlineNanos;
+    private final long retryAfterSeconds;
+
+    private final Counter completed;
+    private final Counter rejected;
+    private final Counter timedOut;
+
+    /**
+     * @param name               The name of the threads and the name tag of the bulkhead.* metrics, e.g. "order-reports".
+     * @param threads            The number of calls running at once.
+     * @param queueCapacity      The number of calls waiting for a thread; beyond it calls are rejected.
+     * @param deadline           The time a call may take, waiting included.
+     * @param transactionManager Starts the read-only transaction of each call.
+     * @param meterRegistry      The registry of the bulkhead.* metrics.
+     */
+    public Bulkhead(String name, int threads, int queueCapacity, Duration deadline,
+                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.name = name;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.transactionManager = transactionManager;
+        this.deadlineNanos = deadline.toNanos();
+        this.retryAfterSeconds = Math.max(1, deadline.toSeconds());
+        this.completed = counter(meterRegistry, "completed", "Calls completed within their deadline");
+        this.rejected = counter(meterRegistry, "rejected", "Calls rejected because all threads were busy and the queue was full");
+        this.timedOut = counter(meterRegistry, "timeout", "Calls that did not complete within their deadline");
+        Gauge.builder("bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("name", name)
+                .description("Calls currently running")
+                .register(meterRegistry);
+        Gauge.builder("bulkhead.queued", executor, pool -> pool.getQueue().size())
+                .tag("name", name)
+                .description("Calls waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the query on the bulkhead within the deadline.
+     *
+     * @param query The query, run in a read-only transaction; transactional service methods join it.
+     * @return The future result of the query, failed with a ServiceUnavailableException if the bulkhead is full
+     * or the deadline passes.
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        long deadlineAt = System.nanoTime() + deadlineNanos;
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(() -> runBefore(deadlineAt, query), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new ServiceUnavailableException(
+                    "Too many " + name + " running, retry later", retryAfterSeconds));
+        }
+        return result
+                .orTimeout(deadlineNanos, TimeUnit.NANOSECONDS)
+                .handle((value, failure) -> {
+                    Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                    if (cause == null) {
+                        completed.increment();
+                        return value;
+                    }
+                    if (cause instanceof TimeoutException || cause instanceof QueryTimeoutException
+                            || cause instanceof TransactionTimedOutException) {
+                        timedOut.increment();
+                        throw new ServiceUnavailableException("The " + name + " did not complete within "
+                                + Duration.ofNanos(deadlineNanos).toMillis() + " ms, retry later", retryAfterSeconds);
+                    }
+                    throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+                });
+    }
+
+    private <T> T runBefore(long deadlineAt, Supplier<T> query) {
+        long remainingNanos = deadlineAt - System.nanoTime();
+        if (remainingNanos <= 0) {
+            // Waited in the queue past the deadline; the caller has been answered already
+            throw new CompletionException(new TimeoutException());
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        // Transaction timeouts are in whole seconds; round up rather than cut the query short
+        transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        return transaction.execute(status -> query.get());
+    }
+
+    /**
+     * Stops the threads; running queries are interrupted.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder("bulkhead.calls")
+                .tag("name", name)
+                .tag("result", result)
+                .description(description)
+                .register(meterRegistry);
+    }
+}
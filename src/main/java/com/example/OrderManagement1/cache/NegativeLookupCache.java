@@ -0,0 +1,197 @@
+package com.example.OrderManagement1.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A NegativeLookupCache remembers the keys recently looked up and not found, such as the random IDs probed by
+ * bots, so that repeating the lookup costs a map lookup instead of a query. A key is forgotten after the TTL,
+ * and must be invalidated when an entity with that key is created. The cache holds at most maxSize keys: when
+ * it is full, the expired keys are dropped first, then arbitrary ones.
+ * A lookup must read the generation of its key before querying and pass it back with the miss: a miss is only
+ * recorded if the key was not invalidated since, as the query may have read the database before the entity was
+ * committed. Generations are kept per stripe of keys, so an invalidation only discards the concurrent misses of the
+ * keys sharing its stripe instead of all of them. A key
+ * invalidated is also not recorded again until the read lag after the commit, the most a replica serving the
+ * lookup may be behind the primary.
+ *
+ * @param <K> The key of the lookup, e.g. an ID.
+ */
+public class NegativeLookupCache<K> {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long readLagNanos;
+    private final Map<K, Long> expiries = new ConcurrentHashMap<>();
+    // The keys being created, until the read lag after their commit
+    private final Map<K, Long> creations = new ConcurrentHashMap<>();
+    // The invalidations of the keys of each stripe, by the spread hash code of the key
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * @param name          The name tag of the metrics, e.g. "product.by-id".
+     * @param maxSize       The maximum number of keys remembered.
+     * @param ttl           How long a key is remembered as missing.
+     * @param meterRegistry The registry of the negative.lookup.* metrics.
+     */
+    public NegativeLookupCache(String name, int maxSize, Duration ttl, MeterRegistry meterRegistry) {
+        this(name, maxSize, ttl, Duration.ZERO, meterRegistry);
+    }
+
+    /**
+     * @param name          The name tag of the metrics, e.g. "product.by-id".
+     * @param maxSize       The maximum number of keys remembered.
+     * @param ttl           How long a key is remembered as missing.
+     * @param readLag       How far behind the primary the database read by the lookups may be, e.g. the maximum
+     *                      lag of the replicas.
+     * @param meterRegistry The registry of the negative.lookup.* metrics.
+     */
+    public NegativeLookupCache(String name, int maxSize, Duration ttl, Duration readLag, MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.readLagNanos = readLag.toNanos();
+        this.hits = Counter.builder("negative.lookup.cache.requests")
+                .tag("name", name)
+                .tag("result", "hit")
+                .description("Lookups answered as missing without a query")
+                .register(meterRegistry);
+        this.misses = Counter.builder("negative.lookup.cache.requests")
+                .tag("name", name)
+                .tag("result", "miss")
+                .description("Lookups of keys not known to be missing")
+                .register(meterRegistry);
+        Gauge.builder("negative.lookup.cache.size", expiries, Map::size)
+                .tag("name", name)
+                .description("Keys remembered as missing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns whether the key was looked up and not found less than the TTL ago.
+     */
+    public boolean isKnownMissing(K key) {
+        Long expiry = expiries.get(key);
+        if (expiry != null) {
+            if (expiry - System.nanoTime() > 0) {
+                hits.increment();
+                return true;
+            }
+            expiries.remove(key, expiry);
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Returns the generation to pass to {@link #recordMissing} for a lookup of the key about to query the database.
+     */
+    public long generation(K key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Remembers that the key was looked up and not found, unless a key of its stripe was invalidated since the lookup
+     * read the generation or the key is being created.
+     *
+     * @param key        The key looked up.
+     * @param generation The generation of the key read before the lookup queried the database.
+     */
+    public void recordMissing(K key, long generation) {
+        if (ttlNanos <= 0 || maxSize <= 0 || isStale(key, generation)) {
+            return;
+        }
+        if (expiries.size() >= maxSize) {
+            evict(expiries);
+        }
+        Long expiry = System.nanoTime() + ttlNanos;
+        expiries.put(key, expiry);
+        // An invalidation between the check and the put has already removed the key, or found nothing to remove
+        if (isStale(key, generation)) {
+            expiries.remove(key, expiry);
+        }
+    }
+
+    /**
+     * Forgets the key, now and, within a transaction, again after the commit: a lookup running before the commit
+     * does not see the new entity and may record the key as missing in between. The key is not recorded as missing
+     * again until the read lag after the commit, or the rollback.
+     */
+    public void invalidate(K key) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Until the commit
+            creations.put(key, Long.MAX_VALUE);
+            forget(key);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        endCreation(key);
+                        forget(key);
+                    } else {
+                        creations.remove(key);
+                    }
+                }
+            });
+        } else {
+            endCreation(key);
+            forget(key);
+        }
+    }
+
+    private void endCreation(K key) {
+        if (readLagNanos <= 0) {
+            creations.remove(key);
+            return;
+        }
+        if (creations.size() >= maxSize) {
+            evict(creations);
+        }
+        creations.put(key, System.nanoTime() + readLagNanos);
+    }
+
+    private void forget(K key) {
+        generations.incrementAndGet(stripe(key));
+        expiries.remove(key);
+    }
+
+    private boolean isStale(K key, long generation) {
+        if (generations.get(stripe(key)) != generation) {
+            return true;
+        }
+        Long creationEnd = creations.get(key);
+        return creationEnd != null && isPending(creationEnd, System.nanoTime());
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATION_STRIPES - 1);
+    }
+
+    private static boolean isPending(long deadline, long now) {
+        return deadline == Long.MAX_VALUE || deadline - now > 0;
+    }
+
+    private void evict(Map<K, Long> deadlines) {
+        long now = System.nanoTime();
+        deadlines.values().removeIf(deadline -> !isPending(deadline, now));
+        Iterator<K> keys = deadlines.keySet().iterator();
+        while (deadlines.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
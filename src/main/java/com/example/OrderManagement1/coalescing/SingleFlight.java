@@ -0,0 +1,142 @@
+package com.example.OrderManagement1.coalescing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * A SingleFlight coalesces concurrent identical loads: the first call for a key runs the loader, and the calls
+ * for the same key that arrive while it runs wait for its result instead of running their own.
+ * Nothing is cached; the key is forgotten as soon as the load completes, so a later call loads again.
+ * A call that waits longer than the timeout stops waiting and runs the loader itself.
+ * Waiting callers receive the same exception as the caller that loaded it, and each caller receives its own copy
+ * of the result made by the copier, so a caller may modify what it gets; without a copier the result
+ * object is shared and must not be modified after it is returned.
+ *
+ * @param <A> The argument of the load.
+ * @param <V> The result of the load.
+ */
+public class SingleFlight<A, V> {
+
+    private final Function<? super A, ?> keyFunction;
+    private final UnaryOperator<V> copier;
+    private final long timeoutNanos;
+    private final Map<Object, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter loads;
+    private final Counter shared;
+    private final Counter timeouts;
+
+    /**
+     * @param name          The name tag of the metrics, e.g. "product.by-id".
+     * @param keyFunction   Maps an argument to the key of its load; arguments with equal keys must load equal results.
+     * @param timeout       How long a call waits for the load of another call before running its own.
+     * @param meterRegistry The registry of the singleflight.* metrics.
+     */
+    public SingleFlight(String name, Function<? super A, ?> keyFunction, Duration timeout, MeterRegistry meterRegistry) {
+        this(name, keyFunction, UnaryOperator.identity(), timeout, meterRegistry);
+    }
+
+    /**
+     * @param name          The name tag of the metrics, e.g. "product.by-id".
+     * @param keyFunction   Maps an argument to the key of its load; arguments with equal keys must load equal results.
+     * @param copier        Copies a loaded result for each caller, so no two callers share a mutable object.
+     * @param timeout       How long a call waits for the load of another call before running its own.
+     * @param meterRegistry The registry of the singleflight.* metrics.
+     */
+    public SingleFlight(String name, Function<? super A, ?> keyFunction, UnaryOperator<V> copier, Duration timeout,
+                        MeterRegistry meterRegistry) {
+        this.keyFunction = keyFunction;
+        this.copier = copier;
+        this.timeoutNanos = timeout.toNanos();
+        this.loads = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "loaded")
+                .description("Calls that ran the load")
+                .register(meterRegistry);
+        this.shared = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "shared")
+                .description("Calls answered by the load of a concurrent identical call")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("result", "timeout")
+                .description("Calls that stopped waiting for a concurrent load and ran their own")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", this, SingleFlight::coalescingRatio)
+                .tag("name", name)
+                .description("Share of the calls answered by the load of another call")
+                .register(meterRegistry);
+        Gauge.builder("singleflight.in.flight", inFlight, Map::size)
+                .tag("name", name)
+                .description("Loads currently running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the result of the load for the argument, shared with the concurrent calls for the same key.
+     *
+     * @param argument The argument of the load.
+     * @param loader   Loads the result; only run if no identical load is in flight.
+     * @return The loaded result.
+     */
+    public V load(A argument, Function<? super A, ? extends V> loader) {
+        Object key = keyFunction.apply(argument);
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, call);
+        if (leader == null) {
+            loads.increment();
+            try {
+                V result = loader.apply(argument);
+                call.complete(result);
+                // The loaded object stays untouched for the waiting calls to copy
+                return copier.apply(result);
+            } catch (RuntimeException | Error e) {
+                call.completeExceptionally(e);
+                throw e;
+            } finally {
+                inFlight.remove(key, call);
+            }
+        }
+        try {
+            V result = leader.get(timeoutNanos, TimeUnit.NANOSECONDS);
+            shared.increment();
+            return copier.apply(result);
+        } catch (ExecutionException e) {
+            shared.increment();
+            throw rethrow(e.getCause());
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.apply(argument);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a concurrent load", e);
+        }
+    }
+
+    private double coalescingRatio() {
+        double calls = loads.count() + shared.count() + timeouts.count();
+        return calls == 0 ? 0.0 : shared.count() / calls;
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
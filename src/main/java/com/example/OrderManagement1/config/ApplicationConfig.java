@@ -1,5 +1,6 @@
 package com.example.OrderManagement1.config;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
 import com.example.OrderManagement1.repository.CustomerRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -18,11 +19,21 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class ApplicationConfig {
 
   private final CustomerRepository repository;
+  private final NegativeLookupCache<String> missingCustomerEmails;
 
   @Bean
   public UserDetailsService userDetailsService() {
-    return username -> repository.findByEmail(username)
-        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    return username -> {
+      if (missingCustomerEmails.isKnownMissing(username)) {
+        throw new UsernameNotFoundException("User not found");
+      }
+      long generation = missingCustomerEmails.generation(username);
+      return repository.findByEmail(username)
+          .orElseThrow(() -> {
+            missingCustomerEmails.recordMissing(username, generation);
+            return new UsernameNotFoundException("User not found");
+          });
+    };
   }
 
   @Bean
@@ -0,0 +1,30 @@
+package com.example.OrderManagement1.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Lets every controller read and write CBOR (application/cbor) and Smile (application/x-jackson-smile)
+ * next to JSON, chosen by the Accept and Content-Type headers. The binary formats are smaller and cheaper
+ * to encode and decode, which matters for the services calling the API at high rates.
+ * JSON stays the default: the converters come after the JSON one, so a request accepting any type gets JSON.
+ * Both mappers are built by Spring Boot's Jackson2ObjectMapperBuilder and share the configuration of the JSON one.
+ */
+@Configuration
+public class BinaryContentConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.OrderManagement1.config;
+
+import com.example.OrderManagement1.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+/**
+ * Declares one {@link Bulkhead} per class of report endpoints, which run their wide-range queries asynchronously
+ * on it instead of on the request threads.
+ */
+@Configuration
+public class BulkheadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead orderReportBulkhead(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                        @Value("${application.reports.orders.threads:4}") int threads,
+                                        @Value("${application.reports.orders.queue-capacity:16}") int queueCapacity,
+                                        @Value("${application.reports.orders.deadline-ms:10000}") long deadlineMillis) {
+        return new Bulkhead("order-reports", threads, queueCapacity, Duration.ofMillis(deadlineMillis),
+                transactionManager, meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead stockReportBulkhead(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                        @Value("${application.reports.stocks.threads:4}") int threads,
+                                        @Value("${application.reports.stocks.queue-capacity:16}") int queueCapacity,
+                                        @Value("${application.reports.stocks.deadline-ms:10000}") long deadlineMillis) {
+        return new Bulkhead("stock-reports", threads, queueCapacity, Duration.ofMillis(deadlineMillis),
+                transactionManager, meterRegistry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.OrderManagement1.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the hit ratio, hits, misses and puts of every second-level cache region as metrics,
+ * tagged with the region name (e.g. /actuator/metrics/hibernate.cache.region.hit.ratio?tag=region:...).
+ */
+@Component
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder("hibernate.cache.region.hit.ratio", statistics, stats -> hitRatio(stats.getCacheRegionStatistics(region)))
+                    .tag("region", region)
+                    .description("Share of second-level cache lookups answered by the region")
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.hits", statistics, stats -> stats.getCacheRegionStatistics(region).getHitCount())
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.misses", statistics, stats -> stats.getCacheRegionStatistics(region).getMissCount())
+                    .tag("region", region)
+                    .register(registry);
+            FunctionCounter.builder("hibernate.cache.region.puts", statistics, stats -> stats.getCacheRegionStatistics(region).getPutCount())
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        long hits = regionStatistics.getHitCount();
+        long lookups = hits + regionStatistics.getMissCount();
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
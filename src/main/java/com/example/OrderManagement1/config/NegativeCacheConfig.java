@@ -0,0 +1,67 @@
+package com.example.OrderManagement1.config;
+
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Declares one {@link NegativeLookupCache} per entity lookup. Each is sized and timed by its own
+ * application.negative-cache.&lt;type&gt;.* properties, which default to the application.negative-cache.* ones.
+ * With read replicas, a created key is not recorded as missing again until the maximum replica lag after the commit.
+ */
+@Configuration
+public class NegativeCacheConfig {
+
+    @Value("${application.datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${application.datasource.replicas.max-lag-ms:5000}")
+    private long replicaMaxLagMillis;
+
+    @Bean
+    public NegativeLookupCache<Integer> missingProductIds(MeterRegistry meterRegistry,
+            @Value("${application.negative-cache.products.max-size:${application.negative-cache.max-size:10000}}") int maxSize,
+            @Value("${application.negative-cache.products.ttl-ms:${application.negative-cache.ttl-ms:30000}}") long ttlMillis) {
+        return new NegativeLookupCache<>("product.by-id", maxSize, Duration.ofMillis(ttlMillis), readLag(), meterRegistry);
+    }
+
+    @Bean
+    public NegativeLookupCache<Integer> missingStockIds(MeterRegistry meterRegistry,
+            @Value("${application.negative-cache.stocks.max-size:${application.negative-cache.max-size:10000}}") int maxSize,
+            @Value("${application.negative-cache.stocks.ttl-ms:${application.negative-cache.ttl-ms:30000}}") long ttlMillis) {
+        return new NegativeLookupCache<>("stock.by-id", maxSize, Duration.ofMillis(ttlMillis), readLag(), meterRegistry);
+    }
+
+    @Bean
+    public NegativeLookupCache<Integer> missingOrderIds(MeterRegistry meterRegistry,
+            @Value("${application.negative-cache.orders.max-size:${application.negative-cache.max-size:10000}}") int maxSize,
+            @Value("${application.negative-cache.orders.ttl-ms:${application.negative-cache.ttl-ms:30000}}") long ttlMillis) {
+        return new NegativeLookupCache<>("order.by-id", maxSize, Duration.ofMillis(ttlMillis), readLag(), meterRegistry);
+    }
+
+    @Bean
+    public NegativeLookupCache<Integer> missingCustomerIds(MeterRegistry meterRegistry,
+            @Value("${application.negative-cache.customers.max-size:${application.negative-cache.max-size:10000}}") int maxSize,
+            @Value("${application.negative-cache.customers.ttl-ms:${application.negative-cache.ttl-ms:30000}}") long ttlMillis) {
+        return new NegativeLookupCache<>("customer.by-id", maxSize, Duration.ofMillis(ttlMillis), readLag(), meterRegistry);
+    }
+
+    /**
+     * The emails signed in with and not registered, keyed as typed: registering an email only invalidates that
+     * spelling, so another case of it may be reported missing for the TTL on a case-insensitive collation.
+     */
+    @Bean
+    public NegativeLookupCache<String> missingCustomerEmails(MeterRegistry meterRegistry,
+            @Value("${application.negative-cache.emails.max-size:${application.negative-cache.max-size:10000}}") int maxSize,
+            @Value("${application.negative-cache.emails.ttl-ms:${application.negative-cache.ttl-ms:30000}}") long ttlMillis) {
+        return new NegativeLookupCache<>("customer.by-email", maxSize, Duration.ofMillis(ttlMillis), readLag(), meterRegistry);
+    }
+
+    private Duration readLag() {
+        return replicaUrls.isBlank() ? Duration.ZERO : Duration.ofMillis(replicaMaxLagMillis);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.OrderManagement1.config;
+
+import com.example.OrderManagement1.datasource.ReplicaLagMonitor;
+import com.example.OrderManagement1.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the single DataSource with a ReplicaRoutingDataSource when replica URLs are configured,
+ * so that read-only transactions are served by the replicas. The pools publish the hikaricp.* metrics
+ * tagged with their pool name, "primary" or "replica-1", "replica-2", ...
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.replicas.urls")
+public class ReplicaDataSourceConfig {
+
+    @Value("${application.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${application.datasource.replicas.username:}")
+    private String replicaUsername;
+
+    @Value("${application.datasource.replicas.password:}")
+    private String replicaPassword;
+
+    @Value("${application.datasource.replicas.max-lag-ms:5000}")
+    private long maxLagMillis;
+
+    @Value("${application.datasource.replicas.connection-timeout-ms:1000}")
+    private long replicaConnectionTimeoutMillis;
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(meterRegistry);
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url);
+            // Without replica credentials the replicas are logged into with those of the primary
+            replica.setUsername(replicaUsername.isEmpty() ? properties.determineUsername() : replicaUsername);
+            replica.setPassword(replicaUsername.isEmpty() ? properties.determinePassword() : replicaPassword);
+            replica.setReadOnly(true);
+            // A replica that is down must not hold the request for the default 30 seconds before the fallback
+            replica.setConnectionTimeout(replicaConnectionTimeoutMillis);
+            // Connections are opened on demand, so a replica that is down at startup does not stop the application
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(new ReplicaRoutingDataSource.Replica(replica.getPoolName(), replica));
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagMillis, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.OrderManagement1.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every request, and the blocking repository calls it makes, on its own virtual thread instead of
+ * Tomcat's bounded pool of platform threads. A request waiting on the database then only holds a connection,
+ * so the connection pool (spring.datasource.hikari.maximum-pool-size) becomes the concurrency bound.
+ * Virtual threads need Java 21; the application is built for Java 17, so they are created through reflection
+ * and the platform threads are kept when the runtime does not have them.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "application.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = newVirtualThreadPerTaskExecutor("tomcat-handler-");
+        if (executor == null) {
+            log.warn("Virtual threads need Java 21 or later, this is Java {}: requests stay on platform threads",
+                    Runtime.version().feature());
+            return protocolHandler -> {
+            };
+        }
+        log.info("Requests run on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    /**
+     * Creates an executor starting one named virtual thread per task, or returns null before Java 21.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor(String namePrefix) {
+        try {
+            // Thread.ofVirtual().name(namePrefix, 0).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.OrderManagement1.controller;
+
+import com.example.OrderManagement1.notification.ChangeEventNotifier;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+@Api(tags = "Changes")
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeEventController {
+
+    private final ChangeEventNotifier changeEventNotifier;
+
+    public ChangeEventController(ChangeEventNotifier changeEventNotifier) {
+        this.changeEventNotifier = changeEventNotifier;
+    }
+
+    /**
+     * Streams the order, product order and stock changes as Server-Sent Events named e.g. `order.created`.
+     *
+     * @param lastEventId the ID of the last event received, sent by reconnecting clients to resume after it
+     * @param entities    the entities to stream (`order`, `product-order`, `stock`); all if omitted
+     * @return the `SseEmitter` streaming the changes.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("Subscribe to order and stock changes")
+    public SseEmitter subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                @RequestParam(required = false) Set<String> entities) {
+        return changeEventNotifier.subscribe(lastEventId, entities);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.OrderManagement1.controller;
+
+import com.example.OrderManagement1.payload.CheckoutRequestDto;
+import com.example.OrderManagement1.payload.CheckoutResultDto;
+import com.example.OrderManagement1.service.CheckoutService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Api(tags = "Checkout")
+@RestController
+@RequestMapping("/api/checkout")
+public class CheckoutController {
+
+    private final CheckoutService checkoutService;
+
+    public CheckoutController(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    /**
+     * Checks out a cart: validates it, takes the quantities from the stocks and creates the order with its lines.
+     *
+     * @param request the CheckoutRequestDto object holding the customer and the cart lines
+     * @return ResponseEntity containing the created order, its lines and totals
+     */
+    @PostMapping
+    @ApiOperation("Check out a cart in one call")
+    public ResponseEntity<CheckoutResultDto> checkout(@RequestBody @Valid CheckoutRequestDto request) {
+        CheckoutResultDto result = checkoutService.checkout(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+}
@@ -1,13 +1,11 @@
 package com.example.OrderManagement1.controller;
 
-import com.example.OrderManagement1.exception.ErrorResponse;
-import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.payload.BatchItemDto;
 import com.example.OrderManagement1.payload.CustomerDto;
 import com.example.OrderManagement1.service.CustomerService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import jakarta.validation.Valid;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
@@ -16,6 +14,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Api(tags = "Customer Management")
 @RestController
@@ -23,12 +23,10 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
-    private final ModelMapper modelMapper;
 
     @Autowired
-    public CustomerController(CustomerService customerService, ModelMapper modelMapper) {
+    public CustomerController(CustomerService customerService) {
         this.customerService = customerService;
-        this.modelMapper = modelMapper;
     }
 
     /**
@@ -43,6 +41,19 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * Get all customers with only the requested fields, e.g. ?fields=id,firstName,lastName.
+     *
+     * @param fields Comma-separated names of the CustomerDto fields to return; the password is not selectable
+     * @return List of objects with only the requested fields
+     */
+    @GetMapping(params = "fields")
+    @ApiOperation("Get all customers with only the requested fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllCustomers(@RequestParam Set<String> fields) {
+        List<Map<String, Object>> customers = customerService.getAllCustomers(fields);
+        return ResponseEntity.ok(customers);
+    }
+
     /**
      * Get a customer by ID.
      *
@@ -96,19 +107,6 @@ public class CustomerController {
         return ResponseEntity.noContent().build();
     }
 
-    /**
-     * Exception handler for handling resource not found exception.
-     *
-     * @param ex ResourceNotFoundException object
-     * @return ErrorResponse object with error details
-     */
-    @ExceptionHandler(ResourceNotFoundException.class)
-    @ApiOperation("Exception handler for handling resource not found exception")
-    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        ErrorResponse errorResponse = new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
-    }
-
     /**
      * Get customers by first name and last name.
      *
@@ -189,4 +187,27 @@ public class CustomerController {
         return ResponseEntity.ok(customers);
     }
 
+    /**
+     * Get several customers by ID, e.g. `/api/customers/batch?ids=1,2,3`.
+     *
+     * @param ids IDs of the customers
+     * @return One BatchItemDto per requested ID, in request order
+     */
+    @GetMapping("/batch")
+    @ApiOperation("Get several customers by ID")
+    public ResponseEntity<List<BatchItemDto<CustomerDto>>> getCustomersByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(customerService.getCustomersByIds(ids));
+    }
+
+    /**
+     * Get several customers by the IDs given in the request body.
+     *
+     * @param ids IDs of the customers
+     * @return One BatchItemDto per requested ID, in request order
+     */
+    @PostMapping("/batch")
+    @ApiOperation("Get several customers by the IDs given in the request body")
+    public ResponseEntity<List<BatchItemDto<CustomerDto>>> getCustomersByIdsInBody(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(customerService.getCustomersByIds(ids));
+    }
 }
@@ -1,10 +1,12 @@
 package com.example.OrderManagement1.controller;
 
+import com.example.OrderManagement1.bulkhead.Bulkhead;
 import com.example.OrderManagement1.payload.OrderDto;
 import com.example.OrderManagement1.service.OrderService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,6 +14,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @Api(tags = "Order Management")
 @RestController
@@ -19,9 +24,11 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final Bulkhead reportBulkhead;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, @Qualifier("orderReportBulkhead") Bulkhead reportBulkhead) {
         this.orderService = orderService;
+        this.reportBulkhead = reportBulkhead;
     }
 
     /**
@@ -36,6 +43,19 @@ public class OrderController {
         return ResponseEntity.ok(orders);
     }
 
+    /**
+     * Retrieves all orders with only the requested fields, e.g. ?fields=id,orderAt.
+     *
+     * @param fields Comma-separated names of the OrderDto fields to return
+     * @return ResponseEntity containing a list of objects with only the requested fields
+     */
+    @GetMapping(params = "fields")
+    @ApiOperation("Retrieve all orders with only the requested fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllOrders(@RequestParam Set<String> fields) {
+        List<Map<String, Object>> orders = orderService.getAllOrders(fields);
+        return ResponseEntity.ok(orders);
+    }
+
     /**
      * Retrieves an order by its ID.
      *
@@ -117,18 +137,19 @@ public class OrderController {
 
     /**
      * Retrieves orders by order date range.
+     * The query runs on the order report bulkhead, not on the request thread, and is cancelled at its deadline.
      *
      * @param startDate the start date of the order range
      * @param endDate   the end date of the order range
-     * @return ResponseEntity containing a list of OrderDto objects
+     * @return the future ResponseEntity containing a list of OrderDto objects; 503 if the bulkhead is full or the deadline passes
      */
     @GetMapping("/order-date-range")
     @ApiOperation("Retrieve orders by order date range")
-    public ResponseEntity<List<OrderDto>> getOrdersByOrderDateRange(
+    public CompletableFuture<ResponseEntity<List<OrderDto>>> getOrdersByOrderDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDateTime endDate) {
-        List<OrderDto> orders = orderService.getOrdersByOrderDateRange(startDate, endDate);
-        return ResponseEntity.ok(orders);
+        return reportBulkhead.supply(() -> orderService.getOrdersByOrderDateRange(startDate, endDate))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -4,15 +4,22 @@
  */
 package com.example.OrderManagement1.controller;
 
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.BulkUpdateResultDto;
+import com.example.OrderManagement1.payload.ProductBulkUpdateDto;
 import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductSearchResultDto;
 import com.example.OrderManagement1.service.ProductService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/products")
@@ -42,6 +49,19 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Retrieves all products with only the requested fields, e.g. `?fields=id,name,price`.
+     *
+     * @param fields the comma-separated names of the `ProductDto` fields to return.
+     * @return ResponseEntity containing one object per product with only the requested fields and an HTTP status code.
+     */
+    @GetMapping(params = "fields")
+    @ApiOperation("Retrieve all products with only the requested fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllProducts(@RequestParam Set<String> fields) {
+        List<Map<String, Object>> products = productService.getAllProducts(fields);
+        return ResponseEntity.ok(products);
+    }
+
     /**
      * Retrieves a product by its ID.
      *
@@ -179,4 +199,65 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
-}
\ No newline at end of file
+    /**
+     * Applies a price or VAT change to every product matching the given filter.
+     *
+     * @param bulkUpdateDto the filter (VAT, price range, IDs) and the operation to apply.
+     * @return ResponseEntity containing the `BulkUpdateResultDto` object and an HTTP status code.
+     */
+    @PostMapping("/bulk-update")
+    @ApiOperation("Apply a price or VAT change to all products matching a filter")
+    public ResponseEntity<BulkUpdateResultDto> bulkUpdateProducts(@Valid @RequestBody ProductBulkUpdateDto bulkUpdateDto) {
+        BulkUpdateResultDto result = productService.bulkUpdateProducts(bulkUpdateDto);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Searches products by any combination of VAT rates, price range and stockable flag,
+     * and returns the number of products for every facet value.
+     *
+     * @param vat       the accepted VAT rates; may be repeated.
+     * @param minPrice  the minimum price of products.
+     * @param maxPrice  the maximum price of products.
+     * @param stockable the required stockable flag.
+     * @param page      the zero-based page number.
+     * @param size      the page size.
+     * @return ResponseEntity containing the `ProductSearchResultDto` object and an HTTP status code.
+     */
+    @GetMapping("/search")
+    @ApiOperation("Search products with combined filters and facet counts")
+    public ResponseEntity<ProductSearchResultDto> searchProducts(
+            @RequestParam(required = false) List<Double> vat,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean stockable,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        ProductSearchResultDto result = productService.searchProducts(vat, minPrice, maxPrice, stockable, page, size);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Retrieves several products by their IDs, e.g. `/products/batch?ids=1,2,3`.
+     *
+     * @param ids the IDs of the products to retrieve.
+     * @return ResponseEntity containing one `BatchItemDto` per requested ID, in request order.
+     */
+    @GetMapping("/batch")
+    @ApiOperation("Retrieve several products by their IDs")
+    public ResponseEntity<List<BatchItemDto<ProductDto>>> getProductsByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    /**
+     * Retrieves several products by the IDs given in the request body.
+     *
+     * @param ids the IDs of the products to retrieve.
+     * @return ResponseEntity containing one `BatchItemDto` per requested ID, in request order.
+     */
+    @PostMapping("/batch")
+    @ApiOperation("Retrieve several products by the IDs given in the request body")
+    public ResponseEntity<List<BatchItemDto<ProductDto>>> getProductsByIdsInBody(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+}
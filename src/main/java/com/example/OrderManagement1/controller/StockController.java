@@ -4,32 +4,56 @@
  */
 package com.example.OrderManagement1.controller;
 
+import com.example.OrderManagement1.bulkhead.Bulkhead;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.LowStockDto;
+import com.example.OrderManagement1.payload.ProductQuantityAtDto;
+import com.example.OrderManagement1.payload.ProductStockSummaryDto;
+import com.example.OrderManagement1.payload.StockAdjustmentDto;
 import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockHoldDto;
+import com.example.OrderManagement1.payload.StockHoldRequestDto;
+import com.example.OrderManagement1.payload.StockMovementDto;
+import com.example.OrderManagement1.service.StockHoldService;
 import com.example.OrderManagement1.service.StockService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/stocks")
 @Api(tags = "Stock Management")
 public class StockController {
     private final StockService stockService;
+    private final StockHoldService stockHoldService;
+    private final Bulkhead reportBulkhead;
 
     /**
-     * Constructs a new `StockController` with the specified `StockService`.
+     * Constructs a new `StockController` with the specified `StockService` and `StockHoldService`.
      *
-     * @param stockService the StockService used to perform stock-related operations.
+     * @param stockService     the StockService used to perform stock-related operations.
+     * @param stockHoldService the StockHoldService used to manage stock holds.
+     * @param reportBulkhead   the Bulkhead running the stock report queries.
      */
-    public StockController(StockService stockService) {
+    public StockController(StockService stockService, StockHoldService stockHoldService,
+                           @Qualifier("stockReportBulkhead") Bulkhead reportBulkhead) {
         this.stockService = stockService;
+        this.stockHoldService = stockHoldService;
+        this.reportBulkhead = reportBulkhead;
     }
 
     /**
@@ -44,6 +68,19 @@ public class StockController {
         return ResponseEntity.ok(stocks);
     }
 
+    /**
+     * Retrieves all stocks with only the requested fields, e.g. `?fields=productId,quantity`.
+     *
+     * @param fields the comma-separated names of the `StockDto` fields to return.
+     * @return a list of objects with only the requested fields.
+     */
+    @GetMapping(params = "fields")
+    @ApiOperation("Retrieve all stocks with only the requested fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllStocks(@RequestParam Set<String> fields) {
+        List<Map<String, Object>> stocks = stockService.getAllStocks(fields);
+        return ResponseEntity.ok(stocks);
+    }
+
     /**
      * Retrieves a stock by its stock ID.
      *
@@ -84,6 +121,135 @@ public class StockController {
         return ResponseEntity.ok(updatedStock);
     }
 
+    /**
+     * Adds or removes a quantity from a stock with the specified stock ID.
+     * A removal that would make the quantity negative is rejected.
+     *
+     * @param stockId       the ID of the stock.
+     * @param adjustmentDto the `StockAdjustmentDto` object containing the quantity to add or remove.
+     * @return the adjusted `StockDto` object.
+     */
+    @PostMapping("/{stockId}/adjust")
+    @ApiOperation("Add or remove a quantity from a stock with the specified stock ID")
+    public ResponseEntity<StockDto> adjustStockQuantity(@PathVariable int stockId, @Valid @RequestBody StockAdjustmentDto adjustmentDto) {
+        StockDto adjustedStock = stockService.adjustStockQuantity(stockId, adjustmentDto.getDelta());
+        return ResponseEntity.ok(adjustedStock);
+    }
+
+    /**
+     * Retrieves the products closest to, or below, their reorder threshold.
+     *
+     * @param maxMargin the largest quantity above the threshold to include.
+     * @param limit     the maximum number of products to return.
+     * @return a list of `LowStockDto` objects, smallest margin first.
+     */
+    @GetMapping("/low")
+    @ApiOperation("Retrieve the products closest to or below their reorder threshold")
+    public ResponseEntity<List<LowStockDto>> getLowStockProducts(@RequestParam(defaultValue = "0") long maxMargin,
+                                                                 @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(stockService.getLowStockProducts(maxMargin, limit));
+    }
+
+    /**
+     * Streams reorder threshold crossings as Server-Sent Events named `low-stock` and `restocked`.
+     *
+     * @return the `SseEmitter` streaming the crossings.
+     */
+    @GetMapping(value = "/low/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @ApiOperation("Subscribe to reorder threshold crossings")
+    public SseEmitter subscribeToThresholdCrossings() {
+        return stockService.subscribeToThresholdCrossings();
+    }
+
+    /**
+     * Holds a quantity of a stock until the hold is released, confirmed or expires.
+     *
+     * @param stockId the ID of the stock.
+     * @param request the `StockHoldRequestDto` object containing the quantity and optional time to live.
+     * @return the created `StockHoldDto` object.
+     */
+    @PostMapping("/{stockId}/holds")
+    @ApiOperation("Hold a quantity of a stock with the specified stock ID")
+    public ResponseEntity<StockHoldDto> placeHold(@PathVariable int stockId, @Valid @RequestBody StockHoldRequestDto request) {
+        StockHoldDto hold = stockHoldService.placeHold(stockId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    /**
+     * Retrieves an active stock hold.
+     *
+     * @param holdId the ID of the hold.
+     * @return the `StockHoldDto` object representing the hold.
+     */
+    @GetMapping("/holds/{holdId}")
+    @ApiOperation("Retrieve an active stock hold by its ID")
+    public ResponseEntity<StockHoldDto> getHold(@PathVariable long holdId) {
+        return ResponseEntity.ok(stockHoldService.getHold(holdId));
+    }
+
+    /**
+     * Releases a stock hold, giving its quantity back to the stock.
+     *
+     * @param holdId the ID of the hold.
+     * @return a ResponseEntity with no content.
+     */
+    @DeleteMapping("/holds/{holdId}")
+    @ApiOperation("Release a stock hold")
+    public ResponseEntity<Void> releaseHold(@PathVariable long holdId) {
+        stockHoldService.releaseHold(holdId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Confirms a stock hold, keeping its quantity taken from the stock.
+     *
+     * @param holdId the ID of the hold.
+     * @return the confirmed `StockHoldDto` object.
+     */
+    @PostMapping("/holds/{holdId}/confirm")
+    @ApiOperation("Confirm a stock hold")
+    public ResponseEntity<StockHoldDto> confirmHold(@PathVariable long holdId) {
+        return ResponseEntity.ok(stockHoldService.confirmHold(holdId));
+    }
+
+    /**
+     * Retrieves the ledger movements of a stock within a time range, oldest first.
+     *
+     * @param stockId the ID of the stock.
+     * @param from    the start of the range.
+     * @param to      the end of the range.
+     * @param page    the page number, starting at 0.
+     * @param size    the page size.
+     * @return a list of `StockMovementDto` objects representing the movements.
+     */
+    @GetMapping("/{stockId}/movements")
+    @ApiOperation("Retrieve the ledger movements of a stock within a time range")
+    public ResponseEntity<List<StockMovementDto>> getStockMovements(
+            @PathVariable int stockId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        List<StockMovementDto> movements = stockService.getStockMovements(stockId, from, to, page, size);
+        return ResponseEntity.ok(movements);
+    }
+
+    /**
+     * Retrieves the total quantity of a product at a past point in time, rebuilt from the stock ledger.
+     *
+     * @param productId the ID of the product.
+     * @param at        the point in time.
+     * @return the `ProductQuantityAtDto` object holding the quantity.
+     */
+    @GetMapping("/product/{productId}/quantity-at")
+    @ApiOperation("Retrieve the total quantity of a product at a past point in time")
+    public ResponseEntity<ProductQuantityAtDto> getProductQuantityAt(
+            @PathVariable int productId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        ProductQuantityAtDto quantity = stockService.getProductQuantityAt(productId, at);
+        return ResponseEntity.ok(quantity);
+    }
+
     /**
      * Deletes a stock with the specified stock ID.
      *
@@ -110,49 +276,21 @@ public class StockController {
         return ResponseEntity.ok(stocks);
     }
 
-    /**
-     * Retrieves stocks by the specified quality.
-     *
-     * @param quality the quality of the stocks.
-     * @return a list of `StockDto` objects representing the stocks.
-     */
-    @GetMapping("/quality/{quality}")
-    @ApiOperation("Retrieve stocks by the specified quality")
-    public ResponseEntity<List<StockDto>> getStocksByQuality(@PathVariable int quality) {
-        List<StockDto> stocks = stockService.getStocksByQuality(quality);
-        return ResponseEntity.ok(stocks);
-    }
-
     /**
      * Retrieves stocks by the specified update date range.
+     * The query runs on the stock report bulkhead, not on the request thread, and is cancelled at its deadline.
      *
      * @param startDate the start date of the update date range.
      * @param endDate   the end date of the update date range.
-     * @return a list of `StockDto` objects representing the stocks.
+     * @return the future list of `StockDto` objects representing the stocks; 503 if the bulkhead is full or the deadline passes.
      */
     @GetMapping("/update-date-range")
     @ApiOperation("Retrieve stocks by the specified update date range")
-    public ResponseEntity<List<StockDto>> getStocksByUpdateDateRange(
+    public CompletableFuture<ResponseEntity<List<StockDto>>> getStocksByUpdateDateRange(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
             @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<StockDto> stocks = stockService.getStocksByUpdateDateRange(startDate, endDate);
-        return ResponseEntity.ok(stocks);
-    }
-
-    /**
-     * Retrieves stocks by the specified product ID and quality.
-     *
-     * @param productId the ID of the product.
-     * @param quality   the quality of the stocks.
-     * @return a list of `StockDto` objects representing the stocks.
-     */
-    @GetMapping("/product/{productId}/quality/{quality}")
-    @ApiOperation("Retrieve stocks by the specified product ID and quality")
-    public ResponseEntity<List<StockDto>> getStocksByProductIdAndQuality(
-            @PathVariable int productId,
-            @PathVariable int quality) {
-        List<StockDto> stocks = stockService.getStocksByProductIdAndQuality(productId, quality);
-        return ResponseEntity.ok(stocks);
+        return reportBulkhead.supply(() -> stockService.getStocksByUpdateDateRange(startDate, endDate))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -212,4 +350,88 @@ public class StockController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         return stockService.getByProductIdAndUpdateAtBetween(productId, startDate, endDate);
     }
+
+    /**
+     * Retrieves several stocks by their IDs, e.g. `/stocks/batch?ids=1,2,3`.
+     *
+     * @param ids the IDs of the stocks.
+     * @return one `BatchItemDto` per requested ID, in request order.
+     */
+    @GetMapping("/batch")
+    @ApiOperation("Retrieve several stocks by their IDs")
+    public ResponseEntity<List<BatchItemDto<StockDto>>> getStocksByIds(@RequestParam List<Integer> ids) {
+        return ResponseEntity.ok(stockService.getStocksByIds(ids));
+    }
+
+    /**
+     * Retrieves several stocks by the IDs given in the request body.
+     *
+     * @param ids the IDs of the stocks.
+     * @return one `BatchItemDto` per requested ID, in request order.
+     */
+    @PostMapping("/batch")
+    @ApiOperation("Retrieve several stocks by the IDs given in the request body")
+    public ResponseEntity<List<BatchItemDto<StockDto>>> getStocksByIdsInBody(@RequestBody List<Integer> ids) {
+        return ResponseEntity.ok(stockService.getStocksByIds(ids));
+    }
+
+    /**
+     * Retrieves the stocks of several products, e.g. `/stocks/product/batch?productIds=1,2,3`.
+     *
+     * @param productIds the IDs of the products.
+     * @return one `BatchItemDto` per requested product ID, in request order, holding the stocks of the product.
+     */
+    @GetMapping("/product/batch")
+    @ApiOperation("Retrieve the stocks of several products")
+    public ResponseEntity<List<BatchItemDto<List<StockDto>>>> getStocksByProductIds(@RequestParam List<Integer> productIds) {
+        return ResponseEntity.ok(stockService.getStocksByProductIds(productIds));
+    }
+
+    /**
+     * Retrieves the stock of a product aggregated over all of its stocks.
+     *
+     * @param productId the ID of the product.
+     * @return the `ProductStockSummaryDto` object holding the total quantity and the number of stocks.
+     */
+    @GetMapping("/product/{productId}/summary")
+    @ApiOperation("Retrieve the stock of a product aggregated over all of its stocks")
+    public ResponseEntity<ProductStockSummaryDto> getProductStockSummary(@PathVariable int productId) {
+        return ResponseEntity.ok(stockService.getProductStockSummary(productId));
+    }
+
+    /**
+     * Retrieves the aggregated stock of several products, e.g. `/stocks/product/summary/batch?productIds=1,2,3`.
+     *
+     * @param productIds the IDs of the products.
+     * @return one `BatchItemDto` per requested product ID, in request order.
+     */
+    @GetMapping("/product/summary/batch")
+    @ApiOperation("Retrieve the aggregated stock of several products")
+    public ResponseEntity<List<BatchItemDto<ProductStockSummaryDto>>> getProductStockSummaries(@RequestParam List<Integer> productIds) {
+        return ResponseEntity.ok(stockService.getProductStockSummaries(productIds));
+    }
+
+    /**
+     * Retrieves the aggregated stock of the products whose IDs are given in the request body.
+     *
+     * @param productIds the IDs of the products.
+     * @return one `BatchItemDto` per requested product ID, in request order.
+     */
+    @PostMapping("/product/summary/batch")
+    @ApiOperation("Retrieve the aggregated stock of the products whose IDs are given in the request body")
+    public ResponseEntity<List<BatchItemDto<ProductStockSummaryDto>>> getProductStockSummariesInBody(@RequestBody List<Integer> productIds) {
+        return ResponseEntity.ok(stockService.getProductStockSummaries(productIds));
+    }
+
+    /**
+     * Retrieves the stocks of the products whose IDs are given in the request body.
+     *
+     * @param productIds the IDs of the products.
+     * @return one `BatchItemDto` per requested product ID, in request order, holding the stocks of the product.
+     */
+    @PostMapping("/product/batch")
+    @ApiOperation("Retrieve the stocks of the products whose IDs are given in the request body")
+    public ResponseEntity<List<BatchItemDto<List<StockDto>>>> getStocksByProductIdsInBody(@RequestBody List<Integer> productIds) {
+        return ResponseEntity.ok(stockService.getStocksByProductIds(productIds));
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.OrderManagement1.counter;
+
+import java.util.UUID;
+
+/**
+ * A net delta of one hot stock drained from its counter to be written to the stock table.
+ * The ID is recorded by the database with the write, so a batch written again after a crash is recognised.
+ *
+ * @param id      The unique ID of the batch.
+ * @param stockId The ID of the stock.
+ * @param delta   The quantity to add to the stock.
+ */
+record FlushBatch(String id, int stockId, long delta) {
+
+    static FlushBatch of(int stockId, long delta) {
+        return new FlushBatch(UUID.randomUUID().toString(), stockId, delta);
+    }
+}
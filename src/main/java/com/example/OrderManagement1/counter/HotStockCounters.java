@@ -0,0 +1,408 @@
+package com.example.OrderManagement1.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+/**
+ * The HotStockCounters implement the optional hot-SKU mode of stock adjustments.
+ * Every Stock row is adjusted in the database until the adjustments that find another adjustment of the
+ * same row still in flight exceed the contention threshold within one second. The row is then promoted:
+ * its quantity is loaded into a {@link StripedStockCounter} that serves further adjustments in memory,
+ * each of them appended to a {@link StockDeltaJournal}, and the net delta is flushed to the stock table
+ * on a short interval. A promoted row that sees no adjustment for the idle timeout goes back to the database path.
+ * An adjustment made within a database transaction journals its compensation with it, so that it is undone, even
+ * after a crash, unless the transaction commits.
+ */
+@Slf4j
+@Component
+public class HotStockCounters implements AutoCloseable {
+
+    public enum Outcome {
+        NOT_HOT, APPLIED, INSUFFICIENT
+    }
+
+    private final boolean enabled;
+    private final int shards;
+    private final int contentionThreshold;
+    private final long idleTimeoutNanos;
+    private final StockDeltaJournal journal;
+
+    private final Map<Integer, StockTraffic> traffic = new ConcurrentHashMap<>();
+    // Batches drained from the counters or recovered from the journal and not yet written, by batch ID
+    private final Map<String, FlushBatch> pendingBatches = new ConcurrentHashMap<>();
+    // Compensations of the adjustments made within database transactions not completed yet, by batch ID
+    private final Map<String, FlushBatch> openCompensations = new ConcurrentHashMap<>();
+    // Adjustments hold the read lock; draining, promotion and demotion hold the write lock
+    private final ReadWriteLock epochLock = new ReentrantReadWriteLock();
+    // Keeps a demotion from interleaving with the database writes of a flush
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public HotStockCounters(@Value("${application.stocks.hot-sku.enabled:false}") boolean enabled,
+                            @Value("${application.stocks.hot-sku.shards:16}") int shards,
+                            @Value("${application.stocks.hot-sku.contention-threshold:50}") int contentionThreshold,
+                            @Value("${application.stocks.hot-sku.idle-timeout-ms:30000}") long idleTimeoutMillis,
+                            @Value("${application.stocks.hot-sku.journal-path:data/hot-sku-stock.journal}") String journalPath) {
+        this.enabled = enabled;
+        this.shards = shards;
+        this.contentionThreshold = contentionThreshold;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.journal = enabled ? new StockDeltaJournal(Path.of(journalPath)) : null;
+        if (enabled) {
+            journal.recover().forEach(batch -> pendingBatches.put(batch.id(), batch));
+            journal.rewrite(pendingBatches.values());
+            if (!pendingBatches.isEmpty()) {
+                log.warn("Recovered unflushed hot stock deltas from {}: {}", journalPath, pendingBatches.values());
+            }
+        }
+    }
+
+    /**
+     * Applies an adjustment in memory if the stock is hot.
+     *
+     * @param stockId The ID of the stock to adjust.
+     * @param delta   The quantity to add (positive) or remove (negative).
+     * @return NOT_HOT if the adjustment has to go to the database, otherwise whether it was applied.
+     */
+    public Outcome adjust(int stockId, int delta) {
+        StockTraffic stock = enabled ? traffic.get(stockId) : null;
+        if (stock == null || !stock.hot) {
+            return Outcome.NOT_HOT;
+        }
+        epochLock.readLock().lock();
+        try {
+            StripedStockCounter counter = stock.counter;
+            if (counter == null) {
+                return Outcome.NOT_HOT;
+            }
+            if (!counter.adjust(delta)) {
+                return Outcome.INSUFFICIENT;
+            }
+            journal.appendAccepted(stockId, delta);
+            return Outcome.APPLIED;
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a removal in memory within a database transaction if the stock is hot, journaling with it the
+     * compensating delta under the given batch ID. The caller must record that batch ID in its transaction, as the
+     * {@link StockDeltaWriter} records the batches it writes, so that after a crash the compensation is written
+     * unless the transaction committed, and call {@link #complete(String, boolean)} once it completed.
+     *
+     * @param batchId The ID of the compensation batch.
+     * @param stockId The ID of the stock to adjust.
+     * @param delta   The quantity to remove, negative.
+     * @return NOT_HOT if the adjustment has to go to the database, otherwise whether it was applied.
+     */
+    public Outcome adjustInTransaction(String batchId, int stockId, int delta) {
+        StockTraffic stock = enabled ? traffic.get(stockId) : null;
+        if (stock == null || !stock.hot) {
+            return Outcome.NOT_HOT;
+        }
+        epochLock.readLock().lock();
+        try {
+            StripedStockCounter counter = stock.counter;
+            if (counter == null) {
+                return Outcome.NOT_HOT;
+            }
+            if (!counter.adjust(delta)) {
+                return Outcome.INSUFFICIENT;
+            }
+            FlushBatch compensation = new FlushBatch(batchId, stockId, -delta);
+            try {
+                journal.appendReserved(compensation);
+            } catch (RuntimeException e) {
+                counter.adjust(-delta);
+                throw e;
+            }
+            openCompensations.put(batchId, compensation);
+            return Outcome.APPLIED;
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Settles an adjustment made by {@link #adjustInTransaction(String, int, int)} once its transaction completed:
+     * a committed one stands, a rolled back one is compensated, in memory or, if the stock was demoted in the
+     * meantime, by the next flush.
+     *
+     * @param batchId   The ID of the compensation batch.
+     * @param committed Whether the transaction committed.
+     */
+    public void complete(String batchId, boolean committed) {
+        epochLock.readLock().lock();
+        try {
+            FlushBatch compensation = openCompensations.remove(batchId);
+            if (compensation == null) {
+                return;
+            }
+            if (committed) {
+                journal.appendCommitted(compensation);
+                return;
+            }
+            StockTraffic stock = traffic.get(compensation.stockId());
+            StripedStockCounter counter = stock != null ? stock.counter : null;
+            if (counter != null) {
+                counter.adjust(compensation.delta());
+                journal.appendUndone(compensation);
+            } else {
+                // Still owed by the journal under its ID
+                pendingBatches.put(batchId, compensation);
+            }
+        } finally {
+            epochLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registers a database adjustment of a stock, counting it as contended if another one is in flight.
+     * Must be paired with {@link #exitDatabasePath(int)} when it returns true.
+     *
+     * @param stockId The ID of the stock to adjust.
+     * @return false if the stock has been promoted and the adjustment must use {@link #adjust(int, int)}.
+     */
+    public boolean enterDatabasePath(int stockId) {
+        if (!enabled) {
+            return true;
+        }
+        StockTraffic stock = traffic.computeIfAbsent(stockId, id -> new StockTraffic());
+        int concurrent = stock.inFlight.getAndIncrement();
+        if (stock.hot) {
+            stock.inFlight.decrementAndGet();
+            return false;
+        }
+        if (concurrent > 0) {
+            stock.recordContention();
+        }
+        return true;
+    }
+
+    public void exitDatabasePath(int stockId) {
+        if (enabled) {
+            traffic.get(stockId).inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Checks whether the contended database adjustments of a stock crossed the threshold in the current second.
+     */
+    public boolean shouldPromote(int stockId) {
+        StockTraffic stock = enabled ? traffic.get(stockId) : null;
+        return stock != null && !stock.hot && stock.contendedInWindow() >= contentionThreshold;
+    }
+
+    /**
+     * Moves a stock to the in-memory path. Waits for the database adjustments already in flight,
+     * then seeds the counter with the committed quantity.
+     *
+     * @param stockId         The ID of the stock to promote.
+     * @param currentQuantity Reads the committed quantity of the stock.
+     */
+    public void promote(int stockId, IntSupplier currentQuantity) {
+        StockTraffic stock = traffic.computeIfAbsent(stockId, id -> new StockTraffic());
+        epochLock.writeLock().lock();
+        try {
+            if (stock.hot) {
+                return;
+            }
+            stock.hot = true;
+            while (stock.inFlight.get() > 0) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+            stock.counter = new StripedStockCounter(currentQuantity.getAsInt(), shards);
+            log.info("Stock {} promoted to hot-SKU mode", stockId);
+        } catch (RuntimeException e) {
+            stock.hot = false;
+            throw e;
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drains the net delta of every hot stock and hands each one to the writer as a batch.
+     * The batches are synced to the journal before the first write; a batch whose write fails is kept
+     * and handed to the writer again, with the same ID, by the next flush.
+     *
+     * @param writer Writes a batch to the stock table, throwing if it could not be committed.
+     */
+    public void flush(StockDeltaWriter writer) {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            for (FlushBatch batch : drain()) {
+                try {
+                    write(batch, writer);
+                } catch (RuntimeException e) {
+                    log.error("Could not flush delta {} of hot stock {}, will retry", batch.delta(), batch.stockId(), e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Moves a stock back to the database path, writing its unflushed deltas first.
+     * Used before changes that replace the quantity instead of adjusting it.
+     *
+     * @param stockId The ID of the stock to demote.
+     * @param writer  Writes a batch to the stock table, throwing if it could not be committed.
+     */
+    public void demote(int stockId, StockDeltaWriter writer) {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        epochLock.writeLock().lock();
+        try {
+            StockTraffic stock = traffic.get(stockId);
+            StripedStockCounter counter = stock != null ? stock.counter : null;
+            if (counter != null) {
+                long delta = counter.drain();
+                if (delta != 0) {
+                    FlushBatch batch = FlushBatch.of(stockId, delta);
+                    try {
+                        journal.appendBatch(batch);
+                    } catch (RuntimeException e) {
+                        counter.restore(delta);
+                        throw e;
+                    }
+                    pendingBatches.put(batch.id(), batch);
+                }
+            }
+            for (FlushBatch batch : List.copyOf(pendingBatches.values())) {
+                if (batch.stockId() == stockId) {
+                    write(batch, writer);
+                }
+            }
+            if (counter != null) {
+                demote(stockId, stock);
+            }
+        } finally {
+            epochLock.writeLock().unlock();
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the delta applied in memory to a stock and not yet flushed to the stock table.
+     */
+    public long getPendingDelta(int stockId) {
+        StockTraffic stock = enabled ? traffic.get(stockId) : null;
+        StripedStockCounter counter = stock != null ? stock.counter : null;
+        long pending = counter != null ? counter.getPendingDelta() : 0;
+        for (FlushBatch batch : pendingBatches.values()) {
+            if (batch.stockId() == stockId) {
+                pending += batch.delta();
+            }
+        }
+        return pending;
+    }
+
+    public boolean isHot(int stockId) {
+        StockTraffic stock = enabled ? traffic.get(stockId) : null;
+        return stock != null && stock.counter != null;
+    }
+
+    @Override
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private List<FlushBatch> drain() {
+        List<FlushBatch> drained = new ArrayList<>();
+        epochLock.writeLock().lock();
+        try {
+            long now = System.nanoTime();
+            traffic.forEach((stockId, stock) -> {
+                StripedStockCounter counter = stock.counter;
+                if (counter == null) {
+                    return;
+                }
+                long delta = counter.drain();
+                if (delta != 0) {
+                    drained.add(FlushBatch.of(stockId, delta));
+                } else if (now - counter.getLastActivityNanos() > idleTimeoutNanos && !hasPendingBatch(stockId)) {
+                    demote(stockId, stock);
+                }
+            });
+            drained.forEach(batch -> pendingBatches.put(batch.id(), batch));
+            // From here on the journal only has to cover the pending batches, the open compensations and what is accepted next
+            try {
+                List<FlushBatch> outstanding = new ArrayList<>(pendingBatches.values());
+                outstanding.addAll(openCompensations.values());
+                journal.rewrite(outstanding);
+            } catch (RuntimeException e) {
+                drained.forEach(batch -> {
+                    pendingBatches.remove(batch.id());
+                    traffic.get(batch.stockId()).counter.restore(batch.delta());
+                });
+                throw e;
+            }
+            return List.copyOf(pendingBatches.values());
+        } finally {
+            epochLock.writeLock().unlock();
+        }
+    }
+
+    private void write(FlushBatch batch, StockDeltaWriter writer) {
+        writer.write(batch.id(), batch.stockId(), batch.delta());
+        pendingBatches.remove(batch.id());
+        journal.appendCommitted(batch);
+    }
+
+    private boolean hasPendingBatch(int stockId) {
+        return pendingBatches.values().stream().anyMatch(batch -> batch.stockId() == stockId);
+    }
+
+    private void demote(int stockId, StockTraffic stock) {
+        stock.counter = null;
+        stock.hot = false;
+        stock.contended.set(0);
+        log.info("Stock {} returned to database mode", stockId);
+    }
+
+    private static final class StockTraffic {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong windowStartNanos = new AtomicLong(System.nanoTime());
+        private final AtomicInteger contended = new AtomicInteger();
+        private volatile boolean hot;
+        private volatile StripedStockCounter counter;
+
+        void recordContention() {
+            long now = System.nanoTime();
+            long windowStart = windowStartNanos.get();
+            if (now - windowStart > TimeUnit.SECONDS.toNanos(1) && windowStartNanos.compareAndSet(windowStart, now)) {
+                contended.set(0);
+            }
+            contended.incrementAndGet();
+        }
+
+        int contendedInWindow() {
+            return System.nanoTime() - windowStartNanos.get() > TimeUnit.SECONDS.toNanos(1) ? 0 : contended.get();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.example.OrderManagement1.counter;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The StockDeltaJournal is a local append-only file of the stock deltas accepted by the in-memory counters
+ * that have not been written to the stock table yet.
+ * Every accepted delta is appended as a "D stockId delta" line and handed to the operating system at once, so a
+ * crash of the process loses none. Each flush cycle rewrites the file with the drained deltas as
+ * "B batchId stockId delta" lines and syncs it to disk before any of them is written to the database, so a power
+ * loss loses at most one flush interval of appends. Every batch written to the database is then marked with a
+ * "C batchId stockId delta" line. After a crash the deltas still owed to the database are the unmarked batches
+ * plus the D lines; a batch whose C line was lost is recognised by the database, which records the batch IDs.
+ * A delta accepted within a database transaction is appended as an "R batchId stockId delta" line with the delta
+ * that compensates it, synced before the transaction commits: it counts as accepted, and the compensation is owed as
+ * a batch until a C line marks it settled by the commit, or a "U batchId stockId delta" line applies it as accepted.
+ * Appends are group committed: each thread queues its line, and whichever thread takes the file next writes every
+ * queued line with one flush, and one sync if any of them needs it, so concurrent appenders share the system calls
+ * instead of making one each in turn.
+ */
+@Slf4j
+final class StockDeltaJournal implements AutoCloseable {
+
+    private final Path path;
+    // Lines appended and not yet written; written, along with the file, under the monitor of the journal
+    private final Queue<QueuedLine> queued = new ConcurrentLinkedQueue<>();
+    private FileOutputStream out;
+    private BufferedWriter writer;
+
+    StockDeltaJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Reads the deltas that were accepted but not confirmed written before the previous shutdown.
+     *
+     * @return The unmarked batches, with their IDs, and one new batch per stock for the D lines.
+     */
+    synchronized List<FlushBatch> recover() {
+        Map<String, FlushBatch> batches = new LinkedHashMap<>();
+        Map<Integer, Long> accepted = new HashMap<>();
+        if (Files.exists(path)) {
+            List<String> lines;
+            try {
+                lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read stock journal " + path, e);
+            }
+            for (String line : lines) {
+                String[] parts = line.trim().split(" ");
+                try {
+                    if ("D".equals(parts[0]) && parts.length == 3) {
+                        accepted.merge(Integer.parseInt(parts[1]), Long.parseLong(parts[2]), Long::sum);
+                    } else if ("B".equals(parts[0]) && parts.length == 4) {
+                        batches.put(parts[1], new FlushBatch(parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3])));
+                    } else if ("R".equals(parts[0]) && parts.length == 4) {
+                        accepted.merge(Integer.parseInt(parts[2]), -Long.parseLong(parts[3]), Long::sum);
+                        batches.put(parts[1], new FlushBatch(parts[1], Integer.parseInt(parts[2]), Long.parseLong(parts[3])));
+                    } else if ("U".equals(parts[0]) && parts.length == 4) {
+                        accepted.merge(Integer.parseInt(parts[2]), Long.parseLong(parts[3]), Long::sum);
+                        batches.remove(parts[1]);
+                    } else if ("C".equals(parts[0]) && parts.length == 4) {
+                        batches.remove(parts[1]);
+                    } else if ("C".equals(parts[0]) && parts.length == 3) {
+                        // Written before flushes had batch IDs
+                        accepted.merge(Integer.parseInt(parts[1]), -Long.parseLong(parts[2]), Long::sum);
+                    } else {
+                        throw new NumberFormatException();
+                    }
+                } catch (NumberFormatException e) {
+                    // A torn last line from a crash mid-write
+                    log.warn("Skipping malformed stock journal line '{}'", line);
+                }
+            }
+        }
+        List<FlushBatch> outstanding = new ArrayList<>(batches.values());
+        accepted.forEach((stockId, delta) -> {
+            if (delta != 0) {
+                outstanding.add(FlushBatch.of(stockId, delta));
+            }
+        });
+        return outstanding;
+    }
+
+    void appendAccepted(int stockId, long delta) {
+        append("D " + stockId + " " + delta, false);
+    }
+
+    /**
+     * Appends a batch drained outside a flush cycle and syncs it to disk.
+     */
+    void appendBatch(FlushBatch batch) {
+        append("B " + batch.id() + " " + batch.stockId() + " " + batch.delta(), true);
+    }
+
+    /**
+     * Appends a delta accepted within a database transaction with its compensation, and syncs it to disk.
+     */
+    void appendReserved(FlushBatch compensation) {
+        append("R " + compensation.id() + " " + compensation.stockId() + " " + compensation.delta(), true);
+    }
+
+    void appendUndone(FlushBatch compensation) {
+        append("U " + compensation.id() + " " + compensation.stockId() + " " + compensation.delta(), false);
+    }
+
+    void appendCommitted(FlushBatch batch) {
+        append("C " + batch.id() + " " + batch.stockId() + " " + batch.delta(), false);
+    }
+
+    /**
+     * Atomically replaces the journal with the given outstanding batches and syncs it to disk.
+     */
+    synchronized void rewrite(Collection<FlushBatch> outstanding) {
+        writeQueued();
+        try {
+            closeWriter();
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (FileOutputStream tempOut = new FileOutputStream(temporary.toFile());
+                 BufferedWriter tempWriter = new BufferedWriter(new OutputStreamWriter(tempOut, StandardCharsets.UTF_8))) {
+                for (FlushBatch batch : outstanding) {
+                    tempWriter.write("B " + batch.id() + " " + batch.stockId() + " " + batch.delta() + "\n");
+                }
+                tempWriter.flush();
+                tempOut.getFD().sync();
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            out = new FileOutputStream(path.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rewrite stock journal " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        writeQueued();
+        try {
+            if (writer != null) {
+                writer.flush();
+                out.getFD().sync();
+            }
+            closeWriter();
+        } catch (IOException e) {
+            log.warn("Could not close stock journal {}", path, e);
+        }
+    }
+
+    /**
+     * Queues a line and returns once it has been handed to the operating system, and synced to disk if asked.
+     */
+    private void append(String line, boolean sync) {
+        QueuedLine queuedLine = new QueuedLine(line, sync);
+        queued.add(queuedLine);
+        synchronized (this) {
+            if (!queuedLine.written) {
+                writeQueued();
+            }
+            if (queuedLine.failure != null) {
+                throw queuedLine.failure;
+            }
+        }
+    }
+
+    /**
+     * Writes every queued line with one flush, and one sync if any of them asked for it.
+     * Must be called holding the monitor of the journal.
+     */
+    private void writeQueued() {
+        List<QueuedLine> lines = new ArrayList<>();
+        boolean sync = false;
+        for (QueuedLine line; (line = queued.poll()) != null; ) {
+            lines.add(line);
+            sync |= line.sync;
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        RuntimeException failure = null;
+        if (writer == null) {
+            failure = new IllegalStateException("Stock journal " + path + " is not open");
+        } else {
+            try {
+                for (QueuedLine line : lines) {
+                    writer.write(line.line);
+                    writer.write('\n');
+                }
+                writer.flush();
+                if (sync) {
+                    out.getFD().sync();
+                }
+            } catch (IOException e) {
+                failure = new UncheckedIOException("Could not append to stock journal " + path, e);
+            }
+        }
+        for (QueuedLine line : lines) {
+            line.written = true;
+            line.failure = failure;
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            out = null;
+        }
+    }
+
+    private static final class QueuedLine {
+
+        private final String line;
+        private final boolean sync;
+        // Guarded by the monitor of the journal
+        private boolean written;
+        private RuntimeException failure;
+
+        QueuedLine(String line, boolean sync) {
+            this.line = line;
+            this.sync = sync;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.OrderManagement1.counter;
+
+/**
+ * Writes the deltas drained from the hot stock counters to the stock table.
+ */
+@FunctionalInterface
+public interface StockDeltaWriter {
+
+    /**
+     * Adds a delta to a stock and records the batch ID in the same transaction, doing nothing if a batch with
+     * that ID was already written. A batch that throws is kept and written again, with the same ID, later.
+     *
+     * @param batchId The ID of the flush batch.
+     * @param stockId The ID of the stock.
+     * @param delta   The quantity to add to the stock.
+     */
+    void write(String batchId, int stockId, long delta);
+}
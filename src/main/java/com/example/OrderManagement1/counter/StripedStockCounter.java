@@ -0,0 +1,116 @@
+package com.example.OrderManagement1.counter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The StripedStockCounter holds the reservable quantity of one hot Stock row split over a number of shards,
+ * so concurrent reservations mostly compare-and-set different cache lines instead of one contended value.
+ * The shards together never hold more than the quantity the counter was seeded with plus what was released,
+ * which is the reservation ceiling: a reservation that no single shard can serve rebalances all shards
+ * under a lock and only fails if their sum is too small.
+ * The net delta applied since the last drain is accumulated separately, to be flushed to the stock table.
+ */
+final class StripedStockCounter {
+
+    // Each shard sits on its own 64 byte cache line
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray quota;
+    private final int mask;
+    private final LongAdder pendingDelta = new LongAdder();
+    private volatile long lastActivityNanos = System.nanoTime();
+
+    StripedStockCounter(long available, int shards) {
+        int size = shards <= 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.quota = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+        spread(available);
+    }
+
+    /**
+     * Applies a signed quantity change: a negative delta reserves quantity, a positive one releases it.
+     *
+     * @param delta The change to apply.
+     * @return false if the delta would take the quantity below 0, in which case nothing is changed.
+     */
+    boolean adjust(long delta) {
+        if (delta < 0 && !reserve(-delta)) {
+            return false;
+        }
+        if (delta > 0) {
+            quota.getAndAdd(homeShard(), delta);
+        }
+        pendingDelta.add(delta);
+        lastActivityNanos = System.nanoTime();
+        return true;
+    }
+
+    /**
+     * Takes the net delta applied since the previous drain. The caller must make sure no adjustment runs concurrently.
+     */
+    long drain() {
+        return pendingDelta.sumThenReset();
+    }
+
+    /**
+     * Puts back a drained delta that could not be flushed, so that the next drain returns it again.
+     */
+    void restore(long delta) {
+        pendingDelta.add(delta);
+    }
+
+    long getPendingDelta() {
+        return pendingDelta.sum();
+    }
+
+    long getAvailable() {
+        long total = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            total += quota.get(shard * PADDING);
+        }
+        return total;
+    }
+
+    long getLastActivityNanos() {
+        return lastActivityNanos;
+    }
+
+    private boolean reserve(long amount) {
+        int home = homeShard() / PADDING;
+        for (int i = 0; i <= mask; i++) {
+            int index = ((home + i) & mask) * PADDING;
+            long current;
+            while ((current = quota.get(index)) >= amount) {
+                if (quota.compareAndSet(index, current, current - amount)) {
+                    return true;
+                }
+            }
+        }
+        return rebalanceAndReserve(amount);
+    }
+
+    private synchronized boolean rebalanceAndReserve(long amount) {
+        long total = 0;
+        for (int shard = 0; shard <= mask; shard++) {
+            total += quota.getAndSet(shard * PADDING, 0);
+        }
+        boolean reserved = total >= amount;
+        spread(reserved ? total - amount : total);
+        return reserved;
+    }
+
+    private void spread(long total) {
+        int shards = mask + 1;
+        long share = total / shards;
+        long remainder = total % shards;
+        for (int shard = 0; shard < shards; shard++) {
+            quota.getAndAdd(shard * PADDING, share + (shard < remainder ? 1 : 0));
+        }
+    }
+
+    private int homeShard() {
+        long id = Thread.currentThread().getId();
+        return ((int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask) * PADDING;
+    }
+}
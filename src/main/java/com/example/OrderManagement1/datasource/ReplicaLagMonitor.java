@@ -0,0 +1,60 @@
+package com.example.OrderManagement1.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * The ReplicaLagMonitor measures the replication lag with a heartbeat row: every interval it reads the
+ * replication_heartbeat row on each replica, then writes the current time to it on the primary.
+ * A replica that has applied the last beat written is not lagging; one that has not is behind by at least
+ * the time since the beat it has, which is the lag reported. A replica that cannot be read is marked unavailable
+ * until a later read succeeds.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String READ_BEAT = "select beat_at from replication_heartbeat where id = 1";
+    private static final String WRITE_BEAT = "update replication_heartbeat set beat_at = ? where id = 1";
+
+    private final JdbcTemplate primary;
+    private final List<ReplicaRoutingDataSource.Replica> replicas;
+    private final List<JdbcTemplate> replicaTemplates;
+    private long lastBeat = -1;
+
+    public ReplicaLagMonitor(ReplicaRoutingDataSource routingDataSource) {
+        this.primary = new JdbcTemplate(routingDataSource.getPrimary());
+        this.replicas = routingDataSource.getReplicas();
+        this.replicaTemplates = replicas.stream()
+                .map(replica -> new JdbcTemplate(replica.getDataSource()))
+                .toList();
+    }
+
+    /**
+     * Updates the lag of every replica and writes the next beat.
+     */
+    @Scheduled(fixedDelayString = "${application.datasource.replicas.heartbeat-interval-ms:1000}")
+    public synchronized void checkLag() {
+        long now = System.currentTimeMillis();
+        if (lastBeat < 0) {
+            lastBeat = primary.queryForObject(READ_BEAT, Long.class);
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaRoutingDataSource.Replica replica = replicas.get(i);
+            try {
+                long replicaBeat = replicaTemplates.get(i).queryForObject(READ_BEAT, Long.class);
+                replica.updateLag(replicaBeat >= lastBeat ? 0 : now - replicaBeat);
+            } catch (DataAccessException e) {
+                if (replica.isAvailable()) {
+                    log.warn("Cannot read the heartbeat of replica {}: {}", replica.getName(), e.getMessage());
+                }
+                replica.markUnavailable();
+            }
+        }
+        primary.update(WRITE_BEAT, now);
+        lastBeat = now;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.OrderManagement1.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ReplicaRoutingDataSource sends the connections of read-only transactions to the replica pools, round-robin,
+ * and every other connection to the primary pool. A replica only receives reads while the ReplicaLagMonitor
+ * has seen it within the maximum lag; otherwise, or when it refuses a connection, the read falls back to the primary.
+ * It must be wrapped in a LazyConnectionDataSourceProxy, so that the connection is taken on the first statement,
+ * after the transaction has been marked read-only.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    static final String PRIMARY = "primary";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Map<String, Replica> replicasByName = new HashMap<>();
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<Replica> replicas, long maxLagMillis,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLagMillis = maxLagMillis;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            replicasByName.put(replica.getName(), replica);
+            targetDataSources.put(replica.getName(), replica.getDataSource());
+            Gauge.builder("datasource.replica.lag", replica, Replica::getLagMillis)
+                    .tag("pool", replica.getName())
+                    .baseUnit("milliseconds")
+                    .description("Replication lag of the replica measured by the last heartbeat, NaN while unknown")
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.healthy", replica, r -> isHealthy(r) ? 1 : 0)
+                    .tag("pool", replica.getName())
+                    .description("1 while the replica receives read-only transactions")
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || replicas.isEmpty()) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (isHealthy(replica)) {
+                return replica.getName();
+            }
+        }
+        countFallback(replicas.get(start), replicas.get(start).isAvailable() ? "lagging" : "unavailable");
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        Replica replica = replicasByName.get(key);
+        if (replica == null) {
+            countConnection(PRIMARY);
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getDataSource().getConnection();
+            countConnection(replica.getName());
+            return connection;
+        } catch (SQLException e) {
+            // Kept out of the rotation until the next heartbeat reaches it again
+            replica.markUnavailable();
+            countFallback(replica, "unavailable");
+            log.warn("Replica {} refused a connection, reading from the primary: {}", replica.getName(), e.getMessage());
+            countConnection(PRIMARY);
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * @return The pool that serves the connections of read-write transactions.
+     */
+    public HikariDataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return The replica pools, in the order they were configured.
+     */
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Returns whether a replica currently receives read-only transactions.
+     *
+     * @param replica One of the replicas of this DataSource.
+     * @return True if the replica accepted the last heartbeat read and is within the maximum lag.
+     */
+    public boolean isHealthy(Replica replica) {
+        long lagMillis = replica.lagMillis;
+        return replica.isAvailable() && lagMillis >= 0 && lagMillis <= maxLagMillis;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.getDataSource().close());
+        primary.close();
+    }
+
+    private void countConnection(String pool) {
+        Counter.builder("datasource.routing.connections")
+                .tag("pool", pool)
+                .description("Connections handed out by the routing DataSource")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void countFallback(Replica replica, String reason) {
+        Counter.builder("datasource.routing.fallbacks")
+                .tag("pool", replica.getName())
+                .tag("reason", reason)
+                .description("Read-only connections served by the primary because no replica was usable")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * A replica pool with the lag last measured by the ReplicaLagMonitor.
+     */
+    public static class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        // -1 until the first heartbeat read
+        private volatile long lagMillis = -1;
+        private volatile boolean available = true;
+
+        public Replica(String name, HikariDataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        double getLagMillis() {
+            long lag = lagMillis;
+            return available && lag >= 0 ? lag : Double.NaN;
+        }
+
+        void updateLag(long lagMillis) {
+            this.lagMillis = lagMillis;
+            this.available = true;
+        }
+
+        void markUnavailable() {
+            this.available = false;
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.example.OrderManagement1.entity;
 import com.example.OrderManagement1.token.Token;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -14,6 +16,7 @@ import java.util.Set;
 
 /**
  * The Customer entity represents a customer in the system.
+ * Customers are kept in the second-level cache; see ehcache.xml for the region bounds.
  */
 @Getter
 @Setter
@@ -22,6 +25,8 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "customer")
 public class Customer implements Serializable, UserDetails {
     @Id
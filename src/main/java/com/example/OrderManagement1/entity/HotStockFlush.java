@@ -0,0 +1,35 @@
+package com.example.OrderManagement1.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The HotStockFlush entity records a batch of hot stock deltas written to the stock table.
+ * It is saved in the same transaction as the write, so a batch written again after a crash is recognised and skipped.
+ * A removal from a hot stock within a transaction saves the batch that compensates it the same way, so that the
+ * compensation is only written if the transaction did not commit.
+ */
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "hot_stock_flush", indexes = {
+        @Index(name = "idx_hot_stock_flush_flushed_at", columnList = "flushed_at")
+})
+public class HotStockFlush {
+    @Id
+    @Column(name = "batch_id", length = 36)
+    private String batchId;
+
+    @Column(name = "stock_id", nullable = false)
+    private int stockId;
+
+    private long delta;
+
+    @Column(name = "flushed_at", nullable = false)
+    private LocalDateTime flushedAt;
+}
@@ -2,11 +2,15 @@ package com.example.OrderManagement1.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 /**
  * The Product entity represents a product available in the system.
+ * Products are kept in the second-level cache; see ehcache.xml for the region bounds.
+ * A product with a reorder threshold is reported as low on stock once its total quantity falls to the threshold.
  */
 @Getter
 @Setter
@@ -14,6 +18,8 @@ import java.util.List;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "product")
 public class Product {
     @Id
@@ -26,6 +32,9 @@ public class Product {
     private double vat;
     private boolean stockable;
 
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold;
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL)
     private List<Stock> stocks;
 
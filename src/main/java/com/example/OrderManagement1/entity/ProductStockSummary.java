@@ -0,0 +1,27 @@
+package com.example.OrderManagement1.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ProductStockSummary entity holds the total available quantity of a product,
+ * summed over all of its Stock rows, and the number of those rows. It is maintained incrementally by the stock service.
+ */
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "product_stock_summary")
+public class ProductStockSummary {
+    @Id
+    @Column(name = "product_id")
+    private int productId;
+
+    private long totalQuantity;
+    private int stockCount;
+    private LocalDateTime updatedAt;
+}
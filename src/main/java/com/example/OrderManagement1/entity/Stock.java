@@ -8,6 +8,8 @@ import java.time.LocalDateTime;
 /**
  * The Stock entity represents the stock availability for a product.
  * It contains information about the quantity and the last update timestamp.
+ * The version column guards full updates against lost writes; quantity deltas are applied with a conditional UPDATE.
+ * The indexes serve the time range finders, per product and across products; they are created by the migrations.
  */
 @Getter
 @Setter
@@ -15,7 +17,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "stock")
+@Table(name = "stock", indexes = {
+        @Index(name = "idx_stock_product_updated_at", columnList = "product_id, updated_at"),
+        @Index(name = "idx_stock_updated_at", columnList = "updated_at")
+})
 public class Stock {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +31,10 @@ public class Stock {
     private Product product;
 
     private int quantity;
+    @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    @Version
+    private long version;
 }
 
@@ -0,0 +1,33 @@
+package com.example.OrderManagement1.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockHold entity represents a temporary reservation of a quantity of a Stock row, e.g. for a cart.
+ * The quantity is taken from the stock when the hold is placed and given back when the hold is released
+ * or expires; confirming the hold keeps it taken.
+ */
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_hold")
+public class StockHold {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "stock_id", nullable = false)
+    private int stockId;
+
+    private int quantity;
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
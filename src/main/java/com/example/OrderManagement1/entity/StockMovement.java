@@ -0,0 +1,39 @@
+package com.example.OrderManagement1.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockMovement entity is one row of the insert-only stock ledger: a quantity change of a Stock row
+ * made through the stock service. Rows are never updated or deleted, and they keep the stock and product IDs
+ * as plain columns so the history outlives deleted stocks.
+ */
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_movement", indexes = {
+        @Index(name = "idx_stock_movement_stock", columnList = "stock_id, occurred_at"),
+        @Index(name = "idx_stock_movement_product", columnList = "product_id, id")
+})
+public class StockMovement {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "stock_id", nullable = false)
+    private int stockId;
+
+    @Column(name = "product_id", nullable = false)
+    private int productId;
+
+    private int delta;
+    private int quantityAfter;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,37 @@
+package com.example.OrderManagement1.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockSnapshot entity records the total quantity of a product, summed over its Stock rows,
+ * right after a given StockMovement. The quantity at any later point is the snapshot quantity
+ * plus the deltas of the product's movements that follow it.
+ */
+@Getter
+@Setter
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "stock_snapshot", indexes = {
+        @Index(name = "idx_stock_snapshot_product", columnList = "product_id, taken_at")
+})
+public class StockSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "product_id", nullable = false)
+    private int productId;
+
+    @Column(name = "last_movement_id", nullable = false)
+    private long lastMovementId;
+
+    private long totalQuantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
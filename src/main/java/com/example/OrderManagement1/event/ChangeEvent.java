@@ -0,0 +1,36 @@
+package com.example.OrderManagement1.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ChangeEvent class describes one committed change of an order, product order or stock, as published on the
+ * {@link ChangeEventBus}. Events are numbered in commit order from 1; the numbering restarts with the application.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ChangeEvent {
+    private final long id;
+    private final String entity;
+    private final Type type;
+    private final Object key;
+    private final Object data;
+    private final LocalDateTime occurredAt;
+
+    /**
+     * Returns the name of the event, e.g. "order.created".
+     *
+     * @return The entity and the type of the change.
+     */
+    public String getName() {
+        return entity + "." + type.name().toLowerCase();
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
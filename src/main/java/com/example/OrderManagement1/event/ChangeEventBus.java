@@ -0,0 +1,126 @@
+package com.example.OrderManagement1.event;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The ChangeEventBus numbers the changes made by the services and hands them to its subscribers in that order.
+ * A change made in a transaction is published after the commit, so a rolled back change is never seen.
+ * The last buffer-size events are kept in a ring buffer, so a subscriber that reconnects can resume after the
+ * last event it received; older events are gone, and such a subscriber is told to reload instead.
+ */
+@Component
+public class ChangeEventBus {
+
+    private final ChangeEvent[] ring;
+    private final List<ChangeEventSubscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Counter published;
+    private long lastEventId;
+
+    public ChangeEventBus(@Value("${application.changes.buffer-size:10000}") int bufferSize, MeterRegistry meterRegistry) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("application.changes.buffer-size must be at least 1");
+        }
+        this.ring = new ChangeEvent[bufferSize];
+        this.published = Counter.builder("change.events.published")
+                .description("Change events published to the subscribers")
+                .register(meterRegistry);
+        Gauge.builder("change.events.subscribers", subscribers, List::size)
+                .description("Subscribers of the change events")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes a change, after the commit of the current transaction if there is one.
+     *
+     * @param entity The changed entity, e.g. "order".
+     * @param type   The type of the change.
+     * @param key    The ID of the changed entity.
+     * @param data   The entity after the change, or null for a deletion.
+     */
+    public void publish(String entity, ChangeEvent.Type type, Object key, Object data) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(entity, type, key, data);
+                }
+            });
+        } else {
+            append(entity, type, key, data);
+        }
+    }
+
+    /**
+     * Subscribes to the events published from now on, first replaying the buffered events after lastEventId,
+     * or telling the subscriber to reload if they are no longer buffered or exceed its replay capacity.
+     *
+     * @param lastEventId The ID of the last event the subscriber received, or a negative value to replay nothing.
+     * @param subscriber  The subscriber.
+     * @return Cancels the subscription.
+     */
+    public synchronized Runnable subscribe(long lastEventId, ChangeEventSubscriber subscriber) {
+        // No event is published while the bus is locked, so the subscriber added before the replay misses none
+        Runnable cancellation = add(subscriber);
+        if (lastEventId >= 0 && lastEventId < this.lastEventId) {
+            long oldestBuffered = Math.max(1, this.lastEventId - ring.length + 1);
+            if (lastEventId + 1 < oldestBuffered || this.lastEventId - lastEventId > subscriber.getReplayCapacity()) {
+                subscriber.onGap(this.lastEventId);
+            } else {
+                for (long id = lastEventId + 1; id <= this.lastEventId; id++) {
+                    subscriber.onEvent(ring[slot(id)]);
+                }
+            }
+        }
+        return cancellation;
+    }
+
+    /**
+     * Subscribes a subscriber that lost track of the events, e.g. across a restart: it is told to reload first,
+     * then receives the events published from now on.
+     *
+     * @param subscriber The subscriber.
+     * @return Cancels the subscription.
+     */
+    public synchronized Runnable resubscribe(ChangeEventSubscriber subscriber) {
+        Runnable cancellation = add(subscriber);
+        subscriber.onGap(lastEventId);
+        return cancellation;
+    }
+
+    /**
+     * Returns the ID of the last event published, or 0 before the first one.
+     */
+    public synchronized long getLastEventId() {
+        return lastEventId;
+    }
+
+    private synchronized void append(String entity, ChangeEvent.Type type, Object key, Object data) {
+        ChangeEvent event = new ChangeEvent(++lastEventId, entity, type, key, data, LocalDateTime.now());
+        ring[slot(event.getId())] = event;
+        published.increment();
+        for (ChangeEventSubscriber subscriber : subscribers) {
+            subscriber.onEvent(event);
+        }
+    }
+
+    private Runnable add(ChangeEventSubscriber subscriber) {
+        subscribers.add(subscriber);
+        Runnable cancellation = () -> subscribers.remove(subscriber);
+        subscriber.onSubscribed(cancellation);
+        return cancellation;
+    }
+
+    private int slot(long id) {
+        return (int) ((id - 1) % ring.length);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.OrderManagement1.event;
+
+/**
+ * The ChangeEventSubscriber interface is implemented by the consumers of the {@link ChangeEventBus}.
+ * Its methods are called while the bus is locked, in event order, so they must only hand the event over.
+ */
+public interface ChangeEventSubscriber {
+
+    /**
+     * Called when the subscription starts, before any event is replayed.
+     *
+     * @param cancellation Cancels the subscription, also from within the other methods.
+     */
+    default void onSubscribed(Runnable cancellation) {
+    }
+
+    /**
+     * Returns the most events the subscriber can take in one replay; a longer replay is replaced by {@link #onGap}.
+     */
+    default int getReplayCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * Called for every event published after the subscription, and for the replayed events before them.
+     *
+     * @param event The published event.
+     */
+    void onEvent(ChangeEvent event);
+
+    /**
+     * Called instead of the replay when events after the requested ID are no longer buffered, or more of them are
+     * buffered than the replay capacity.
+     *
+     * @param lastEventId The ID of the last event published; the events after it will follow.
+     */
+    void onGap(long lastEventId);
+}
@@ -0,0 +1,19 @@
+package com.example.OrderManagement1.event;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The ProductsChangedEvent is published after a set of products has been modified outside of the
+ * regular per-entity save path (e.g. by a bulk UPDATE statement), so that anything holding product
+ * state in memory can refresh it once for the whole set.
+ */
+@Getter
+public class ProductsChangedEvent {
+    private final List<Integer> productIds;
+
+    public ProductsChangedEvent(List<Integer> productIds) {
+        this.productIds = List.copyOf(productIds);
+    }
+}
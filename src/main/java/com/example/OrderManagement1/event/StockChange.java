@@ -0,0 +1,43 @@
+package com.example.OrderManagement1.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The StockChange class describes one change of a Stock row made through the stock service:
+ * the quantity of the row before and after the change.
+ * A created row has a previous quantity of 0 and a deleted row has a new quantity of 0.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockChange {
+    private final int stockId;
+    private final int productId;
+    private final int previousQuantity;
+    private final int newQuantity;
+    private final Type type;
+
+    /**
+     * Returns the signed quantity difference introduced by this change.
+     *
+     * @return The new quantity minus the previous quantity.
+     */
+    public int getDelta() {
+        return newQuantity - previousQuantity;
+    }
+
+    /**
+     * Returns the change in the number of Stock rows of the product introduced by this change.
+     *
+     * @return 1 for a created row, -1 for a deleted row and 0 otherwise.
+     */
+    public int getStockCountDelta() {
+        return type == Type.CREATED ? 1 : type == Type.DELETED ? -1 : 0;
+    }
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.OrderManagement1.event;
+
+/**
+ * The StockChangeListener interface is implemented by components that derive state from the stock table.
+ * Listeners are called by the stock service inside the transaction of the change, so database side
+ * effects commit or roll back together with the stock row.
+ */
+public interface StockChangeListener {
+
+    /**
+     * Called for every change of a Stock row.
+     *
+     * @param change The change that was applied.
+     */
+    void onStockChanged(StockChange change);
+}
@@ -0,0 +1,22 @@
+package com.example.OrderManagement1.event;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes every change of a Stock row on the {@link ChangeEventBus} as a "stock" event carrying the StockChange.
+ * Adjustments of hot stocks are published when their net delta is flushed to the table.
+ */
+@Component
+public class StockChangePublisher implements StockChangeListener {
+
+    private final ChangeEventBus changeEventBus;
+
+    public StockChangePublisher(ChangeEventBus changeEventBus) {
+        this.changeEventBus = changeEventBus;
+    }
+
+    @Override
+    public void onStockChanged(StockChange change) {
+        changeEventBus.publish("stock", ChangeEvent.Type.valueOf(change.getType().name()), change.getStockId(), change);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.OrderManagement1.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockThresholdCrossedEvent is published after a committed change takes the total quantity of a product
+ * to or below its reorder threshold (low is true), or back above it (low is false).
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockThresholdCrossedEvent {
+    private final int productId;
+    private final long quantity;
+    private final int reorderThreshold;
+    private final boolean low;
+    private final LocalDateTime occurredAt;
+}
@@ -0,0 +1,51 @@
+package com.example.OrderManagement1.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * The GlobalExceptionHandler renders the exceptions of all controllers as an ErrorResponse with the matching status.
+ */
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    /**
+     * Renders a missing resource as 404 Not Found.
+     *
+     * @param ex ResourceNotFoundException object
+     * @return ErrorResponse object with error details
+     */
+    @ExceptionHandler(ResourceNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(HttpStatus.NOT_FOUND.value(), ex.getMessage()));
+    }
+
+    /**
+     * Renders an OrderAPIException with the status it carries.
+     *
+     * @param ex OrderAPIException object
+     * @return ErrorResponse object with error details
+     */
+    @ExceptionHandler(OrderAPIException.class)
+    public ResponseEntity<ErrorResponse> handleOrderAPIException(OrderAPIException ex) {
+        return ResponseEntity.status(ex.getStatus())
+                .body(new ErrorResponse(ex.getStatus().value(), ex.getMessage()));
+    }
+
+    /**
+     * Renders an exhausted capacity as 503 Service Unavailable, with the Retry-After header.
+     *
+     * @param ex ServiceUnavailableException object
+     * @return ErrorResponse object with error details
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getReason()));
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * The ResourceNotFoundException class represents an exception to be thrown when a requested resource is not found.
  * It extends the RuntimeException class and includes the resource name, field name, and field value in the exception message.
+ * Misses are expected, e.g. for IDs probed by clients, so the exception has no stack trace and only builds its message when it is read.
  */
 @ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException extends RuntimeException {
@@ -14,12 +15,17 @@ public class ResourceNotFoundException extends RuntimeException {
     private final Object fieldValue;
 
     public ResourceNotFoundException(String resourceName, String fieldName, Object fieldValue) {
-        super(String.format("%s not found with %s: %s", resourceName, fieldName, fieldValue));
+        super(null, null, false, false);
         this.resourceName = resourceName;
         this.fieldName = fieldName;
         this.fieldValue = fieldValue;
     }
 
+    @Override
+    public String getMessage() {
+        return resourceName + " not found with " + fieldName + ": " + fieldValue;
+    }
+
     public String getResourceName() {
         return resourceName;
     }
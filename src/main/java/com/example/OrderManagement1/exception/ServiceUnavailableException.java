@@ -0,0 +1,30 @@
+package com.example.OrderManagement1.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * The ServiceUnavailableException class represents an exception to be thrown when a request cannot be served
+ * now because the capacity reserved for it is exhausted. It is answered with 503 Service Unavailable and a
+ * Retry-After header telling the client when to try again.
+ */
+public class ServiceUnavailableException extends ResponseStatusException {
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
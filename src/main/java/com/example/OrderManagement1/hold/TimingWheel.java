@@ -0,0 +1,195 @@
+package com.example.OrderManagement1.hold;
+
+import java.util.function.Consumer;
+
+/**
+ * The TimingWheel is a hierarchical timing wheel: level 0 has one slot per tick, and every level above
+ * has slots as wide as a whole turn of the level below. A timer is put in the lowest level whose range
+ * covers its delay and moves down a level each time the wheel reaches its slot, so adding, cancelling
+ * and expiring a timer are O(1) and advancing the wheel only visits the slots of the elapsed ticks.
+ * Timers beyond the range of the top level wait in its furthest slot and are placed again when it is reached.
+ * All methods are synchronized; they only relink list nodes, so the lock is held for a few instructions per timer.
+ *
+ * @param <T> The type of the value carried by a timer.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Slot<T>[][] levels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.levels = new Slot[LEVELS][SLOTS];
+        for (Slot<T>[] level : levels) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = new Slot<>();
+            }
+        }
+    }
+
+    /**
+     * Schedules a value to expire at the given time.
+     *
+     * @param value          The value to hand back on expiry.
+     * @param expiresAtMillis The expiry time in epoch milliseconds.
+     * @return The timer, for {@link #cancel(Timer)}.
+     */
+    public synchronized Timer<T> schedule(T value, long expiresAtMillis) {
+        Timer<T> timer = new Timer<>(value, expiresAtMillis, ceilDiv(expiresAtMillis, tickMillis));
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Removes a timer before it expires.
+     *
+     * @param timer The timer returned by {@link #schedule(Object, long)}.
+     * @return false if the timer had already expired or been cancelled.
+     */
+    public synchronized boolean cancel(Timer<T> timer) {
+        if (timer.slot == null) {
+            return false;
+        }
+        timer.slot.unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time, handing every timer that expired on the way to the consumer.
+     * Timers that were already due when scheduled expire on the first call.
+     *
+     * @param nowMillis The current time in epoch milliseconds.
+     * @param expired   Receives the expired timers, oldest tick first.
+     */
+    public synchronized void advance(long nowMillis, Consumer<Timer<T>> expired) {
+        expire(levels[0][(int) (currentTick & SLOT_MASK)], expired);
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade(1);
+            expire(levels[0][(int) (currentTick & SLOT_MASK)], expired);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        if (level >= LEVELS || ((currentTick >>> (SLOT_BITS * (level - 1))) & SLOT_MASK) != 0) {
+            return;
+        }
+        // Higher levels first, so their timers can move down through this one
+        cascade(level + 1);
+        Slot<T> slot = levels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+        Timer<T> timer = slot.head;
+        slot.head = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.slot = null;
+            timer.previous = null;
+            timer.next = null;
+            place(timer);
+            timer = next;
+        }
+    }
+
+    private void expire(Slot<T> slot, Consumer<Timer<T>> expired) {
+        Timer<T> timer = slot.head;
+        slot.head = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.slot = null;
+            timer.previous = null;
+            timer.next = null;
+            size--;
+            expired.accept(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.expiryTick - currentTick;
+        if (delay <= 0) {
+            levels[0][(int) (currentTick & SLOT_MASK)].link(timer);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delay < 1L << (SLOT_BITS * (level + 1))) {
+                levels[level][(int) ((timer.expiryTick >>> (SLOT_BITS * level)) & SLOT_MASK)].link(timer);
+                return;
+            }
+        }
+        long furthestTick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        levels[LEVELS - 1][(int) ((furthestTick >>> (SLOT_BITS * (LEVELS - 1))) & SLOT_MASK)].link(timer);
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * A scheduled timer; a node of the intrusive list of its slot.
+     */
+    public static final class Timer<T> {
+        private final T value;
+        private final long expiresAtMillis;
+        private final long expiryTick;
+        private Slot<T> slot;
+        private Timer<T> previous;
+        private Timer<T> next;
+
+        private Timer(T value, long expiresAtMillis, long expiryTick) {
+            this.value = value;
+            this.expiresAtMillis = expiresAtMillis;
+            this.expiryTick = expiryTick;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timer<T> head;
+
+        void link(Timer<T> timer) {
+            timer.slot = this;
+            timer.previous = null;
+            timer.next = head;
+            if (head != null) {
+                head.previous = timer;
+            }
+            head = timer;
+        }
+
+        void unlink(Timer<T> timer) {
+            if (timer.previous != null) {
+                timer.previous.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.previous = timer.previous;
+            }
+            timer.slot = null;
+            timer.previous = null;
+            timer.next = null;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.event.StockChangeListener;
+import com.example.OrderManagement1.event.StockThresholdCrossedEvent;
+import com.example.OrderManagement1.payload.LowStockDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The LowStockIndex keeps the products that have a reorder threshold ordered by their margin,
+ * the total quantity minus the threshold, so the products running low are the head of the order
+ * instead of the result of a scan. The margins are recomputed from the StockAvailabilityIndex
+ * after every committed stock change, and a StockThresholdCrossedEvent is published whenever a margin
+ * goes from above 0 to 0 or below, or back.
+ */
+@Component
+@Order(3)
+public class LowStockIndex implements StockChangeListener {
+
+    private static final Comparator<Margin> BY_MARGIN = Comparator.comparingLong(Margin::margin).thenComparingInt(Margin::productId);
+
+    private final ProductRepository productRepository;
+    private final StockAvailabilityIndex stockAvailabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Integer, Margin> byProduct = new HashMap<>();
+    private final NavigableSet<Margin> byMargin = new TreeSet<>(BY_MARGIN);
+
+    public LowStockIndex(ProductRepository productRepository, StockAvailabilityIndex stockAvailabilityIndex,
+                         ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.stockAvailabilityIndex = stockAvailabilityIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Loads the reorder thresholds of all products; runs after the StockAvailabilityIndex has loaded the quantities.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Object[]> rows = productRepository.findReorderThresholds();
+        lock.writeLock().lock();
+        try {
+            byProduct.clear();
+            byMargin.clear();
+            for (Object[] row : rows) {
+                int productId = (Integer) row[0];
+                put(new Margin(productId, (Integer) row[1], stockAvailabilityIndex.getAvailableQuantity(productId)));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onStockChanged(StockChange change) {
+        if (change.getDelta() == 0) {
+            return;
+        }
+        // Registered after the StockAvailabilityIndex, so its quantity is already updated when this runs
+        afterCommit(() -> refresh(change.getProductId()));
+    }
+
+    /**
+     * Sets or removes the reorder threshold of a product, e.g. after the product was saved.
+     * Inside a transaction the change is applied once it commits.
+     *
+     * @param productId        The ID of the product.
+     * @param reorderThreshold The new threshold, or null to stop tracking the product.
+     */
+    public void setThreshold(int productId, Integer reorderThreshold) {
+        afterCommit(() -> applyThreshold(productId, reorderThreshold));
+    }
+
+    /**
+     * Stops tracking a deleted product. Inside a transaction the product is removed once it commits.
+     *
+     * @param productId The ID of the product.
+     */
+    public void delete(int productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    private void applyThreshold(int productId, Integer reorderThreshold) {
+        StockThresholdCrossedEvent crossing;
+        lock.writeLock().lock();
+        try {
+            Margin previous = remove(productId);
+            if (reorderThreshold == null) {
+                return;
+            }
+            Margin current = new Margin(productId, reorderThreshold, stockAvailabilityIndex.getAvailableQuantity(productId));
+            put(current);
+            crossing = crossing(previous, current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(crossing);
+    }
+
+    /**
+     * Returns the products with the smallest margins, smallest first.
+     *
+     * @param maxMargin The largest margin to include; 0 returns only the products at or below their threshold.
+     * @param limit     The maximum number of products to return.
+     * @return One LowStockDto per product.
+     */
+    public List<LowStockDto> getLowStock(long maxMargin, int limit) {
+        List<LowStockDto> lowStock = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // The bound has margin maxMargin and sorts after every product with that margin
+            for (Margin margin : byMargin.headSet(new Margin(Integer.MAX_VALUE, 0, maxMargin), true)) {
+                if (lowStock.size() >= limit) {
+                    break;
+                }
+                lowStock.add(new LowStockDto(margin.productId(), margin.quantity(), margin.reorderThreshold(), margin.margin()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return lowStock;
+    }
+
+    private void refresh(int productId) {
+        StockThresholdCrossedEvent crossing;
+        lock.writeLock().lock();
+        try {
+            Margin previous = byProduct.get(productId);
+            if (previous == null) {
+                return;
+            }
+            remove(productId);
+            Margin current = new Margin(productId, previous.reorderThreshold(), stockAvailabilityIndex.getAvailableQuantity(productId));
+            put(current);
+            crossing = crossing(previous, current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        publish(crossing);
+    }
+
+    private StockThresholdCrossedEvent crossing(Margin previous, Margin current) {
+        boolean wasLow = previous != null && previous.isLow();
+        if (wasLow == current.isLow()) {
+            return null;
+        }
+        return new StockThresholdCrossedEvent(current.productId(), current.quantity(), current.reorderThreshold(),
+                current.isLow(), LocalDateTime.now());
+    }
+
+    private void publish(StockThresholdCrossedEvent crossing) {
+        if (crossing != null) {
+            eventPublisher.publishEvent(crossing);
+        }
+    }
+
+    private void put(Margin margin) {
+        byProduct.put(margin.productId(), margin);
+        byMargin.add(margin);
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private Margin remove(int productId) {
+        Margin previous = byProduct.remove(productId);
+        if (previous != null) {
+            byMargin.remove(previous);
+        }
+        return previous;
+    }
+
+    private record Margin(int productId, int reorderThreshold, long quantity) {
+
+        long margin() {
+            return quantity - reorderThreshold;
+        }
+
+        boolean isLow() {
+            return margin() <= 0;
+        }
+    }
+}
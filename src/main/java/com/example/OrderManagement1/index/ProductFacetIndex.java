@@ -0,0 +1,319 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.event.ProductsChangedEvent;
+import com.example.OrderManagement1.repository.ProductRepository;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The ProductFacetIndex keeps one bitmap per facet value (VAT rate, price bucket, stockable flag),
+ * with the product ID as the bit position. Combined filters and facet counts are answered by
+ * intersecting bitmaps in memory instead of running one query per filter.
+ * The index is loaded once at startup and then maintained incrementally on product writes.
+ */
+@Component
+public class ProductFacetIndex {
+
+    private final ProductRepository productRepository;
+    private final double priceBucketWidth;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final BitSet all = new BitSet();
+    private final BitSet stockable = new BitSet();
+    private final Map<Double, BitSet> byVat = new TreeMap<>();
+    private final Map<Integer, BitSet> byPriceBucket = new TreeMap<>();
+    private double[] prices = new double[1024];
+    private double[] vats = new double[1024];
+
+    public ProductFacetIndex(ProductRepository productRepository,
+                             @Value("${application.products.facets.price-bucket-width:10}") double priceBucketWidth) {
+        if (!(priceBucketWidth > 0)) {
+            throw new IllegalArgumentException("application.products.facets.price-bucket-width must be greater than 0");
+        }
+        this.productRepository = productRepository;
+        this.priceBucketWidth = priceBucketWidth;
+    }
+
+    /**
+     * Loads the whole catalog into the index.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> rows = productRepository.findFacetRows();
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            stockable.clear();
+            byVat.clear();
+            byPriceBucket.clear();
+            for (Object[] row : rows) {
+                add((Integer) row[0], (Double) row[1], (Double) row[2], (Boolean) row[3]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces a product in the index.
+     *
+     * @param product The product to index.
+     */
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            remove(product.getId());
+            add(product.getId(), product.getPrice(), product.getVat(), product.isStockable());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a product from the index.
+     *
+     * @param productId The ID of the product to remove.
+     */
+    public void delete(int productId) {
+        lock.writeLock().lock();
+        try {
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads the products changed by a bulk update, once per changed chunk.
+     *
+     * @param event The event listing the changed product IDs.
+     */
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        List<Product> products = productRepository.findAllById(event.getProductIds());
+        lock.writeLock().lock();
+        try {
+            event.getProductIds().forEach(this::remove);
+            for (Product product : products) {
+                add(product.getId(), product.getPrice(), product.getVat(), product.isStockable());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluates the given filters and counts every facet value.
+     * The counts of a facet are computed with all filters applied except the filter on that facet,
+     * so a client can see how many results each alternative value would give.
+     *
+     * @param vatRates  The accepted VAT rates, or an empty collection for any VAT.
+     * @param minPrice  The minimum price, or null.
+     * @param maxPrice  The maximum price, or null.
+     * @param inStock   The required stockable flag, or null for either.
+     * @return The matching product IDs and the facet counts.
+     */
+    public FacetSearchResult search(Collection<Double> vatRates, Double minPrice, Double maxPrice, Boolean inStock) {
+        lock.readLock().lock();
+        try {
+            BitSet vatMask = vatMask(vatRates);
+            BitSet priceMask = priceMask(minPrice, maxPrice);
+            BitSet stockableMask = stockableMask(inStock);
+
+            BitSet matches = intersect(vatMask, priceMask, stockableMask);
+
+            Map<String, Long> vatCounts = new LinkedHashMap<>();
+            BitSet withoutVat = intersect(null, priceMask, stockableMask);
+            byVat.forEach((vat, bits) -> putCount(vatCounts, String.valueOf(vat), withoutVat, bits));
+
+            Map<String, Long> priceCounts = new LinkedHashMap<>();
+            BitSet withoutPrice = intersect(vatMask, null, stockableMask);
+            byPriceBucket.forEach((bucket, bits) -> putCount(priceCounts, bucketLabel(bucket), withoutPrice, bits));
+
+            Map<String, Long> stockableCounts = new LinkedHashMap<>();
+            BitSet withoutStockable = intersect(vatMask, priceMask, null);
+            BitSet notStockable = (BitSet) all.clone();
+            notStockable.andNot(stockable);
+            putCount(stockableCounts, "true", withoutStockable, stockable);
+            putCount(stockableCounts, "false", withoutStockable, notStockable);
+
+            return new FacetSearchResult(matches, vatCounts, priceCounts, stockableCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(int productId, double price, double vat, boolean isStockable) {
+        ensureCapacity(productId);
+        all.set(productId);
+        stockable.set(productId, isStockable);
+        byVat.computeIfAbsent(vat, v -> new BitSet()).set(productId);
+        byPriceBucket.computeIfAbsent(bucketOf(price), b -> new BitSet()).set(productId);
+        prices[productId] = price;
+        vats[productId] = vat;
+    }
+
+    private void remove(int productId) {
+        if (!all.get(productId)) {
+            return;
+        }
+        all.clear(productId);
+        stockable.clear(productId);
+        clearBit(byVat, vats[productId], productId);
+        clearBit(byPriceBucket, bucketOf(prices[productId]), productId);
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> bitmaps, K key, int productId) {
+        BitSet bits = bitmaps.get(key);
+        if (bits != null) {
+            bits.clear(productId);
+            if (bits.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private void ensureCapacity(int productId) {
+        if (productId >= prices.length) {
+            int length = Math.max(productId + 1, prices.length * 2);
+            prices = Arrays.copyOf(prices, length);
+            vats = Arrays.copyOf(vats, length);
+        }
+    }
+
+    private BitSet vatMask(Collection<Double> vatRates) {
+        if (vatRates == null || vatRates.isEmpty()) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (Double vat : new HashSet<>(vatRates)) {
+            BitSet bits = byVat.get(vat);
+            if (bits != null) {
+                mask.or(bits);
+            }
+        }
+        return mask;
+    }
+
+    private BitSet priceMask(Double minPrice, Double maxPrice) {
+        if (minPrice == null && maxPrice == null) {
+            return null;
+        }
+        double min = minPrice != null ? minPrice : Double.NEGATIVE_INFINITY;
+        double max = maxPrice != null ? maxPrice : Double.POSITIVE_INFINITY;
+        BitSet mask = new BitSet();
+        for (Map.Entry<Integer, BitSet> entry : byPriceBucket.entrySet()) {
+            double bucketStart = entry.getKey() * priceBucketWidth;
+            double bucketEnd = bucketStart + priceBucketWidth;
+            if (bucketEnd <= min || bucketStart > max) {
+                continue;
+            }
+            if (bucketStart >= min && bucketEnd <= max) {
+                mask.or(entry.getValue());
+            } else {
+                // Edge bucket: only part of it is inside the range, check the exact prices
+                BitSet bits = entry.getValue();
+                for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+                    if (prices[id] >= min && prices[id] <= max) {
+                        mask.set(id);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    private BitSet stockableMask(Boolean inStock) {
+        if (inStock == null) {
+            return null;
+        }
+        if (inStock) {
+            return stockable;
+        }
+        BitSet mask = (BitSet) all.clone();
+        mask.andNot(stockable);
+        return mask;
+    }
+
+    private BitSet intersect(BitSet... masks) {
+        BitSet result = (BitSet) all.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static void putCount(Map<String, Long> counts, String label, BitSet base, BitSet facet) {
+        BitSet bits = (BitSet) base.clone();
+        bits.and(facet);
+        counts.put(label, (long) bits.cardinality());
+    }
+
+    private int bucketOf(double price) {
+        return (int) Math.floor(price / priceBucketWidth);
+    }
+
+    private String bucketLabel(int bucket) {
+        return (bucket * priceBucketWidth) + "-" + ((bucket + 1) * priceBucketWidth);
+    }
+
+    /**
+     * The result of a facet search: the matching product IDs and the count for every facet value.
+     */
+    @Getter
+    public static class FacetSearchResult {
+        private final BitSet matches;
+        private final Map<String, Long> vatCounts;
+        private final Map<String, Long> priceCounts;
+        private final Map<String, Long> stockableCounts;
+
+        FacetSearchResult(BitSet matches, Map<String, Long> vatCounts,
+                          Map<String, Long> priceCounts, Map<String, Long> stockableCounts) {
+            this.matches = matches;
+            this.vatCounts = vatCounts;
+            this.priceCounts = priceCounts;
+            this.stockableCounts = stockableCounts;
+        }
+
+        /**
+         * Returns one page of matching product IDs, in ascending ID order.
+         *
+         * @param page The zero-based page number.
+         * @param size The page size, at least 1.
+         * @return The product IDs of the page.
+         */
+        public List<Integer> page(int page, int size) {
+            if (page < 0 || size < 1) {
+                throw new IllegalArgumentException("The page must be at least 0 and the size at least 1");
+            }
+            List<Integer> ids = new ArrayList<>(Math.min(size, matches.cardinality()));
+            long skip = (long) page * size;
+            for (int id = matches.nextSetBit(0); id >= 0 && ids.size() < size; id = matches.nextSetBit(id + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+    }
+}
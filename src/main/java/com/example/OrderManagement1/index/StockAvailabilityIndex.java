@@ -0,0 +1,123 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.entity.ProductStockSummary;
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.event.StockChangeListener;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The StockAvailabilityIndex keeps the available quantity of every product, summed over its Stock rows,
+ * both in the product_stock_summary table and in memory; the table also counts the Stock rows of every product. Availability checks are then map lookups
+ * instead of a join and a SUM over the stock table.
+ * The summary row is updated in the transaction of the stock change; the in-memory copy after commit.
+ */
+// Runs first: its summary row upsert serializes the changes of a product for the listeners after it
+@Component
+@Order(1)
+public class StockAvailabilityIndex implements StockChangeListener {
+
+    private final ProductStockSummaryRepository summaryRepository;
+    private final StockRepository stockRepository;
+
+    private final Map<Integer, Long> availableByProduct = new ConcurrentHashMap<>();
+    private final Set<Integer> inStockProducts = ConcurrentHashMap.newKeySet();
+
+    public StockAvailabilityIndex(ProductStockSummaryRepository summaryRepository, StockRepository stockRepository) {
+        this.summaryRepository = summaryRepository;
+        this.stockRepository = stockRepository;
+    }
+
+    /**
+     * Loads the summary table into memory, building it from the stock table first if it is empty.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void load() {
+        List<ProductStockSummary> summaries = summaryRepository.findAll();
+        if (summaries.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            summaries = stockRepository.sumQuantityByProduct().stream()
+                    .map(row -> new ProductStockSummary((Integer) row[0], ((Number) row[1]).longValue(),
+                            ((Number) row[2]).intValue(), now))
+                    .collect(Collectors.toList());
+            summaryRepository.saveAll(summaries);
+        }
+        availableByProduct.clear();
+        inStockProducts.clear();
+        summaries.forEach(summary -> apply(summary.getProductId(), summary.getTotalQuantity()));
+    }
+
+    @Override
+    public void onStockChanged(StockChange change) {
+        if (change.getDelta() == 0 && change.getStockCountDelta() == 0) {
+            return;
+        }
+        summaryRepository.addChange(change.getProductId(), change.getDelta(), change.getStockCountDelta(), LocalDateTime.now());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change.getProductId(), change.getDelta());
+                }
+            });
+        } else {
+            apply(change.getProductId(), change.getDelta());
+        }
+    }
+
+    /**
+     * Returns the available quantity of a product.
+     *
+     * @param productId The ID of the product.
+     * @return The quantity summed over all Stock rows of the product, or 0 if it has none.
+     */
+    public long getAvailableQuantity(int productId) {
+        return availableByProduct.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Checks whether a product has any available quantity.
+     *
+     * @param productId The ID of the product.
+     * @return true if the summed quantity of the product is greater than 0.
+     */
+    public boolean isInStock(int productId) {
+        return inStockProducts.contains(productId);
+    }
+
+    /**
+     * Returns the IDs of all products with an available quantity greater than 0.
+     *
+     * @return An unmodifiable snapshot of the in-stock product IDs.
+     */
+    public Set<Integer> getInStockProductIds() {
+        return Set.copyOf(inStockProducts);
+    }
+
+    private void apply(int productId, long delta) {
+        // The set is updated under the lock of the product's map entry, so it always matches the last quantity
+        availableByProduct.compute(productId, (id, available) -> {
+            long updated = (available != null ? available : 0) + delta;
+            if (updated > 0) {
+                inStockProducts.add(id);
+            } else {
+                inStockProducts.remove(id);
+            }
+            return updated;
+        });
+    }
+}
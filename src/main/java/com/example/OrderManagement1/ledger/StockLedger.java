@@ -0,0 +1,109 @@
+package com.example.OrderManagement1.ledger;
+
+import com.example.OrderManagement1.entity.StockMovement;
+import com.example.OrderManagement1.entity.StockSnapshot;
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.event.StockChangeListener;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.StockMovementRepository;
+import com.example.OrderManagement1.repository.StockSnapshotRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The StockLedger writes every stock change as a row of the insert-only stock_movement table,
+ * and every snapshot-interval movements of a product a StockSnapshot of the product's total quantity.
+ * The quantity of a product at any time is then one snapshot plus fewer than snapshot-interval movements.
+ * It runs after the StockAvailabilityIndex, whose summary row upsert serializes the changes of a product,
+ * so the movement IDs of a product follow the order of its changes and the summary total is the snapshot quantity.
+ */
+@Component
+@Order(2)
+public class StockLedger implements StockChangeListener {
+
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final ProductStockSummaryRepository summaryRepository;
+    private final int snapshotInterval;
+
+    private final Map<Integer, AtomicInteger> movementsSinceSnapshot = new ConcurrentHashMap<>();
+
+    public StockLedger(StockMovementRepository movementRepository, StockSnapshotRepository snapshotRepository,
+                       ProductStockSummaryRepository summaryRepository,
+                       @Value("${application.stocks.ledger.snapshot-interval:100}") int snapshotInterval) {
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.summaryRepository = summaryRepository;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    @Override
+    public void onStockChanged(StockChange change) {
+        if (change.getDelta() == 0) {
+            return;
+        }
+        int productId = change.getProductId();
+        AtomicInteger sinceSnapshot = movementsSinceSnapshot.computeIfAbsent(productId,
+                id -> new AtomicInteger(countSinceLastSnapshot(id)));
+        LocalDateTime now = LocalDateTime.now();
+        StockMovement movement = movementRepository.save(new StockMovement(0, change.getStockId(), productId,
+                change.getDelta(), change.getNewQuantity(), now));
+        if (sinceSnapshot.incrementAndGet() >= snapshotInterval) {
+            Long totalQuantity = summaryRepository.findTotalQuantity(productId);
+            snapshotRepository.save(new StockSnapshot(0, productId, movement.getId(),
+                    totalQuantity != null ? totalQuantity : 0, now));
+            sinceSnapshot.set(0);
+        }
+    }
+
+    /**
+     * Returns the movements of a stock within a time range, oldest first.
+     *
+     * @param stockId The ID of the stock.
+     * @param from    The start of the range, inclusive.
+     * @param to      The end of the range, inclusive.
+     * @param page    The page number, starting at 0.
+     * @param size    The page size.
+     * @return The movements of the requested page.
+     * @throws OrderAPIException with status 400 if the page is negative or the size below 1.
+     */
+    public List<StockMovement> getMovements(int stockId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Page must be at least 0 and size at least 1");
+        }
+        return movementRepository.findByStockIdAndOccurredAtBetweenOrderByIdAsc(stockId, from, to, PageRequest.of(page, size));
+    }
+
+    /**
+     * Rebuilds the total quantity of a product at a point in time from the latest snapshot taken
+     * at or before that time and the movements that follow it.
+     *
+     * @param productId The ID of the product.
+     * @param at        The point in time.
+     * @return The quantity summed over all stocks of the product at that time.
+     * @throws ResourceNotFoundException if the ledger has no snapshot of the product at or before that time.
+     */
+    public long getProductQuantityAt(int productId, LocalDateTime at) {
+        StockSnapshot snapshot = snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByLastMovementIdDesc(productId, at)
+                .orElseThrow(() -> new ResourceNotFoundException("StockSnapshot", "productId", productId));
+        return snapshot.getTotalQuantity() + movementRepository.sumDeltaByProductIdAfter(productId, snapshot.getLastMovementId(), at);
+    }
+
+    private int countSinceLastSnapshot(int productId) {
+        // Without a snapshot the first movement takes one, so history starts at the first ledgered change
+        return snapshotRepository.findFirstByProductIdOrderByLastMovementIdDesc(productId)
+                .map(snapshot -> (int) movementRepository.countByProductIdAfter(productId, snapshot.getLastMovementId()))
+                .orElse(snapshotInterval - 1);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.OrderManagement1.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * An AimdLimiter bounds the number of requests of an endpoint group in flight, and adapts the bound to the
+ * observed latency: additive increase while requests complete under the latency threshold and use at least
+ * half of the limit, multiplicative decrease when one is slower, or fails. When the database slows down, the
+ * limit falls and the excess requests are rejected at once instead of queueing on the connection pool.
+ * Writes may use the whole limit, reads only readShare of it, so the reads are shed first and the remaining
+ * headroom goes to writes such as order placement.
+ */
+public class AimdLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final double readShare;
+
+    private double limit;
+    private int inFlight;
+
+    private final Counter rejectedWrites;
+    private final Counter rejectedReads;
+
+    /**
+     * @param group            The endpoint group, tagged on the concurrency.* metrics.
+     * @param initialLimit     The limit before any request completed.
+     * @param minLimit         The limit never falls below this.
+     * @param maxLimit         The limit never grows above this.
+     * @param latencyThreshold Requests slower than this decrease the limit.
+     * @param backoffRatio     The factor applied to the limit on a slow or failed request, between 0 and 1.
+     * @param readShare        The share of the limit reads may use, between 0 and 1.
+     * @param meterRegistry    The registry of the concurrency.* metrics.
+     */
+    public AimdLimiter(EndpointGroup group, int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                       double backoffRatio, double readShare, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1 || readShare <= 0 || readShare > 1) {
+            throw new IllegalArgumentException("The backoff ratio must be in (0, 1) and the read share in (0, 1]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.readShare = readShare;
+        this.limit = initialLimit;
+        this.rejectedWrites = Counter.builder("concurrency.rejected")
+                .tag("group", group.tagValue())
+                .tag("priority", "write")
+                .description("Write requests rejected because the group was at its concurrency limit")
+                .register(meterRegistry);
+        this.rejectedReads = Counter.builder("concurrency.rejected")
+                .tag("group", group.tagValue())
+                .tag("priority", "read")
+                .description("Read requests rejected because the group was at its share of the concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit", this, AimdLimiter::getLimit)
+                .tag("group", group.tagValue())
+                .description("Current concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("concurrency.in.flight", this, AimdLimiter::getInFlight)
+                .tag("group", group.tagValue())
+                .description("Requests currently in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if the group is under its limit, or under the read share of it for reads.
+     * Every admitted request must be released once, with {@link #release(long, boolean)} or {@link #releaseUnsampled()}.
+     *
+     * @param write Whether the request is a write, which may use the whole limit.
+     * @return true if the request is admitted, false if it must be rejected.
+     */
+    public synchronized boolean tryAcquire(boolean write) {
+        int allowed = write ? (int) limit : Math.max(1, (int) (limit * readShare));
+        if (inFlight >= allowed) {
+            (write ? rejectedWrites : rejectedReads).increment();
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its outcome.
+     *
+     * @param latencyNanos How long the request took.
+     * @param failed       Whether the request failed, e.g. with a connection timeout; counts as slow.
+     */
+    public synchronized void release(long latencyNanos, boolean failed) {
+        boolean saturated = inFlight * 2 >= limit;
+        inFlight--;
+        if (failed || latencyNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (saturated) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * Releases an admitted request without adapting the limit, for requests whose latency says nothing about
+     * the load, such as the start of an event stream.
+     */
+    public synchronized void releaseUnsampled() {
+        inFlight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
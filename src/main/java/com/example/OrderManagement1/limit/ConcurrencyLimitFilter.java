@@ -0,0 +1,101 @@
+package com.example.OrderManagement1.limit;
+
+import com.example.OrderManagement1.exception.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Sheds load per endpoint group: every group has its own {@link AimdLimiter}, and a request arriving while its
+ * group is at the limit is rejected with 503 Service Unavailable and a Retry-After header. The filter runs before
+ * Spring Security, so rejected requests do not reach the token lookups either. Paths outside the groups, such as
+ * the actuator, are not limited.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+@ConditionalOnProperty(name = "application.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final Map<EndpointGroup, AimdLimiter> limiters = new EnumMap<>(EndpointGroup.class);
+    private final long retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${application.concurrency-limit.initial-limit:20}") int initialLimit,
+                                  @Value("${application.concurrency-limit.min-limit:4}") int minLimit,
+                                  @Value("${application.concurrency-limit.max-limit:200}") int maxLimit,
+                                  @Value("${application.concurrency-limit.latency-threshold-ms:1000}") long latencyThresholdMillis,
+                                  @Value("${application.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                                  @Value("${application.concurrency-limit.read-share:0.8}") double readShare,
+                                  @Value("${application.concurrency-limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        for (EndpointGroup group : EndpointGroup.values()) {
+            limiters.put(group, new AimdLimiter(group, initialLimit, minLimit, maxLimit,
+                    Duration.ofMillis(latencyThresholdMillis), backoffRatio, readShare, meterRegistry));
+        }
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Optional<EndpointGroup> group = EndpointGroup.of(request.getServletPath());
+        if (group.isEmpty()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AimdLimiter limiter = limiters.get(group.get());
+        if (!limiter.tryAcquire(!READ_METHODS.contains(request.getMethod()))) {
+            reject(response, group.get());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            if (request.isAsyncStarted()) {
+                // An asynchronous request, such as an event stream or a report on a bulkhead, only holds the thread until it starts
+                limiter.releaseUnsampled();
+            } else {
+                limiter.release(System.nanoTime() - start, failed);
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, EndpointGroup group) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Too many concurrent " + group.tagValue() + " requests, retry later"));
+    }
+
+    AimdLimiter getLimiter(EndpointGroup group) {
+        return limiters.get(group);
+    }
+}
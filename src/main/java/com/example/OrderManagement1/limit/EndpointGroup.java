@@ -0,0 +1,39 @@
+package com.example.OrderManagement1.limit;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The groups of controllers that each get their own concurrency limit, so that a slow group cannot take
+ * the connections of the others. Customers and checkouts are managed with the orders and share their limit.
+ */
+public enum EndpointGroup {
+    AUTH("/api/v1/auth"),
+    ORDERS("/api/orders", "/product-orders", "/api/customers", "/api/checkout"),
+    CATALOG("/products"),
+    STOCK("/stocks");
+
+    private final List<String> pathPrefixes;
+
+    EndpointGroup(String... pathPrefixes) {
+        this.pathPrefixes = List.of(pathPrefixes);
+    }
+
+    /**
+     * Returns the group of the controller serving the path, or nothing for paths outside the groups.
+     */
+    public static Optional<EndpointGroup> of(String path) {
+        return Arrays.stream(values())
+                .filter(group -> group.pathPrefixes.stream()
+                        .anyMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/")))
+                .findFirst();
+    }
+
+    /**
+     * The name of the group in metric tags.
+     */
+    public String tagValue() {
+        return name().toLowerCase();
+    }
+}
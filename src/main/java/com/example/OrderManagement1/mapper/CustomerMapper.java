@@ -0,0 +1,35 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.payload.CustomerDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * The CustomerMapper converts between the Customer entity and the CustomerDto.
+ * The orders and tokens of a customer are not mapped, so no lazy collection is touched.
+ */
+@Component
+public class CustomerMapper {
+
+    public CustomerDto toDto(Customer customer) {
+        CustomerDto customerDto = new CustomerDto();
+        customerDto.setId(customer.getId());
+        customerDto.setEmail(customer.getEmail());
+        customerDto.setPassword(customer.getPassword());
+        customerDto.setFirstName(customer.getFirstName());
+        customerDto.setLastName(customer.getLastName());
+        customerDto.setBornAt(customer.getBornAt());
+        return customerDto;
+    }
+
+    public Customer toEntity(CustomerDto customerDto) {
+        return Customer.builder()
+                .id(customerDto.getId())
+                .email(customerDto.getEmail())
+                .password(customerDto.getPassword())
+                .firstName(customerDto.getFirstName())
+                .lastName(customerDto.getLastName())
+                .bornAt(customerDto.getBornAt())
+                .build();
+    }
+}
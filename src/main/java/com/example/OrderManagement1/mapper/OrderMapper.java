@@ -0,0 +1,37 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.payload.OrderDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * The OrderMapper converts between the Order entity and the OrderDto.
+ * The customer is mapped by ID only; reading the ID of a lazy customer proxy does not load it.
+ */
+@Component
+public class OrderMapper {
+
+    public OrderDto toDto(Order order) {
+        OrderDto orderDto = new OrderDto();
+        orderDto.setId(order.getId());
+        orderDto.setCustomerId(order.getCustomer() != null ? order.getCustomer().getId() : null);
+        orderDto.setOrderAt(order.getOrderAt());
+        return orderDto;
+    }
+
+    /**
+     * Builds an Order whose customer is a reference holding only the customer ID.
+     */
+    public Order toEntity(OrderDto orderDto) {
+        Order order = new Order();
+        order.setId(orderDto.getId());
+        if (orderDto.getCustomerId() != null) {
+            Customer customer = new Customer();
+            customer.setId(orderDto.getCustomerId());
+            order.setCustomer(customer);
+        }
+        order.setOrderAt(orderDto.getOrderAt());
+        return order;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.payload.ProductDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ProductMapper converts between the Product entity and the ProductDto.
+ * The available quantity is not part of the entity; the product service sets it on the DTO.
+ */
+@Component
+public class ProductMapper {
+
+    public ProductDto toDto(Product product) {
+        ProductDto productDto = new ProductDto();
+        productDto.setId(product.getId());
+        productDto.setSlug(product.getSlug());
+        productDto.setName(product.getName());
+        productDto.setReference(product.getReference());
+        productDto.setPrice(product.getPrice());
+        productDto.setVat(product.getVat());
+        productDto.setStockable(product.isStockable());
+        productDto.setReorderThreshold(product.getReorderThreshold());
+        return productDto;
+    }
+
+    public Product toEntity(ProductDto productDto) {
+        Product product = new Product();
+        product.setId(productDto.getId());
+        product.setSlug(productDto.getSlug());
+        product.setName(productDto.getName());
+        product.setReference(productDto.getReference());
+        product.setPrice(productDto.getPrice() != null ? productDto.getPrice() : 0);
+        product.setVat(productDto.getVat() != null ? productDto.getVat() : 0);
+        product.setStockable(productDto.isStockable());
+        product.setReorderThreshold(productDto.getReorderThreshold());
+        return product;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.ProductOrder;
+import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.payload.ProductOrderDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ProductOrderMapper converts between the ProductOrder entity and the ProductOrderDto.
+ * The product and order IDs are read from the embedded ID, so neither lazy association is touched.
+ */
+@Component
+public class ProductOrderMapper {
+
+    public ProductOrderDto toDto(ProductOrder productOrder) {
+        ProductOrderDto productOrderDto = new ProductOrderDto();
+        if (productOrder.getId() != null) {
+            productOrderDto.setProductId(productOrder.getId().getProductId());
+            productOrderDto.setOrderId(productOrder.getId().getOrderId());
+        }
+        productOrderDto.setQuantity(productOrder.getQuantity());
+        productOrderDto.setPrice(productOrder.getPrice());
+        productOrderDto.setVat(productOrder.getVat());
+        return productOrderDto;
+    }
+
+    /**
+     * Builds a ProductOrder whose product and order are references holding only their IDs.
+     */
+    public ProductOrder toEntity(ProductOrderDto productOrderDto) {
+        int productId = productOrderDto.getProductId() != null ? productOrderDto.getProductId() : 0;
+        int orderId = productOrderDto.getOrderId() != null ? productOrderDto.getOrderId() : 0;
+        Product product = new Product();
+        product.setId(productId);
+        Order order = new Order();
+        order.setId(orderId);
+        ProductOrder productOrder = new ProductOrder();
+        productOrder.setId(new ProductOrderId(productId, orderId));
+        productOrder.setProduct(product);
+        productOrder.setOrder(order);
+        productOrder.setQuantity(productOrderDto.getQuantity() != null ? productOrderDto.getQuantity() : 0);
+        productOrder.setPrice(productOrderDto.getPrice() != null ? productOrderDto.getPrice() : 0);
+        productOrder.setVat(productOrderDto.getVat() != null ? productOrderDto.getVat() : 0);
+        return productOrder;
+    }
+}
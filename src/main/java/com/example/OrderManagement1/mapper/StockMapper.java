@@ -0,0 +1,61 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.ProductStockSummary;
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.entity.StockHold;
+import com.example.OrderManagement1.entity.StockMovement;
+import com.example.OrderManagement1.payload.ProductStockSummaryDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockHoldDto;
+import com.example.OrderManagement1.payload.StockMovementDto;
+import org.springframework.stereotype.Component;
+
+/**
+ * The StockMapper converts the Stock entity and the entities derived from the stock table to their DTOs.
+ * The product of a stock is mapped by ID only; reading the ID of a lazy product proxy does not load it.
+ */
+@Component
+public class StockMapper {
+
+    public StockDto toDto(Stock stock) {
+        StockDto stockDto = new StockDto();
+        stockDto.setId(stock.getId());
+        stockDto.setProductId(stock.getProduct() != null ? stock.getProduct().getId() : null);
+        stockDto.setQuantity(stock.getQuantity());
+        stockDto.setUpdatedAt(stock.getUpdatedAt());
+        stockDto.setVersion(stock.getVersion());
+        return stockDto;
+    }
+
+    /**
+     * Builds a Stock whose product is a reference holding only the product ID.
+     */
+    public Stock toEntity(StockDto stockDto) {
+        Stock stock = new Stock();
+        stock.setId(stockDto.getId());
+        if (stockDto.getProductId() != null) {
+            Product product = new Product();
+            product.setId(stockDto.getProductId());
+            stock.setProduct(product);
+        }
+        stock.setQuantity(stockDto.getQuantity() != null ? stockDto.getQuantity() : 0);
+        stock.setUpdatedAt(stockDto.getUpdatedAt());
+        stock.setVersion(stockDto.getVersion() != null ? stockDto.getVersion() : 0);
+        return stock;
+    }
+
+    public StockMovementDto toDto(StockMovement movement) {
+        return new StockMovementDto(movement.getId(), movement.getStockId(), movement.getProductId(),
+                movement.getDelta(), movement.getQuantityAfter(), movement.getOccurredAt());
+    }
+
+    public StockHoldDto toDto(StockHold hold) {
+        return new StockHoldDto(hold.getId(), hold.getStockId(), hold.getQuantity(), hold.getCreatedAt(), hold.getExpiresAt());
+    }
+
+    public ProductStockSummaryDto toDto(ProductStockSummary summary) {
+        return new ProductStockSummaryDto(summary.getProductId(), summary.getTotalQuantity(),
+                summary.getStockCount(), summary.getUpdatedAt());
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.OrderManagement1.notification;
+
+import com.example.OrderManagement1.event.ChangeEvent;
+import com.example.OrderManagement1.event.ChangeEventBus;
+import com.example.OrderManagement1.event.ChangeEventSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ChangeEventNotifier streams the events of the {@link ChangeEventBus} to Server-Sent Events clients, named
+ * after the change, e.g. "order.created", with the ChangeEvent as data.
+ * Each event carries an ID made of the start time of the application and the event number, so a client that
+ * reconnects with the Last-Event-ID header resumes after it. When the events it missed are no longer buffered,
+ * or the application restarted, the client gets a "resync" event instead: it must reload the data it shows,
+ * and the events after the ID of the resync event follow.
+ * Every client has a bounded queue, drained by a pool of sender threads, so a slow client delays no other.
+ * A client whose queue overflows is resynced, and dropped if it overflows again before receiving the resync;
+ * a reconnecting client that missed more events than its queue holds is resynced instead of replayed.
+ */
+@Slf4j
+@Component
+public class ChangeEventNotifier implements AutoCloseable {
+
+    private static final String RESYNC = "resync";
+    private static final long UNKNOWN_EVENT = Long.MIN_VALUE;
+
+    private final ChangeEventBus changeEventBus;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ExecutorService sender;
+    private final long timeoutMillis;
+    private final int queueCapacity;
+    private final Counter resyncs;
+    private final Counter droppedSubscribers;
+
+    public ChangeEventNotifier(ChangeEventBus changeEventBus, MeterRegistry meterRegistry,
+                               @Value("${application.changes.sse-timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${application.changes.subscriber-buffer-size:256}") int queueCapacity,
+                               @Value("${application.changes.sender-threads:4}") int senderThreads) {
+        this.changeEventBus = changeEventBus;
+        this.timeoutMillis = timeoutMillis;
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "change-event-sse-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.resyncs = Counter.builder("change.events.resyncs")
+                .description("Change event subscribers told to reload because they missed events")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("change.events.dropped.subscribers")
+                .description("Change event subscribers disconnected for not keeping up")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @param lastEventId The Last-Event-ID of a reconnecting client, or null.
+     * @param entities    The entities to stream, e.g. "order"; all if empty or null.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(String lastEventId, Set<String> entities) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, entities);
+        emitter.onCompletion(subscriber::cancel);
+        emitter.onTimeout(subscriber::cancel);
+        emitter.onError(error -> subscriber.cancel());
+        long eventNumber = parseEventNumber(lastEventId);
+        if (eventNumber == UNKNOWN_EVENT) {
+            changeEventBus.resubscribe(subscriber);
+        } else {
+            changeEventBus.subscribe(eventNumber, subscriber);
+        }
+        return emitter;
+    }
+
+    /**
+     * Returns the event number of a Last-Event-ID: -1 without one, and UNKNOWN_EVENT when it was sent before
+     * a restart or is not an ID of this notifier.
+     */
+    private long parseEventNumber(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return -1;
+        }
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(epoch)) {
+            return UNKNOWN_EVENT;
+        }
+        try {
+            long eventNumber = Long.parseLong(lastEventId.substring(separator + 1));
+            return eventNumber >= 0 ? eventNumber : UNKNOWN_EVENT;
+        } catch (NumberFormatException e) {
+            return UNKNOWN_EVENT;
+        }
+    }
+
+    private String eventId(long eventNumber) {
+        return epoch + "-" + eventNumber;
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * A resync to send in place of the events that did not fit in the queue.
+     */
+    private record Resync(long lastEventId) {
+    }
+
+    private class Subscriber implements ChangeEventSubscriber {
+
+        private final SseEmitter emitter;
+        private final Set<String> entities;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean resyncPending = new AtomicBoolean();
+        private volatile Runnable cancellation;
+        private volatile boolean cancelled;
+
+        Subscriber(SseEmitter emitter, Set<String> entities) {
+            this.emitter = emitter;
+            this.entities = entities == null || entities.isEmpty() ? null : Set.copyOf(entities);
+        }
+
+        @Override
+        public void onSubscribed(Runnable cancellation) {
+            this.cancellation = cancellation;
+            if (cancelled) {
+                // Completed before the bus registered it
+                cancellation.run();
+            }
+        }
+
+        @Override
+        public int getReplayCapacity() {
+            return queueCapacity;
+        }
+
+        @Override
+        public void onEvent(ChangeEvent event) {
+            if (entities != null && !entities.contains(event.getEntity())) {
+                return;
+            }
+            if (!queue.offer(event)) {
+                if (resyncPending.get()) {
+                    drop();
+                    return;
+                }
+                queue.clear();
+                resync(event.getId());
+                return;
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void onGap(long lastEventId) {
+            resync(lastEventId);
+        }
+
+        private void resync(long lastEventId) {
+            resyncs.increment();
+            resyncPending.set(true);
+            queue.offer(new Resync(lastEventId));
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                Object message;
+                while (!cancelled && (message = queue.poll()) != null) {
+                    try {
+                        emitter.send(toSseEvent(message));
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Dropping change event subscriber", e);
+                        cancel();
+                        emitter.completeWithError(e);
+                        return;
+                    }
+                }
+                draining.set(false);
+                // An event queued after the last poll, but before draining was reset, is drained here
+            } while (!cancelled && !queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent(Object message) {
+            if (message instanceof Resync resync) {
+                resyncPending.set(false);
+                return SseEmitter.event().id(eventId(resync.lastEventId())).name(RESYNC).data(resync);
+            }
+            ChangeEvent event = (ChangeEvent) message;
+            return SseEmitter.event().id(eventId(event.getId())).name(event.getName()).data(event);
+        }
+
+        private void drop() {
+            droppedSubscribers.increment();
+            cancel();
+            emitter.complete();
+        }
+
+        private void cancel() {
+            cancelled = true;
+            queue.clear();
+            Runnable cancellation = this.cancellation;
+            if (cancellation != null) {
+                cancellation.run();
+            }
+        }
+    }
+}
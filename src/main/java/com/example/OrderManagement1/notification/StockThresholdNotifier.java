@@ -0,0 +1,76 @@
+package com.example.OrderManagement1.notification;
+
+import com.example.OrderManagement1.event.StockThresholdCrossedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The StockThresholdNotifier pushes every StockThresholdCrossedEvent to the subscribed Server-Sent Events clients,
+ * as a "low-stock" event when a product falls to its reorder threshold and a "restocked" event when it rises above.
+ * Events are sent from a single background thread, so a slow client never delays the committing request.
+ */
+@Slf4j
+@Component
+public class StockThresholdNotifier implements AutoCloseable {
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "stock-threshold-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final long timeoutMillis;
+
+    public StockThresholdNotifier(@Value("${application.stocks.low-stock.sse-timeout-ms:1800000}") long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Registers a new subscriber.
+     *
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @EventListener
+    public void onThresholdCrossed(StockThresholdCrossedEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        sender.execute(() -> {
+            String name = event.isLow() ? "low-stock" : "restocked";
+            for (SseEmitter emitter : emitters) {
+                try {
+                    // A built event cannot be sent twice, so every subscriber gets its own
+                    emitter.send(SseEmitter.event().name(name).data(event));
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping stock threshold subscriber", e);
+                    emitters.remove(emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The BatchItemDto class represents one entry of a batch read response.
+ * Entries are returned in request order; an ID that does not exist is returned with found set to false and no item.
+ *
+ * @param <T> The type of the item.
+ */
+@ApiModel(description = "Batch read entry")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemDto<T> {
+    @ApiModelProperty(value = "Requested ID")
+    private int id;
+
+    @ApiModelProperty(value = "Whether the requested ID exists")
+    private boolean found;
+
+    @ApiModelProperty(value = "The item, if found")
+    private T item;
+}
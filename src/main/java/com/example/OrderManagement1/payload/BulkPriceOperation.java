@@ -0,0 +1,22 @@
+package com.example.OrderManagement1.payload;
+
+/**
+ * The BulkPriceOperation enum lists the operations that can be applied to a set of products
+ * in a single bulk repricing request.
+ */
+public enum BulkPriceOperation {
+    /**
+     * Sets the price of every matching product to the given value.
+     */
+    SET_PRICE,
+
+    /**
+     * Changes the price of every matching product by the given percentage (e.g. -10 for a 10% discount).
+     */
+    PERCENT_CHANGE,
+
+    /**
+     * Sets the VAT of every matching product to the given value.
+     */
+    SET_VAT
+}
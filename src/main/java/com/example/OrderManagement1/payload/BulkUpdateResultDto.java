@@ -0,0 +1,25 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The BulkUpdateResultDto class reports the outcome of a bulk update.
+ */
+@ApiModel(description = "Bulk update result")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUpdateResultDto {
+    @ApiModelProperty(value = "Number of rows matched by the filter")
+    private int matched;
+
+    @ApiModelProperty(value = "Number of rows updated")
+    private int updated;
+
+    @ApiModelProperty(value = "Number of chunks executed")
+    private int chunks;
+}
@@ -0,0 +1,27 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The CheckoutLineDto class represents one line of a cart: a product and the quantity ordered.
+ */
+@ApiModel(description = "Checkout cart line")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutLineDto {
+    @ApiModelProperty(value = "Product ID")
+    @NotNull(message = "Product ID must not be null")
+    private Integer productId;
+
+    @ApiModelProperty(value = "Quantity")
+    @NotNull(message = "Quantity must not be null")
+    @Positive(message = "Quantity must be positive")
+    private Integer quantity;
+}
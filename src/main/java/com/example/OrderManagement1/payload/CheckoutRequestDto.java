@@ -0,0 +1,30 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The CheckoutRequestDto class represents a cart to check out: the customer and the lines to order.
+ * Lines for the same product are added together.
+ */
+@ApiModel(description = "Checkout request")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutRequestDto {
+    @ApiModelProperty(value = "Customer ID")
+    @NotNull(message = "Customer ID must not be null")
+    private Integer customerId;
+
+    @ApiModelProperty(value = "Cart lines")
+    @NotEmpty(message = "A checkout needs at least one line")
+    private List<@Valid @NotNull CheckoutLineDto> lines;
+}
@@ -0,0 +1,31 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The CheckoutResultDto class represents a completed checkout: the created order, its product orders
+ * priced at the current product prices, and the totals.
+ */
+@ApiModel(description = "Checkout result")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CheckoutResultDto {
+    @ApiModelProperty(value = "Created order")
+    private OrderDto order;
+
+    @ApiModelProperty(value = "Created product orders, in cart order")
+    private List<ProductOrderDto> lines;
+
+    @ApiModelProperty(value = "Total price without VAT")
+    private double totalPrice;
+
+    @ApiModelProperty(value = "Total VAT, the VAT of the products being percentages")
+    private double totalVat;
+}
@@ -4,7 +4,9 @@ import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 
@@ -14,6 +16,8 @@ import java.time.LocalDate;
  */
 @ApiModel(description = "Customer model information")
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class CustomerDto {
     @ApiModelProperty(value = "Customer ID")
     private int id;
@@ -0,0 +1,28 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The LowStockDto class represents a product whose total quantity is close to or below its reorder threshold.
+ */
+@ApiModel(description = "Product stock compared to its reorder threshold")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LowStockDto {
+    @ApiModelProperty(value = "Product ID")
+    private int productId;
+
+    @ApiModelProperty(value = "Quantity summed over all stocks of the product")
+    private long quantity;
+
+    @ApiModelProperty(value = "Reorder threshold of the product")
+    private int reorderThreshold;
+
+    @ApiModelProperty(value = "Quantity minus reorder threshold; 0 or less means the product needs replenishing")
+    private long margin;
+}
@@ -3,7 +3,9 @@ package com.example.OrderManagement1.payload;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -13,6 +15,8 @@ import java.time.LocalDateTime;
  */
 @ApiModel(description = "Order model information")
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class OrderDto {
     @ApiModelProperty(value = "Order ID")
     private int id;
@@ -0,0 +1,36 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * The ProductBulkUpdateDto class represents a bulk repricing request.
+ * The filter properties (VAT, price range and ids) are combined with AND; a filter left empty matches every product.
+ */
+@ApiModel(description = "Bulk product price and VAT update request")
+@Data
+public class ProductBulkUpdateDto {
+    @ApiModelProperty(value = "Only products with this VAT")
+    private Double vat;
+
+    @ApiModelProperty(value = "Only products with a price greater than or equal to this value")
+    private Double minPrice;
+
+    @ApiModelProperty(value = "Only products with a price less than or equal to this value")
+    private Double maxPrice;
+
+    @ApiModelProperty(value = "Only products with these IDs")
+    private List<Integer> ids;
+
+    @ApiModelProperty(value = "Operation to apply to the matching products")
+    @NotNull(message = "Operation must not be null")
+    private BulkPriceOperation operation;
+
+    @ApiModelProperty(value = "Operation value: the new price, the percentage change or the new VAT")
+    @NotNull(message = "Value must not be null")
+    private Double value;
+}
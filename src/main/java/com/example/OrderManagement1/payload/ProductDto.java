@@ -5,7 +5,9 @@ import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * The ProductDto class represents the data transfer object for Product information.
@@ -13,6 +15,7 @@ import lombok.Data;
  */
 @ApiModel(description = "Product model information")
 @Data
+@NoArgsConstructor
 public class ProductDto {
     @ApiModelProperty(value = "Product ID")
     private int id;
@@ -40,5 +43,35 @@ public class ProductDto {
 
     @ApiModelProperty(value = "Is product stockable")
     private boolean stockable;
-}
 
+    @ApiModelProperty(value = "Total quantity at or below which the product needs replenishing; no threshold if empty")
+    @PositiveOrZero(message = "Reorder threshold must not be negative")
+    private Integer reorderThreshold;
+
+    @ApiModelProperty(value = "Available quantity, summed over all stock rows of the product", readOnly = true)
+    private Long availableQuantity;
+
+    /**
+     * Used by the constructor expressions of the ProductRepository; the available quantity is set afterwards.
+     */
+    public ProductDto(int id, String slug, String name, String reference, Double price, Double vat,
+                      boolean stockable, Integer reorderThreshold) {
+        this.id = id;
+        this.slug = slug;
+        this.name = name;
+        this.reference = reference;
+        this.price = price;
+        this.vat = vat;
+        this.stockable = stockable;
+        this.reorderThreshold = reorderThreshold;
+    }
+
+    /**
+     * Copies a product, e.g. for each of the callers that share one load.
+     */
+    public ProductDto(ProductDto product) {
+        this(product.id, product.slug, product.name, product.reference, product.price, product.vat,
+                product.stockable, product.reorderThreshold);
+        this.availableQuantity = product.availableQuantity;
+    }
+}
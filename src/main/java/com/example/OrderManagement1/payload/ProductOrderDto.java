@@ -5,7 +5,9 @@ import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * The ProductOrderDto class represents the data transfer object for Product Order information.
@@ -13,6 +15,8 @@ import lombok.Data;
  */
 @ApiModel(description = "Product order model information")
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class ProductOrderDto {
     @ApiModelProperty(value = "Product ID")
     @NotNull(message = "Product ID must not be null")
@@ -0,0 +1,28 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ProductQuantityAtDto class represents the total quantity of a product at a point in time,
+ * rebuilt from the stock ledger.
+ */
+@ApiModel(description = "Product quantity at a point in time")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductQuantityAtDto {
+    @ApiModelProperty(value = "Product ID")
+    private int productId;
+
+    @ApiModelProperty(value = "Point in time")
+    private LocalDateTime at;
+
+    @ApiModelProperty(value = "Quantity summed over all stocks of the product at that time")
+    private long quantity;
+}
@@ -0,0 +1,35 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ProductSearchResultDto class represents one page of a faceted product search,
+ * together with the number of products for every facet value.
+ */
+@ApiModel(description = "Faceted product search result")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSearchResultDto {
+    @ApiModelProperty(value = "Total number of matching products")
+    private long total;
+
+    @ApiModelProperty(value = "Matching products of the requested page")
+    private List<ProductDto> products;
+
+    @ApiModelProperty(value = "Number of products per price bucket")
+    private Map<String, Long> priceFacets;
+
+    @ApiModelProperty(value = "Number of products per VAT rate")
+    private Map<String, Long> vatFacets;
+
+    @ApiModelProperty(value = "Number of stockable and non-stockable products")
+    private Map<String, Long> stockableFacets;
+}
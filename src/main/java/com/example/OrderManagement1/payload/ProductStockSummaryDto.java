@@ -0,0 +1,30 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The ProductStockSummaryDto class represents the stock of a product aggregated over all of its Stock rows.
+ */
+@ApiModel(description = "Stock of a product aggregated over all of its stocks")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductStockSummaryDto {
+    @ApiModelProperty(value = "Product ID")
+    private int productId;
+
+    @ApiModelProperty(value = "Quantity summed over all stocks of the product")
+    private long totalQuantity;
+
+    @ApiModelProperty(value = "Number of stocks of the product")
+    private int stockCount;
+
+    @ApiModelProperty(value = "Time of the last change of any stock of the product")
+    private LocalDateTime updatedAt;
+}
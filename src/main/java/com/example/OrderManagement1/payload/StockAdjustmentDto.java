@@ -0,0 +1,17 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * The StockAdjustmentDto class represents a relative change of a stock quantity.
+ */
+@ApiModel(description = "Stock quantity adjustment")
+@Data
+public class StockAdjustmentDto {
+    @ApiModelProperty(value = "Quantity to add (positive) or remove (negative)")
+    @NotNull(message = "Delta must not be null")
+    private Integer delta;
+}
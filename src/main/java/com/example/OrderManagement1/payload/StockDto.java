@@ -4,7 +4,9 @@ import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
@@ -14,6 +16,8 @@ import java.time.LocalDateTime;
  */
 @ApiModel(description = "Stock model information")
 @Data
+@AllArgsConstructor
+@NoArgsConstructor
 public class StockDto {
     @ApiModelProperty(value = "Stock ID")
     private int id;
@@ -30,5 +34,8 @@ public class StockDto {
     @ApiModelProperty(value = "Updated At")
     @NotNull(message = "UpdatedAt must not be null")
     private LocalDateTime updatedAt;
+
+    @ApiModelProperty(value = "Version; when sent on update, the update is rejected if the stock has changed since")
+    private Long version;
 }
 
@@ -0,0 +1,33 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockHoldDto class represents a temporary reservation of a quantity of a stock.
+ */
+@ApiModel(description = "Stock hold")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockHoldDto {
+    @ApiModelProperty(value = "Hold ID")
+    private long id;
+
+    @ApiModelProperty(value = "Stock ID")
+    private int stockId;
+
+    @ApiModelProperty(value = "Held quantity")
+    private int quantity;
+
+    @ApiModelProperty(value = "Creation time")
+    private LocalDateTime createdAt;
+
+    @ApiModelProperty(value = "Expiry time")
+    private LocalDateTime expiresAt;
+}
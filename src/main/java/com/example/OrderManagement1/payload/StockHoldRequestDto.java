@@ -0,0 +1,27 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The StockHoldRequestDto class represents a request to hold a quantity of a stock.
+ */
+@ApiModel(description = "Stock hold request")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockHoldRequestDto {
+    @ApiModelProperty(value = "Quantity to hold")
+    @NotNull(message = "Quantity must not be null")
+    @Positive(message = "Quantity must be positive")
+    private Integer quantity;
+
+    @ApiModelProperty(value = "Seconds until the hold expires; the configured default if omitted")
+    @Positive(message = "TTL must be positive")
+    private Integer ttlSeconds;
+}
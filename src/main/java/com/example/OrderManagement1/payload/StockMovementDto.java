@@ -0,0 +1,36 @@
+package com.example.OrderManagement1.payload;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The StockMovementDto class represents one entry of the stock ledger.
+ */
+@ApiModel(description = "Stock movement")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockMovementDto {
+    @ApiModelProperty(value = "Movement ID, increasing in the order the movements were written")
+    private long id;
+
+    @ApiModelProperty(value = "Stock ID")
+    private int stockId;
+
+    @ApiModelProperty(value = "Product ID")
+    private int productId;
+
+    @ApiModelProperty(value = "Quantity added (positive) or removed (negative)")
+    private int delta;
+
+    @ApiModelProperty(value = "Quantity of the stock after the movement")
+    private int quantityAfter;
+
+    @ApiModelProperty(value = "Time of the movement")
+    private LocalDateTime occurredAt;
+}
@@ -1,29 +1,54 @@
 package com.example.OrderManagement1.repository;
 
 import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.payload.CustomerDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 /**
  * The CustomerRepository interface is responsible for performing database operations related to the Customer entity.
+ * The list finders select CustomerDto objects through a constructor expression, so no Customer entity is loaded.
  */
 public interface CustomerRepository extends JpaRepository<Customer, Integer> {
-    List<Customer> findByBornAtBefore(LocalDate date);
-    List<Customer> findByLastName(String lastName);
-    List<Customer> findByFirstNameAndLastName(String firstName, String lastName);
-    List<Customer> findByFirstName(String name);
 
-    List<Customer> findByBornAt(LocalDate date);
+    String SELECT_DTO = "select new com.example.OrderManagement1.payload.CustomerDto(c.id, c.email, c.password, " +
+            "c.firstName, c.lastName, c.bornAt) from Customer c ";
 
-    List<Customer> findByBornAtBetween(LocalDate startDate, LocalDate endDate);
+    @Query(SELECT_DTO)
+    List<CustomerDto> findAllDtos();
 
+    @Query(SELECT_DTO + "where c.id in :ids")
+    List<CustomerDto> findDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(SELECT_DTO + "where c.bornAt < :date")
+    List<CustomerDto> findDtosByBornAtBefore(@Param("date") LocalDate date);
+
+    @Query(SELECT_DTO + "where c.lastName = :lastName")
+    List<CustomerDto> findDtosByLastName(@Param("lastName") String lastName);
+
+    @Query(SELECT_DTO + "where c.firstName = :firstName and c.lastName = :lastName")
+    List<CustomerDto> findDtosByFirstNameAndLastName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query(SELECT_DTO + "where c.firstName = :firstName")
+    List<CustomerDto> findDtosByFirstName(@Param("firstName") String firstName);
+
+    @Query(SELECT_DTO + "where c.bornAt = :date")
+    List<CustomerDto> findDtosByBornAt(@Param("date") LocalDate date);
+
+    @Query(SELECT_DTO + "where c.bornAt between :startDate and :endDate")
+    List<CustomerDto> findDtosByBornAtBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Customer> findByEmail(String email);
-    Optional<Customer> findByUsernameOrEmail(String username, String email);
-    Optional<Customer> findByUsername(String username);
     Boolean existsByFirstName(String firstName);
     Boolean existsByEmail(String email);
 }
-
@@ -0,0 +1,18 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.entity.HotStockFlush;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * The HotStockFlushRepository interface is responsible for performing database operations related to the HotStockFlush entity.
+ */
+public interface HotStockFlushRepository extends JpaRepository<HotStockFlush, String> {
+    @Modifying
+    @Query("delete from HotStockFlush f where f.flushedAt < :before")
+    int deleteFlushedBefore(@Param("before") LocalDateTime before);
+}
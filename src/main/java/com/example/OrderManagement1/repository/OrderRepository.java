@@ -1,24 +1,48 @@
 package com.example.OrderManagement1.repository;
 
 import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.payload.OrderDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * The OrderRepository interface is responsible for performing database operations related to the Order entity.
+ * The list finders select OrderDto objects through a constructor expression, so no Order entity is loaded.
+ * The price of an order is the sum of the price times the quantity of its product orders.
  */
 public interface OrderRepository extends JpaRepository<Order, Integer> {
-    List<Order> findByOrderAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    List<Order> findByCustomerId(int customerId);
-    List<Order> findByOrderAt(LocalDateTime dateTime);
-    List<Order> findByCustomerIdAndOrderAtBetween(int customerId, LocalDateTime startDate, LocalDateTime endDate);
 
-    List<Order> findByCustomerName(String customerName, String lastName);
+    String SELECT_DTO = "select new com.example.OrderManagement1.payload.OrderDto(o.id, o.customer.id, o.orderAt) from Order o ";
+    String GROUP_BY_ORDER = "left join o.productOrders po group by o.id, o.customer.id, o.orderAt ";
+    String ORDER_PRICE = "coalesce(sum(po.price * po.quantity), 0)";
 
-    List<Order> findByPriceLessThan(double price);
+    @Query(SELECT_DTO)
+    List<OrderDto> findAllDtos();
 
-    List<Order> findByOrderByPriceDesc();
-}
+    @Query(SELECT_DTO + "where o.orderAt between :startDate and :endDate")
+    List<OrderDto> findDtosByOrderAtBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query(SELECT_DTO + "where o.customer.id = :customerId")
+    List<OrderDto> findDtosByCustomerId(@Param("customerId") int customerId);
+
+    @Query(SELECT_DTO + "where o.orderAt = :dateTime")
+    List<OrderDto> findDtosByOrderAt(@Param("dateTime") LocalDateTime dateTime);
+
+    @Query(SELECT_DTO + "where o.customer.id = :customerId and o.orderAt between :startDate and :endDate")
+    List<OrderDto> findDtosByCustomerIdAndOrderAtBetween(@Param("customerId") int customerId,
+                                                         @Param("startDate") LocalDateTime startDate,
+                                                         @Param("endDate") LocalDateTime endDate);
 
+    @Query(SELECT_DTO + "join o.customer c where c.firstName = :firstName and c.lastName = :lastName")
+    List<OrderDto> findDtosByCustomerName(@Param("firstName") String firstName, @Param("lastName") String lastName);
+
+    @Query(SELECT_DTO + GROUP_BY_ORDER + "having " + ORDER_PRICE + " < :price")
+    List<OrderDto> findDtosByPriceLessThan(@Param("price") double price);
+
+    @Query(SELECT_DTO + GROUP_BY_ORDER + "order by " + ORDER_PRICE + " desc")
+    List<OrderDto> findDtosOrderByPriceDesc();
+}
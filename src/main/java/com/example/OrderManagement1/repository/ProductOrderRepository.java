@@ -2,19 +2,29 @@ package com.example.OrderManagement1.repository;
 
 import com.example.OrderManagement1.entity.ProductOrder;
 import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.payload.ProductOrderDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
 /**
  * The ProductOrderRepository interface is responsible for performing database operations related to the ProductOrder entity.
+ * The DTO finders select ProductOrderDto objects through a constructor expression, so no ProductOrder entity is loaded.
  */
 public interface ProductOrderRepository extends JpaRepository<ProductOrder, ProductOrderId> {
-    List<ProductOrder> findByProductIdAndOrderId(ProductOrderId productOrderId);
-    List<ProductOrder> findByQuantityGreaterThan(int quantity);
-    List<ProductOrder> findByProductId(int productId);
-    List<ProductOrder> findByOrderId(int orderId);
-    List<ProductOrder> findByQuantityBetween(int minQuantity, int maxQuantity);
-    List<ProductOrder> findByPriceGreaterThan(double price);
+
+    String SELECT_DTO = "select new com.example.OrderManagement1.payload.ProductOrderDto(po.id.productId, po.id.orderId, " +
+            "po.quantity, po.price, po.vat) from ProductOrder po ";
+
+    @Query(SELECT_DTO)
+    List<ProductOrderDto> findAllDtos();
+
+    @Query(SELECT_DTO + "where po.id = :id")
+    List<ProductOrderDto> findDtosById(@Param("id") ProductOrderId productOrderId);
+
+    @Query(SELECT_DTO + "where po.id.orderId = :orderId")
+    List<ProductOrderDto> findDtosByOrderId(@Param("orderId") int orderId);
 }
 
@@ -1,24 +1,92 @@
 package com.example.OrderManagement1.repository;
 
 import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.payload.ProductDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * The ProductRepository interface is responsible for performing database operations related to the Product entity.
+ * The list finders select ProductDto objects through a constructor expression, so no Product entity is loaded;
+ * the slug lookup stays on the entity because its result is in the query cache.
  */
 public interface ProductRepository extends JpaRepository<Product, Integer> {
-    List<Product> findByStockableTrue(boolean isTrue);
-    List<Product> findByPriceLessThan(double price);
-    List<Product> findByVatGreaterThan(double vat);
-    List<Product> findByOrderByPriceDesc();
+
+    String SELECT_DTO = "select new com.example.OrderManagement1.payload.ProductDto(p.id, p.slug, p.name, p.reference, " +
+            "p.price, p.vat, p.stockable, p.reorderThreshold) from Product p ";
+
+    @Query(SELECT_DTO)
+    List<ProductDto> findAllDtos();
+
+    @Query(SELECT_DTO + "where p.id in :ids")
+    List<ProductDto> findDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(SELECT_DTO + "where p.price < :price")
+    List<ProductDto> findDtosByPriceLessThan(@Param("price") double price);
+
+    @Query(SELECT_DTO + "where p.vat > :vat")
+    List<ProductDto> findDtosByVatGreaterThan(@Param("vat") double vat);
+
+    @Query(SELECT_DTO + "order by p.price desc")
+    List<ProductDto> findDtosOrderByPriceDesc();
+
+    @Query(SELECT_DTO + "where lower(p.name) like lower(concat('%', :name, '%'))")
+    List<ProductDto> findDtosByNameContainingIgnoreCase(@Param("name") String name);
+
+    @Query(SELECT_DTO + "where p.reference = :reference")
+    List<ProductDto> findDtosByReference(@Param("reference") String reference);
+
+    @Query(SELECT_DTO + "where p.price between :minPrice and :maxPrice")
+    List<ProductDto> findDtosByPriceBetween(@Param("minPrice") double minPrice, @Param("maxPrice") double maxPrice);
+
+    @Query(SELECT_DTO + "where p.vat between :minVat and :maxVat")
+    List<ProductDto> findDtosByVatBetween(@Param("minVat") double minVat, @Param("maxVat") double maxVat);
+
+    @Query(SELECT_DTO + "where p.vat = :vat")
+    List<ProductDto> findDtosByVat(@Param("vat") double vat);
+
+    List<Product> findByStockableTrue();
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Product> findBySlug(String slug);
-    List<Product> findByNameContainingIgnoreCase(String name);
-    List<Product> findByReference(String reference);
-    List<Product> findByPriceBetween(double minPrice, double maxPrice);
-    List<Product> findByVatBetween(double minVat, double maxVat);
 
-    List<Product> findByVat(double vat);
+
+    @Query("select p.id, p.reorderThreshold from Product p where p.reorderThreshold is not null")
+    List<Object[]> findReorderThresholds();
+
+    @Query("select p.id from Product p where (:vat is null or p.vat = :vat) " +
+            "and (:minPrice is null or p.price >= :minPrice) and (:maxPrice is null or p.price <= :maxPrice) order by p.id")
+    List<Integer> findIdsByFilter(@Param("vat") Double vat,
+                                  @Param("minPrice") Double minPrice,
+                                  @Param("maxPrice") Double maxPrice);
+
+    @Query("select p.id from Product p where p.id in :ids and (:vat is null or p.vat = :vat) " +
+            "and (:minPrice is null or p.price >= :minPrice) and (:maxPrice is null or p.price <= :maxPrice) order by p.id")
+    List<Integer> findIdsByIdInAndFilter(@Param("ids") List<Integer> ids,
+                                         @Param("vat") Double vat,
+                                         @Param("minPrice") Double minPrice,
+                                         @Param("maxPrice") Double maxPrice);
+
+    @Query("select p.id, p.price, p.vat, p.stockable from Product p")
+    List<Object[]> findFacetRows();
+
+    @Modifying
+    @Query("update Product p set p.price = :price where p.id in :ids")
+    int updatePriceByIdIn(@Param("ids") List<Integer> ids, @Param("price") double price);
+
+    @Modifying
+    @Query("update Product p set p.price = p.price * :factor where p.id in :ids")
+    int multiplyPriceByIdIn(@Param("ids") List<Integer> ids, @Param("factor") double factor);
+
+    @Modifying
+    @Query("update Product p set p.vat = :vat where p.id in :ids")
+    int updateVatByIdIn(@Param("ids") List<Integer> ids, @Param("vat") double vat);
 }
 
@@ -0,0 +1,36 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.entity.ProductStockSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The ProductStockSummaryRepository interface is responsible for performing database operations related to the ProductStockSummary entity.
+ */
+public interface ProductStockSummaryRepository extends JpaRepository<ProductStockSummary, Integer> {
+
+    // The native upsert only touches product_stock_summary; declaring it keeps Hibernate from
+    // invalidating every second-level cache region on each stock change.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "product_stock_summary"))
+    @Query(value = "insert into product_stock_summary (product_id, total_quantity, stock_count, updated_at) " +
+            "values (:productId, :delta, :stockCountDelta, :now) " +
+            "on duplicate key update total_quantity = total_quantity + :delta, stock_count = stock_count + :stockCountDelta, " +
+            "updated_at = :now", nativeQuery = true)
+    int addChange(@Param("productId") int productId, @Param("delta") long delta,
+                  @Param("stockCountDelta") int stockCountDelta, @Param("now") LocalDateTime now);
+
+    @Query("select s.totalQuantity from ProductStockSummary s where s.productId = :productId")
+    Long findTotalQuantity(@Param("productId") int productId);
+
+    List<ProductStockSummary> findByProductIdIn(Collection<Integer> productIds);
+}
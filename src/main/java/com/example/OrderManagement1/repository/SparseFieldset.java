@@ -0,0 +1,90 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.exception.OrderAPIException;
+import org.springframework.http.HttpStatus;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A SparseFieldset declares the fields of a resource that a list request may select with the fields parameter,
+ * and where each one comes from: a column field is an attribute path of the entity, selected as is, and a derived
+ * field is computed from the values of the attribute paths it requires, e.g. a quantity kept in memory.
+ * The {@link SparseFieldsetRepository} selects only the attribute paths the requested fields need.
+ */
+public final class SparseFieldset {
+
+    private final String resource;
+    private final Class<?> entityType;
+    private final Map<String, Field> fields = new LinkedHashMap<>();
+
+    private SparseFieldset(String resource, Class<?> entityType) {
+        this.resource = resource;
+        this.entityType = entityType;
+    }
+
+    /**
+     * Starts the fieldset of a resource; fields are added in the order they appear in the responses.
+     *
+     * @param resource   The name of the resource in error messages, e.g. "Product".
+     * @param entityType The entity the fields are selected from.
+     */
+    public static SparseFieldset of(String resource, Class<?> entityType) {
+        return new SparseFieldset(resource, entityType);
+    }
+
+    /**
+     * Adds a field selected from the entity attribute of the same name.
+     */
+    public SparseFieldset column(String field) {
+        return column(field, field);
+    }
+
+    /**
+     * Adds a field selected from an attribute path of the entity, e.g. "customer.id".
+     */
+    public SparseFieldset column(String field, String attributePath) {
+        fields.put(field, new Field(List.of(attributePath), values -> values.get(attributePath)));
+        return this;
+    }
+
+    /**
+     * Adds a field computed from the values of the attribute paths it requires, keyed by attribute path.
+     */
+    public SparseFieldset derived(String field, Function<Map<String, Object>, Object> value, String... requiredPaths) {
+        fields.put(field, new Field(List.of(requiredPaths), value));
+        return this;
+    }
+
+    /**
+     * Returns the requested fields in declaration order.
+     *
+     * @throws OrderAPIException with status 400 if no field is requested, or a requested field is not in the fieldset.
+     */
+    public List<String> select(Collection<String> requestedFields) {
+        if (requestedFields == null || requestedFields.isEmpty()) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "At least one field is required");
+        }
+        for (String requestedField : requestedFields) {
+            if (!fields.containsKey(requestedField)) {
+                throw new OrderAPIException(HttpStatus.BAD_REQUEST, resource + " has no field '" + requestedField
+                        + "', the fields are " + String.join(", ", fields.keySet()));
+            }
+        }
+        return fields.keySet().stream().filter(requestedFields::contains).toList();
+    }
+
+    Class<?> getEntityType() {
+        return entityType;
+    }
+
+    Field getField(String field) {
+        return fields.get(field);
+    }
+
+    record Field(List<String> requiredPaths, Function<Map<String, Object>, Object> value) {
+    }
+}
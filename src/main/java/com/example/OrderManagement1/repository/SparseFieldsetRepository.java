@@ -0,0 +1,75 @@
+package com.example.OrderManagement1.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lists the entities of a {@link SparseFieldset} as rows holding only the requested fields. The rows come from a
+ * Criteria tuple query selecting only the attribute paths those fields need, so neither the unused columns nor
+ * the DTOs are read, and the rows serialize to objects with only the requested properties.
+ */
+@Repository
+public class SparseFieldsetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @param fieldset        The fieldset of the resource.
+     * @param requestedFields The fields to return, validated against the fieldset.
+     * @return One row per entity, mapping each requested field to its value in fieldset order.
+     */
+    public List<Map<String, Object>> findAll(SparseFieldset fieldset, Collection<String> requestedFields) {
+        List<String> fields = fieldset.select(requestedFields);
+        Set<String> attributePaths = new LinkedHashSet<>();
+        fields.forEach(field -> attributePaths.addAll(fieldset.getField(field).requiredPaths()));
+        List<String> selectedPaths = new ArrayList<>(attributePaths);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<?> root = query.from(fieldset.getEntityType());
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String attributePath : selectedPaths) {
+            selections.add(path(root, attributePath));
+        }
+        query.multiselect(selections);
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+            Map<String, Object> values = new HashMap<>();
+            for (int i = 0; i < selectedPaths.size(); i++) {
+                values.put(selectedPaths.get(i), tuple.get(i));
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, fieldset.getField(field).value().apply(values));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\.")) {
+            path = path.get(attribute);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.entity.StockHold;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The StockHoldRepository interface is responsible for performing database operations related to the StockHold entity.
+ */
+public interface StockHoldRepository extends JpaRepository<StockHold, Long> {
+
+    // Locks the holds so a concurrent release or confirmation waits and then finds them gone
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockHold> findByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from StockHold h where h.id = :id")
+    int deleteHold(@Param("id") long holdId);
+
+    @Modifying
+    @Query("delete from StockHold h where h.id in :ids")
+    int deleteHolds(@Param("ids") Collection<Long> holdIds);
+
+    @Query("select h.id, h.expiresAt from StockHold h")
+    List<Object[]> findExpiryRows();
+}
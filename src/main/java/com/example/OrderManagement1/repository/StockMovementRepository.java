@@ -0,0 +1,24 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.entity.StockMovement;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The StockMovementRepository interface is responsible for performing database operations related to the StockMovement entity.
+ */
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+    List<StockMovement> findByStockIdAndOccurredAtBetweenOrderByIdAsc(int stockId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    @Query("select count(m) from StockMovement m where m.productId = :productId and m.id > :afterId")
+    long countByProductIdAfter(@Param("productId") int productId, @Param("afterId") long afterId);
+
+    @Query("select coalesce(sum(m.delta), 0) from StockMovement m " +
+            "where m.productId = :productId and m.id > :afterId and m.occurredAt <= :at")
+    long sumDeltaByProductIdAfter(@Param("productId") int productId, @Param("afterId") long afterId, @Param("at") LocalDateTime at);
+}
@@ -1,26 +1,58 @@
 package com.example.OrderManagement1.repository;
 
 import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.payload.StockDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * The StockRepository interface is responsible for performing database operations related to the Stock entity.
+ * The list finders select StockDto objects through a constructor expression, so no Stock entity is loaded.
  */
 public interface StockRepository extends JpaRepository<Stock, Integer> {
-    List<Stock> findByProductId(int productId);
-    List<Stock> findByQuantityGreaterThan(int quantity);
-    List<Stock> findByUpdateAtBetween(LocalDateTime startDate, LocalDateTime endDate);
-    List<Stock> findByProductIdAndQuantityGreaterThan(int productId, int quantity);
-    List<Stock> findByProductIdAndUpdateAtBetween(int productId, LocalDateTime startDate, LocalDateTime endDate);
 
-    List<Stock> findByQuality(int quality);
+    String SELECT_DTO = "select new com.example.OrderManagement1.payload.StockDto(s.id, s.product.id, s.quantity, " +
+            "s.updatedAt, s.version) from Stock s ";
 
-    List<Stock> findByUpdateDateBetween(LocalDate startDate, LocalDate endDate);
+    @Query(SELECT_DTO)
+    List<StockDto> findAllDtos();
 
-    List<Stock> findByProductIdAndQuality(int productId, int quality);
+    @Query(SELECT_DTO + "where s.id in :ids")
+    List<StockDto> findDtosByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query(SELECT_DTO + "where s.product.id = :productId")
+    List<StockDto> findDtosByProductId(@Param("productId") int productId);
+
+    @Query(SELECT_DTO + "where s.product.id in :productIds")
+    List<StockDto> findDtosByProductIdIn(@Param("productIds") Collection<Integer> productIds);
+
+    @Query(SELECT_DTO + "where s.quantity > :quantity")
+    List<StockDto> findDtosByQuantityGreaterThan(@Param("quantity") int quantity);
+
+    @Query(SELECT_DTO + "where s.updatedAt between :startDate and :endDate")
+    List<StockDto> findDtosByUpdatedAtBetween(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query(SELECT_DTO + "where s.product.id = :productId and s.quantity > :quantity")
+    List<StockDto> findDtosByProductIdAndQuantityGreaterThan(@Param("productId") int productId, @Param("quantity") int quantity);
+
+    @Query(SELECT_DTO + "where s.product.id = :productId and s.updatedAt between :startDate and :endDate")
+    List<StockDto> findDtosByProductIdAndUpdatedAtBetween(@Param("productId") int productId,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Stock s set s.quantity = s.quantity + :delta, s.updatedAt = :now, s.version = s.version + 1 " +
+            "where s.id = :id and s.quantity >= -:delta")
+    int adjustQuantity(@Param("id") int stockId, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
+    @Query("select s.product.id, sum(s.quantity), count(s) from Stock s group by s.product.id")
+    List<Object[]> sumQuantityByProduct();
 }
 
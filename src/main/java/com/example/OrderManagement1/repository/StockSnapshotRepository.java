@@ -0,0 +1,15 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * The StockSnapshotRepository interface is responsible for performing database operations related to the StockSnapshot entity.
+ */
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+    Optional<StockSnapshot> findFirstByProductIdOrderByLastMovementIdDesc(int productId);
+    Optional<StockSnapshot> findFirstByProductIdAndTakenAtLessThanEqualOrderByLastMovementIdDesc(int productId, LocalDateTime at);
+}
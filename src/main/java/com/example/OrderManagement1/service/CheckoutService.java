@@ -0,0 +1,19 @@
+package com.example.OrderManagement1.service;
+
+import com.example.OrderManagement1.payload.CheckoutRequestDto;
+import com.example.OrderManagement1.payload.CheckoutResultDto;
+
+/**
+ * The CheckoutService interface provides the checkout of a cart in one call.
+ */
+public interface CheckoutService {
+
+    /**
+     * Validates the cart against the customers, products and stocks, takes the ordered quantities from the stocks
+     * and creates the order with one product order per product.
+     *
+     * @param request The CheckoutRequestDto object holding the customer and the cart lines.
+     * @return The CheckoutResultDto object representing the created order and its lines.
+     */
+    CheckoutResultDto checkout(CheckoutRequestDto request);
+}
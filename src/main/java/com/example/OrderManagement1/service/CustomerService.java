@@ -1,10 +1,13 @@
 package com.example.OrderManagement1.service;
 
 import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.payload.BatchItemDto;
 import com.example.OrderManagement1.payload.CustomerDto;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The CustomerService interface provides methods for managing customers.
@@ -18,6 +21,14 @@ public interface CustomerService {
      */
     List<CustomerDto> getAllCustomers();
 
+    /**
+     * Retrieves all customers with only the requested fields, selecting only the columns those fields need.
+     *
+     * @param fields The names of the CustomerDto fields to return.
+     * @return One map per customer from each requested field to its value.
+     */
+    List<Map<String, Object>> getAllCustomers(Set<String> fields);
+
     /**
      * Retrieves a customer by their ID.
      *
@@ -114,4 +125,12 @@ public interface CustomerService {
      * @return true if the email is already registered, false otherwise.
      */
     boolean isEmailRegistered(String email);
+
+    /**
+     * Retrieves several customers by their IDs with a single query.
+     *
+     * @param customerIds The IDs of the customers to retrieve.
+     * @return One BatchItemDto per requested ID, in request order, with found set to false for unknown IDs.
+     */
+    List<BatchItemDto<CustomerDto>> getCustomersByIds(List<Integer> customerIds);
 }
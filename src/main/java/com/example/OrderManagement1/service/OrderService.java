@@ -1,9 +1,12 @@
 package com.example.OrderManagement1.service;
 
 import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The OrderService interface provides methods for managing orders.
@@ -17,6 +20,14 @@ public interface OrderService {
      */
     List<OrderDto> getAllOrders();
 
+    /**
+     * Retrieves all orders with only the requested fields, selecting only the columns those fields need.
+     *
+     * @param fields The names of the OrderDto fields to return.
+     * @return One map per order from each requested field to its value.
+     */
+    List<Map<String, Object>> getAllOrders(Set<String> fields);
+
     /**
      * Retrieves an order by its ID.
      *
@@ -33,6 +44,15 @@ public interface OrderService {
      */
     OrderDto createOrder(OrderDto orderDto);
 
+    /**
+     * Creates a new order together with its product orders, in one transaction.
+     *
+     * @param orderDto         The OrderDto object representing the order to create.
+     * @param productOrderDtos The product orders of the order; their order IDs are ignored.
+     * @return The OrderDto object representing the created order.
+     */
+    OrderDto createOrder(OrderDto orderDto, List<ProductOrderDto> productOrderDtos);
+
     /**
      * Updates an existing order.
      *
@@ -1,8 +1,14 @@
 package com.example.OrderManagement1.service;
 
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.BulkUpdateResultDto;
+import com.example.OrderManagement1.payload.ProductBulkUpdateDto;
 import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductSearchResultDto;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The ProductService interface provides methods for managing products.
@@ -16,6 +22,14 @@ public interface ProductService {
      */
     List<ProductDto> getAllProducts();
 
+    /**
+     * Retrieves all products with only the requested fields, selecting only the columns those fields need.
+     *
+     * @param fields The names of the ProductDto fields to return.
+     * @return One map per product from each requested field to its value.
+     */
+    List<Map<String, Object>> getAllProducts(Set<String> fields);
+
     /**
      * Retrieves a product by its ID.
      *
@@ -90,7 +104,7 @@ public interface ProductService {
     List<ProductDto> getProductsByVat(double vat);
 
     /**
-     * Retrieves a list of products that are currently in stock.
+     * Retrieves a list of products that are currently in stock, i.e. whose stock rows sum to a quantity greater than 0.
      *
      * @return A list of ProductDto objects representing the products in stock.
      */
@@ -127,4 +141,36 @@ public interface ProductService {
      * @return A list of ProductDto objects representing the products.
      */
     List<ProductDto> getByVatBetween(double minVat, double maxVat);
+
+    /**
+     * Applies a price or VAT change to every product matching the filter of the request.
+     * The matching products are updated with set-based UPDATE statements, one chunk at a time.
+     *
+     * @param bulkUpdateDto The filter and the operation to apply.
+     * @return The BulkUpdateResultDto object describing how many products were matched and updated.
+     */
+    BulkUpdateResultDto bulkUpdateProducts(ProductBulkUpdateDto bulkUpdateDto);
+
+    /**
+     * Searches products by any combination of VAT rates, price range and stockable flag,
+     * and counts the matching products per price bucket, VAT rate and stockable flag.
+     *
+     * @param vatRates  The accepted VAT rates, or an empty list for any VAT.
+     * @param minPrice  The minimum price, or null.
+     * @param maxPrice  The maximum price, or null.
+     * @param stockable The required stockable flag, or null for either.
+     * @param page      The zero-based page number.
+     * @param size      The page size.
+     * @return The ProductSearchResultDto object with the requested page and the facet counts.
+     */
+    ProductSearchResultDto searchProducts(List<Double> vatRates, Double minPrice, Double maxPrice,
+                                          Boolean stockable, int page, int size);
+
+    /**
+     * Retrieves several products by their IDs with a single query.
+     *
+     * @param productIds The IDs of the products to retrieve.
+     * @return One BatchItemDto per requested ID, in request order, with found set to false for unknown IDs.
+     */
+    List<BatchItemDto<ProductDto>> getProductsByIds(List<Integer> productIds);
 }
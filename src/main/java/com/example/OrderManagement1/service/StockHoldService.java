@@ -0,0 +1,42 @@
+package com.example.OrderManagement1.service;
+
+import com.example.OrderManagement1.payload.StockHoldDto;
+import com.example.OrderManagement1.payload.StockHoldRequestDto;
+
+/**
+ * The StockHoldService interface provides methods for managing temporary reservations of stock quantities.
+ */
+public interface StockHoldService {
+
+    /**
+     * Takes a quantity from a stock and holds it until the hold is released, confirmed or expires.
+     *
+     * @param stockId The ID of the stock.
+     * @param request The StockHoldRequestDto object holding the quantity and the optional time to live.
+     * @return The StockHoldDto object representing the hold.
+     */
+    StockHoldDto placeHold(int stockId, StockHoldRequestDto request);
+
+    /**
+     * Retrieves a hold that has not been released, confirmed or expired.
+     *
+     * @param holdId The ID of the hold.
+     * @return The StockHoldDto object representing the hold.
+     */
+    StockHoldDto getHold(long holdId);
+
+    /**
+     * Releases a hold, giving its quantity back to the stock.
+     *
+     * @param holdId The ID of the hold.
+     */
+    void releaseHold(long holdId);
+
+    /**
+     * Confirms a hold: the hold is removed and its quantity stays taken from the stock.
+     *
+     * @param holdId The ID of the hold.
+     * @return The StockHoldDto object representing the confirmed hold.
+     */
+    StockHoldDto confirmHold(long holdId);
+}
@@ -1,10 +1,19 @@
 package com.example.OrderManagement1.service;
 
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.LowStockDto;
+import com.example.OrderManagement1.payload.ProductQuantityAtDto;
+import com.example.OrderManagement1.payload.ProductStockSummaryDto;
 import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockMovementDto;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The StockService interface provides methods for managing stocks.
@@ -18,6 +27,14 @@ public interface StockService {
      */
     List<StockDto> getAllStocks();
 
+    /**
+     * Retrieves all stocks with only the requested fields, selecting only the columns those fields need.
+     *
+     * @param fields The names of the StockDto fields to return.
+     * @return One map per stock from each requested field to its value.
+     */
+    List<Map<String, Object>> getAllStocks(Set<String> fields);
+
     /**
      * Retrieves a stock by its ID.
      *
@@ -35,7 +52,8 @@ public interface StockService {
     StockDto createStock(StockDto stockDto);
 
     /**
-     * Updates an existing stock.
+     * Updates an existing stock. Conflicting concurrent updates are retried a bounded number of times;
+     * if the StockDto carries a version, the update is rejected when the stock has changed since that version.
      *
      * @param stockId   The ID of the stock to update.
      * @param stockDto  The StockDto object representing the updated stock data.
@@ -43,6 +61,20 @@ public interface StockService {
      */
     StockDto updateStock(int stockId, StockDto stockDto);
 
+    /**
+     * Adds or removes a quantity from a stock with a single conditional UPDATE,
+     * so concurrent adjustments never lose each other's changes.
+     * When hot-SKU mode is enabled, heavily contended stocks are adjusted in memory instead
+     * and their net change is written to the stock table on a short interval. Inside a transaction, an in-memory
+     * removal is undone if the transaction rolls back, even after a crash, and an in-memory addition is only
+     * applied once it commits.
+     *
+     * @param stockId The ID of the stock to adjust.
+     * @param delta   The quantity to add (positive) or remove (negative).
+     * @return The StockDto object representing the adjusted stock.
+     */
+    StockDto adjustStockQuantity(int stockId, int delta);
+
     /**
      * Deletes a stock.
      *
@@ -58,14 +90,6 @@ public interface StockService {
      */
     List<StockDto> getStocksByProductId(int productId);
 
-    /**
-     * Retrieves a list of stocks with the specified quality.
-     *
-     * @param quality The quality of the stocks to retrieve.
-     * @return A list of StockDto objects representing the stocks.
-     */
-    List<StockDto> getStocksByQuality(int quality);
-
     /**
      * Retrieves a list of stocks updated within the specified date range.
      *
@@ -75,15 +99,6 @@ public interface StockService {
      */
     List<StockDto> getStocksByUpdateDateRange(LocalDate startDate, LocalDate endDate);
 
-    /**
-     * Retrieves a list of stocks for a specific product and quality.
-     *
-     * @param productId The ID of the product.
-     * @param quality   The quality of the stocks.
-     * @return A list of StockDto objects representing the stocks.
-     */
-    List<StockDto> getStocksByProductIdAndQuality(int productId, int quality);
-
     /**
      * Retrieves a list of stocks with a quantity greater than the specified value.
      *
@@ -119,4 +134,75 @@ public interface StockService {
      * @return A list of StockDto objects representing the stocks.
      */
     List<StockDto> getByProductIdAndUpdateAtBetween(int productId, LocalDateTime startDate, LocalDateTime endDate);
+
+    /**
+     * Retrieves several stocks by their IDs with a single query.
+     *
+     * @param stockIds The IDs of the stocks to retrieve.
+     * @return One BatchItemDto per requested ID, in request order, with found set to false for unknown IDs.
+     */
+    List<BatchItemDto<StockDto>> getStocksByIds(List<Integer> stockIds);
+
+    /**
+     * Retrieves the stocks of several products with a single query.
+     *
+     * @param productIds The IDs of the products.
+     * @return One BatchItemDto per requested product ID, in request order, holding the stocks of the product;
+     *         found is false for products without any stock.
+     */
+    List<BatchItemDto<List<StockDto>>> getStocksByProductIds(List<Integer> productIds);
+
+    /**
+     * Retrieves the stock of a product aggregated over all of its stocks, read from the summary table
+     * that is updated in the transaction of every stock change. Hot stock deltas are included once flushed.
+     *
+     * @param productId The ID of the product.
+     * @return The ProductStockSummaryDto object of the product; not found if the product never had a stock.
+     */
+    ProductStockSummaryDto getProductStockSummary(int productId);
+
+    /**
+     * Retrieves the aggregated stock of several products with a single query.
+     *
+     * @param productIds The IDs of the products.
+     * @return One BatchItemDto per requested product ID, in request order; found is false for products that never had a stock.
+     */
+    List<BatchItemDto<ProductStockSummaryDto>> getProductStockSummaries(List<Integer> productIds);
+
+    /**
+     * Retrieves the ledger movements of a stock within a time range, oldest first.
+     *
+     * @param stockId The ID of the stock.
+     * @param from    The start of the range, inclusive.
+     * @param to      The end of the range, inclusive.
+     * @param page    The page number, starting at 0.
+     * @param size    The page size.
+     * @return A list of StockMovementDto objects representing the movements.
+     */
+    List<StockMovementDto> getStockMovements(int stockId, LocalDateTime from, LocalDateTime to, int page, int size);
+
+    /**
+     * Rebuilds the total quantity of a product at a past point in time from the stock ledger.
+     *
+     * @param productId The ID of the product.
+     * @param at        The point in time.
+     * @return The ProductQuantityAtDto object holding the quantity summed over all stocks of the product.
+     */
+    ProductQuantityAtDto getProductQuantityAt(int productId, LocalDateTime at);
+
+    /**
+     * Retrieves the products with a reorder threshold whose total quantity is closest to, or below, that threshold.
+     *
+     * @param maxMargin The largest quantity above the threshold to include; 0 returns only products needing replenishment.
+     * @param limit     The maximum number of products to return.
+     * @return A list of LowStockDto objects, smallest margin first.
+     */
+    List<LowStockDto> getLowStockProducts(long maxMargin, int limit);
+
+    /**
+     * Subscribes to reorder threshold crossings, pushed as Server-Sent Events.
+     *
+     * @return The emitter streaming the crossings.
+     */
+    SseEmitter subscribeToThresholdCrossings();
 }
@@ -0,0 +1,53 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers shared by the batch read methods of the service implementations.
+ */
+final class BatchLookups {
+
+    private BatchLookups() {
+    }
+
+    /**
+     * Validates the size of a batch request and removes duplicate IDs.
+     *
+     * @param ids          The requested IDs.
+     * @param maxBatchSize The maximum number of IDs accepted in one request.
+     * @return The distinct IDs, in request order.
+     */
+    static List<Integer> distinctIds(List<Integer> ids, int maxBatchSize) {
+        if (ids == null || ids.isEmpty()) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "At least one id is required");
+        }
+        if (ids.size() > maxBatchSize) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "At most " + maxBatchSize + " ids can be requested at once");
+        }
+        return new ArrayList<>(new LinkedHashSet<>(ids));
+    }
+
+    /**
+     * Builds the batch response for the requested IDs, in request order, marking the IDs that were not found.
+     *
+     * @param ids   The requested IDs, including duplicates.
+     * @param found The items that were found, by ID.
+     * @param <T>   The type of the items.
+     * @return One BatchItemDto per requested ID.
+     */
+    static <T> List<BatchItemDto<T>> inRequestOrder(List<Integer> ids, Map<Integer, T> found) {
+        List<BatchItemDto<T>> items = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            T item = found.get(id);
+            items.add(new BatchItemDto<>(id, item != null, item));
+        }
+        return items;
+    }
+}
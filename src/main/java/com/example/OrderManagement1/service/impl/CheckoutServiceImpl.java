@@ -0,0 +1,148 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.CheckoutLineDto;
+import com.example.OrderManagement1.payload.CheckoutRequestDto;
+import com.example.OrderManagement1.payload.CheckoutResultDto;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.service.CheckoutService;
+import com.example.OrderManagement1.service.CustomerService;
+import com.example.OrderManagement1.service.OrderService;
+import com.example.OrderManagement1.service.ProductService;
+import com.example.OrderManagement1.service.StockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Checks out a cart in one call instead of the lookups and creations a client would otherwise chain.
+ * The products and their stocks are read with one batch query each. The quantities are then taken from the
+ * stocks, largest stock first, through the atomic stock adjustments, and the order is created with its product
+ * orders in the same transaction, so a failure leaves the stocks untouched; the stock service undoes the
+ * removals it made in memory from hot stocks.
+ */
+@Service
+public class CheckoutServiceImpl implements CheckoutService {
+
+    private final CustomerService customerService;
+    private final ProductService productService;
+    private final StockService stockService;
+    private final OrderService orderService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${application.batch.max-size:100}")
+    private int maxLines;
+
+    public CheckoutServiceImpl(CustomerService customerService, ProductService productService,
+                               StockService stockService, OrderService orderService,
+                               PlatformTransactionManager transactionManager) {
+        this.customerService = customerService;
+        this.productService = productService;
+        this.stockService = stockService;
+        this.orderService = orderService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public CheckoutResultDto checkout(CheckoutRequestDto request) {
+        Map<Integer, Integer> quantities = quantitiesByProduct(request.getLines());
+        customerService.getCustomerById(request.getCustomerId());
+        Map<Integer, ProductDto> products = getProducts(new ArrayList<>(quantities.keySet()));
+        Map<Integer, Integer> takes = allocate(quantities, products);
+
+        return transactionTemplate.execute(status -> {
+            takes.forEach((stockId, quantity) -> stockService.adjustStockQuantity(stockId, -quantity));
+            return createOrder(request.getCustomerId(), quantities, products);
+        });
+    }
+
+    private Map<Integer, Integer> quantitiesByProduct(List<CheckoutLineDto> lines) {
+        if (lines == null || lines.isEmpty()) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "A checkout needs at least one line");
+        }
+        if (lines.size() > maxLines) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "A checkout must not have more than " + maxLines + " lines");
+        }
+        return lines.stream().collect(Collectors.toMap(CheckoutLineDto::getProductId, CheckoutLineDto::getQuantity,
+                Integer::sum, LinkedHashMap::new));
+    }
+
+    private Map<Integer, ProductDto> getProducts(List<Integer> productIds) {
+        List<BatchItemDto<ProductDto>> items = productService.getProductsByIds(productIds);
+        List<Integer> missing = items.stream()
+                .filter(item -> !item.isFound())
+                .map(BatchItemDto::getId)
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Products not found: " + missing);
+        }
+        return items.stream().collect(Collectors.toMap(BatchItemDto::getId, BatchItemDto::getItem));
+    }
+
+    /**
+     * Splits the quantity of each stockable product over its stocks, largest first.
+     *
+     * @return The quantity to take from each stock, by stock ID in ascending order.
+     */
+    private Map<Integer, Integer> allocate(Map<Integer, Integer> quantities, Map<Integer, ProductDto> products) {
+        List<Integer> stockableIds = quantities.keySet().stream()
+                .filter(productId -> products.get(productId).isStockable())
+                .collect(Collectors.toList());
+        Map<Integer, Integer> takes = new TreeMap<>();
+        if (stockableIds.isEmpty()) {
+            return takes;
+        }
+        List<String> shortages = new ArrayList<>();
+        for (BatchItemDto<List<StockDto>> item : stockService.getStocksByProductIds(stockableIds)) {
+            int remaining = quantities.get(item.getId());
+            List<StockDto> stocks = item.isFound() ? new ArrayList<>(item.getItem()) : List.of();
+            stocks.sort(Comparator.comparingInt(StockDto::getQuantity).reversed());
+            for (StockDto stock : stocks) {
+                int take = Math.min(remaining, stock.getQuantity());
+                if (take > 0) {
+                    takes.put(stock.getId(), take);
+                    remaining -= take;
+                }
+            }
+            if (remaining > 0) {
+                shortages.add("product " + item.getId() + " (" + remaining + " missing)");
+            }
+        }
+        if (!shortages.isEmpty()) {
+            throw new OrderAPIException(HttpStatus.CONFLICT, "Insufficient quantity of " + String.join(", ", shortages));
+        }
+        return takes;
+    }
+
+    private CheckoutResultDto createOrder(int customerId, Map<Integer, Integer> quantities, Map<Integer, ProductDto> products) {
+        List<ProductOrderDto> lines = new ArrayList<>(quantities.size());
+        double totalPrice = 0;
+        double totalVat = 0;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            ProductDto product = products.get(entry.getKey());
+            double price = product.getPrice() != null ? product.getPrice() : 0;
+            double vat = product.getVat() != null ? product.getVat() : 0;
+            lines.add(new ProductOrderDto(entry.getKey(), null, entry.getValue(), price, vat));
+            totalPrice += entry.getValue() * price;
+            totalVat += entry.getValue() * price * vat / 100;
+        }
+        OrderDto order = orderService.createOrder(new OrderDto(0, customerId, LocalDateTime.now()), lines);
+        lines.forEach(line -> line.setOrderId(order.getId()));
+        return new CheckoutResultDto(order, lines, totalPrice, totalVat);
+    }
+}
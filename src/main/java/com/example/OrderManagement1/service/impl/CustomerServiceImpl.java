@@ -1,17 +1,26 @@
 package com.example.OrderManagement1.service.impl;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
 import com.example.OrderManagement1.entity.Customer;
 import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.mapper.CustomerMapper;
+import com.example.OrderManagement1.payload.BatchItemDto;
 import com.example.OrderManagement1.payload.CustomerDto;
 import com.example.OrderManagement1.repository.CustomerRepository;
+import com.example.OrderManagement1.repository.SparseFieldset;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
 import com.example.OrderManagement1.service.CustomerService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,32 +32,66 @@ import java.util.stream.Collectors;
 public class CustomerServiceImpl implements CustomerService {
 
     private final CustomerRepository customerRepository;
-    private final ModelMapper modelMapper;
+    private final CustomerMapper customerMapper;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final NegativeLookupCache<Integer> missingCustomerIds;
+    private final NegativeLookupCache<String> missingCustomerEmails;
+
+    // The password is not selectable
+    private static final SparseFieldset CUSTOMER_FIELDS = SparseFieldset.of("Customer", Customer.class)
+            .column("id")
+            .column("email")
+            .column("firstName")
+            .column("lastName")
+            .column("bornAt");
+
+    @Value("${application.batch.max-size:100}")
+    private int maxBatchSize;
 
     /**
      * Constructs a new CustomerServiceImpl with the given dependencies.
      *
-     * @param customerRepository The customer repository to interact with the database.
-     * @param modelMapper        The model mapper for converting between entities and DTOs.
+     * @param customerRepository       The customer repository to interact with the database.
+     * @param customerMapper           The mapper for converting between customer entities and DTOs.
+     * @param sparseFieldsetRepository The repository listing customers with only the requested fields.
+     * @param missingCustomerIds       The customer IDs recently looked up and not found.
+     * @param missingCustomerEmails    The emails recently signed in with and not registered.
      */
     @Autowired
-    public CustomerServiceImpl(CustomerRepository customerRepository, ModelMapper modelMapper) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, CustomerMapper customerMapper,
+                               SparseFieldsetRepository sparseFieldsetRepository,
+                               @Qualifier("missingCustomerIds") NegativeLookupCache<Integer> missingCustomerIds,
+                               @Qualifier("missingCustomerEmails") NegativeLookupCache<String> missingCustomerEmails) {
         this.customerRepository = customerRepository;
-        this.modelMapper = modelMapper;
+        this.customerMapper = customerMapper;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.missingCustomerIds = missingCustomerIds;
+        this.missingCustomerEmails = missingCustomerEmails;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getAllCustomers() {
-        List<Customer> customers = customerRepository.findAll();
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findAllDtos();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllCustomers(Set<String> fields) {
+        return sparseFieldsetRepository.findAll(CUSTOMER_FIELDS, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public CustomerDto getCustomerById(int customerId) {
-        Customer customer = customerRepository.findById(customerId)
-                .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+        if (missingCustomerIds.isKnownMissing(customerId)) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
+        long generation = missingCustomerIds.generation(customerId);
+        Customer customer = customerRepository.findById(customerId).orElseThrow(() -> {
+            missingCustomerIds.recordMissing(customerId, generation);
+            return new ResourceNotFoundException("Customer", "id", customerId);
+        });
         return convertToDto(customer);
     }
 
@@ -56,6 +99,7 @@ public class CustomerServiceImpl implements CustomerService {
     public CustomerDto createCustomer(CustomerDto customerDto) {
         Customer customer = convertToEntity(customerDto);
         Customer savedCustomer = customerRepository.save(customer);
+        invalidateMissing(savedCustomer);
         return convertToDto(savedCustomer);
     }
 
@@ -81,41 +125,43 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<CustomerDto>> getCustomersByIds(List<Integer> customerIds) {
+        List<Integer> distinctIds = BatchLookups.distinctIds(customerIds, maxBatchSize);
+        Map<Integer, CustomerDto> found = customerRepository.findDtosByIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(CustomerDto::getId, Function.identity()));
+        return BatchLookups.inRequestOrder(customerIds, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByFirstName(String firstName) {
-        List<Customer> customers = customerRepository.findByFirstName(firstName);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByFirstName(firstName);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByLastName(String lastName) {
-        List<Customer> customers = customerRepository.findByLastName(lastName);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByLastName(lastName);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByBirthdate(LocalDate birthdate) {
-        List<Customer> customers = customerRepository.findByBornAt(birthdate);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByBornAt(birthdate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByFirstNameAndLastName(String firstName, String lastName) {
-        List<Customer> customers = customerRepository.findByFirstNameAndLastName(firstName, lastName);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByFirstNameAndLastName(firstName, lastName);
     }
 
     @Override
     public void registerCustomer(Customer customer) {
         // Perform necessary steps to register the customer (e.g., save to the database)
-        customerRepository.save(customer);
+        Customer savedCustomer = customerRepository.save(customer);
+        invalidateMissing(savedCustomer);
     }
 
     @Override
@@ -125,26 +171,29 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByBirthdateBefore(LocalDate date) {
-        List<Customer> customers = customerRepository.findByBornAtBefore(date);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByBornAtBefore(date);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<CustomerDto> getCustomersByBirthdateRange(LocalDate startDate, LocalDate endDate) {
-        List<Customer> customers = customerRepository.findByBornAtBetween(startDate, endDate);
-        return customers.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return customerRepository.findDtosByBornAtBetween(startDate, endDate);
+    }
+
+    private void invalidateMissing(Customer savedCustomer) {
+        missingCustomerIds.invalidate(savedCustomer.getId());
+        if (savedCustomer.getEmail() != null) {
+            missingCustomerEmails.invalidate(savedCustomer.getEmail());
+        }
     }
 
     private CustomerDto convertToDto(Customer customer) {
-        return modelMapper.map(customer, CustomerDto.class);
+        return customerMapper.toDto(customer);
     }
 
     private Customer convertToEntity(CustomerDto customerDto) {
-        return modelMapper.map(customerDto, Customer.class);
+        return customerMapper.toEntity(customerDto);
     }
 }
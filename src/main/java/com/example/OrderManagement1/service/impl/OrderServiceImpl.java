@@ -1,17 +1,30 @@
 package com.example.OrderManagement1.service.impl;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
 import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.ProductOrder;
+import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.event.ChangeEvent;
+import com.example.OrderManagement1.event.ChangeEventBus;
 import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.mapper.OrderMapper;
+import com.example.OrderManagement1.mapper.ProductOrderMapper;
 import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
 import com.example.OrderManagement1.repository.OrderRepository;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldset;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
 import com.example.OrderManagement1.service.OrderService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -23,32 +36,67 @@ import java.util.stream.Collectors;
 public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
-    private final ModelMapper modelMapper;
+    private final ProductRepository productRepository;
+    private final OrderMapper orderMapper;
+    private final ProductOrderMapper productOrderMapper;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final NegativeLookupCache<Integer> missingOrderIds;
+    private final ChangeEventBus changeEventBus;
+
+    private static final SparseFieldset ORDER_FIELDS = SparseFieldset.of("Order", Order.class)
+            .column("id")
+            .column("customerId", "customer.id")
+            .column("orderAt");
 
     /**
      * Constructs a new OrderServiceImpl with the given dependencies.
      *
-     * @param orderRepository The order repository to interact with the database.
-     * @param modelMapper     The model mapper for converting between entities and DTOs.
+     * @param orderRepository          The order repository to interact with the database.
+     * @param productRepository        The product repository providing the products of new product orders.
+     * @param orderMapper              The mapper for converting between order entities and DTOs.
+     * @param productOrderMapper       The mapper for converting product order DTOs to entities.
+     * @param sparseFieldsetRepository The repository listing orders with only the requested fields.
+     * @param missingOrderIds          The order IDs recently looked up and not found.
+     * @param changeEventBus           The bus publishing the order changes.
      */
     @Autowired
-    public OrderServiceImpl(OrderRepository orderRepository, ModelMapper modelMapper) {
+    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository,
+                            OrderMapper orderMapper, ProductOrderMapper productOrderMapper,
+                            SparseFieldsetRepository sparseFieldsetRepository,
+                            @Qualifier("missingOrderIds") NegativeLookupCache<Integer> missingOrderIds,
+                            ChangeEventBus changeEventBus) {
         this.orderRepository = orderRepository;
-        this.modelMapper = modelMapper;
+        this.productRepository = productRepository;
+        this.orderMapper = orderMapper;
+        this.productOrderMapper = productOrderMapper;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.missingOrderIds = missingOrderIds;
+        this.changeEventBus = changeEventBus;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findAllDtos();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllOrders(Set<String> fields) {
+        return sparseFieldsetRepository.findAll(ORDER_FIELDS, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public OrderDto getOrderById(int orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        if (missingOrderIds.isKnownMissing(orderId)) {
+            throw new ResourceNotFoundException("Order", "id", orderId);
+        }
+        long generation = missingOrderIds.generation(orderId);
+        Order order = orderRepository.findById(orderId).orElseThrow(() -> {
+            missingOrderIds.recordMissing(orderId, generation);
+            return new ResourceNotFoundException("Order", "id", orderId);
+        });
         return convertToDto(order);
     }
 
@@ -56,7 +104,37 @@ public class OrderServiceImpl implements OrderService {
     public OrderDto createOrder(OrderDto orderDto) {
         Order order = convertToEntity(orderDto);
         Order savedOrder = orderRepository.save(order);
-        return convertToDto(savedOrder);
+        missingOrderIds.invalidate(savedOrder.getId());
+        OrderDto savedOrderDto = convertToDto(savedOrder);
+        changeEventBus.publish("order", ChangeEvent.Type.CREATED, savedOrderDto.getId(), savedOrderDto);
+        return savedOrderDto;
+    }
+
+    @Override
+    public OrderDto createOrder(OrderDto orderDto, List<ProductOrderDto> productOrderDtos) {
+        Order order = convertToEntity(orderDto);
+        // Persisted by cascade with the new order, so no product order is merged, i.e. selected first;
+        // the products are uninitialized references, as persist rejects detached ones
+        order.setProductOrders(productOrderDtos.stream()
+                .map(productOrderDto -> {
+                    ProductOrder productOrder = productOrderMapper.toEntity(productOrderDto);
+                    productOrder.setProduct(productRepository.getReferenceById(productOrderDto.getProductId()));
+                    productOrder.setOrder(order);
+                    return productOrder;
+                })
+                .collect(Collectors.toList()));
+        Order savedOrder = orderRepository.save(order);
+        missingOrderIds.invalidate(savedOrder.getId());
+        OrderDto savedOrderDto = convertToDto(savedOrder);
+        changeEventBus.publish("order", ChangeEvent.Type.CREATED, savedOrderDto.getId(), savedOrderDto);
+        // Built from the saved product orders, so the DTOs of the caller are neither changed nor shared with listeners
+        for (ProductOrder productOrder : savedOrder.getProductOrders()) {
+            ProductOrderDto productOrderDto = productOrderMapper.toDto(productOrder);
+            productOrderDto.setOrderId(savedOrderDto.getId());
+            changeEventBus.publish("product-order", ChangeEvent.Type.CREATED,
+                    new ProductOrderId(productOrderDto.getProductId(), savedOrderDto.getId()), productOrderDto);
+        }
+        return savedOrderDto;
     }
 
     @Override
@@ -68,7 +146,9 @@ public class OrderServiceImpl implements OrderService {
         existingOrder.setOrderAt(orderDto.getOrderAt());
 
         Order updatedOrder = orderRepository.save(existingOrder);
-        return convertToDto(updatedOrder);
+        OrderDto updatedOrderDto = convertToDto(updatedOrder);
+        changeEventBus.publish("order", ChangeEvent.Type.UPDATED, orderId, updatedOrderDto);
+        return updatedOrderDto;
     }
 
     @Override
@@ -77,58 +157,49 @@ public class OrderServiceImpl implements OrderService {
             throw new ResourceNotFoundException("Order", "id", orderId);
         }
         orderRepository.deleteById(orderId);
+        changeEventBus.publish("order", ChangeEvent.Type.DELETED, orderId, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByCustomerId(int customerId) {
-        List<Order> orders = orderRepository.findByCustomerId(customerId);
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findDtosByCustomerId(customerId);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByOrderDate(LocalDateTime orderDate) {
-        List<Order> orders = orderRepository.findByOrderAt(orderDate);
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findDtosByOrderAt(orderDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByOrderDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Order> orders = orderRepository.findByOrderAtBetween(startDate, endDate);
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findDtosByOrderAtBetween(startDate, endDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByCustomerName(String firstName, String lastName) {
-        List<Order> orders = orderRepository.findByCustomerName(firstName, lastName);
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findDtosByCustomerName(firstName, lastName);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> findByCustomerIdAndOrderAtBetween(int customerId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Order> orders = orderRepository.findByCustomerIdAndOrderAtBetween(customerId, startDate, endDate);
-        return orders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return orderRepository.findDtosByCustomerIdAndOrderAtBetween(customerId, startDate, endDate);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersByPriceLessThan(double price) {
-        List<Order> orders = orderRepository.findByPriceLessThan(price);
-        return mapOrdersToDto(orders);
+        return orderRepository.findDtosByPriceLessThan(price);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<OrderDto> getOrdersOrderByPriceDesc() {
-        List<Order> orders = orderRepository.findByOrderByPriceDesc();
-        return mapOrdersToDto(orders);
+        return orderRepository.findDtosOrderByPriceDesc();
     }
 
     /**
@@ -138,7 +209,7 @@ public class OrderServiceImpl implements OrderService {
      * @return The converted OrderDto object.
      */
     private OrderDto convertToDto(Order order) {
-        return modelMapper.map(order, OrderDto.class);
+        return orderMapper.toDto(order);
     }
 
     /**
@@ -148,28 +219,6 @@ public class OrderServiceImpl implements OrderService {
      * @return The converted Order entity.
      */
     private Order convertToEntity(OrderDto orderDto) {
-        return modelMapper.map(orderDto, Order.class);
-    }
-
-    /**
-     * Maps a list of Order entities to a list of OrderDto objects.
-     *
-     * @param orders The list of Order entities to map.
-     * @return The mapped list of OrderDto objects.
-     */
-    private List<OrderDto> mapOrdersToDto(List<Order> orders) {
-        return orders.stream()
-                .map(this::mapOrderToDto)
-                .collect(Collectors.toList());
-    }
-
-    /**
-     * Maps an Order entity to an OrderDto object.
-     *
-     * @param order The Order entity to map.
-     * @return The mapped OrderDto object.
-     */
-    private OrderDto mapOrderToDto(Order order) {
-        return modelMapper.map(order, OrderDto.class);
+        return orderMapper.toEntity(orderDto);
     }
 }
@@ -2,39 +2,43 @@ package com.example.OrderManagement1.service.impl;
 
 import com.example.OrderManagement1.entity.ProductOrder;
 import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.event.ChangeEvent;
+import com.example.OrderManagement1.event.ChangeEventBus;
 import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.mapper.ProductOrderMapper;
 import com.example.OrderManagement1.payload.ProductOrderDto;
 import com.example.OrderManagement1.repository.ProductOrderRepository;
 import com.example.OrderManagement1.service.ProductOrderService;
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ProductOrderServiceImpl implements ProductOrderService {
 
     @Autowired
     private final ProductOrderRepository productOrderRepository;
-    private final ModelMapper modelMapper;
+    private final ProductOrderMapper productOrderMapper;
+    private final ChangeEventBus changeEventBus;
 
     @Autowired
-    public ProductOrderServiceImpl(ProductOrderRepository productOrderRepository, ModelMapper modelMapper) {
+    public ProductOrderServiceImpl(ProductOrderRepository productOrderRepository, ProductOrderMapper productOrderMapper,
+                                   ChangeEventBus changeEventBus) {
         this.productOrderRepository = productOrderRepository;
-        this.modelMapper = modelMapper;
+        this.productOrderMapper = productOrderMapper;
+        this.changeEventBus = changeEventBus;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductOrderDto> getAllProductOrders() {
-        List<ProductOrder> productOrders = productOrderRepository.findAll();
-        return productOrders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productOrderRepository.findAllDtos();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ProductOrderDto getProductOrderById(ProductOrderId productOrderId) {
         ProductOrder productOrder = getProductOrder(productOrderId);
         return convertToDto(productOrder);
@@ -44,7 +48,9 @@ public class ProductOrderServiceImpl implements ProductOrderService {
     public ProductOrderDto createProductOrder(ProductOrderDto productOrderDto) {
         ProductOrder productOrder = convertToEntity(productOrderDto);
         ProductOrder savedProductOrder = productOrderRepository.save(productOrder);
-        return convertToDto(savedProductOrder);
+        ProductOrderDto savedProductOrderDto = convertToDto(savedProductOrder);
+        changeEventBus.publish("product-order", ChangeEvent.Type.CREATED, savedProductOrder.getId(), savedProductOrderDto);
+        return savedProductOrderDto;
     }
 
     @Override
@@ -52,21 +58,22 @@ public class ProductOrderServiceImpl implements ProductOrderService {
         ProductOrder existingProductOrder = getProductOrder(productOrderId);
         updateProductOrderData(existingProductOrder, productOrderDto);
         ProductOrder updatedProductOrder = productOrderRepository.save(existingProductOrder);
-        return convertToDto(updatedProductOrder);
+        ProductOrderDto updatedProductOrderDto = convertToDto(updatedProductOrder);
+        changeEventBus.publish("product-order", ChangeEvent.Type.UPDATED, productOrderId, updatedProductOrderDto);
+        return updatedProductOrderDto;
     }
 
     @Override
     public void deleteProductOrder(ProductOrderId productOrderId) {
         ProductOrder productOrder = getProductOrder(productOrderId);
         productOrderRepository.delete(productOrder);
+        changeEventBus.publish("product-order", ChangeEvent.Type.DELETED, productOrderId, null);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductOrderDto> getProductOrdersByProductAndOrderId(ProductOrderId productOrderId) {
-        List<ProductOrder> productOrders = productOrderRepository.findByProductIdAndOrderId(productOrderId);
-        return productOrders.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productOrderRepository.findDtosById(productOrderId);
     }
 
     @Override
@@ -76,11 +83,11 @@ public class ProductOrderServiceImpl implements ProductOrderService {
     }
 
     private ProductOrderDto convertToDto(ProductOrder productOrder) {
-        return modelMapper.map(productOrder, ProductOrderDto.class);
+        return productOrderMapper.toDto(productOrder);
     }
 
     private ProductOrder convertToEntity(ProductOrderDto productOrderDto) {
-        return modelMapper.map(productOrderDto, ProductOrder.class);
+        return productOrderMapper.toEntity(productOrderDto);
     }
 
     @Override
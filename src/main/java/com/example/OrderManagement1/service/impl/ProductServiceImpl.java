@@ -1,79 +1,161 @@
 package com.example.OrderManagement1.service.impl;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.coalescing.SingleFlight;
 import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.event.ProductsChangedEvent;
+import com.example.OrderManagement1.exception.OrderAPIException;
 import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.index.ProductFacetIndex;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.index.StockAvailabilityIndex;
+import com.example.OrderManagement1.mapper.ProductMapper;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.BulkUpdateResultDto;
+import com.example.OrderManagement1.payload.ProductBulkUpdateDto;
 import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductSearchResultDto;
 import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldset;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
 import com.example.OrderManagement1.service.ProductService;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ProductServiceImpl implements ProductService {
     @Autowired
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
+    private final ProductMapper productMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductFacetIndex productFacetIndex;
+    private final StockAvailabilityIndex stockAvailabilityIndex;
+    private final LowStockIndex lowStockIndex;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final SingleFlight<Integer, ProductDto> productsById;
+    private final SingleFlight<String, List<ProductDto>> productsBySlug;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final SparseFieldset productFields;
+    private final NegativeLookupCache<Integer> missingProductIds;
+    private final int bulkUpdateChunkSize;
+
+    @Value("${application.batch.max-size:100}")
+    private int maxBatchSize;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, ModelMapper modelMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, ProductMapper productMapper,
+                              PlatformTransactionManager transactionManager,
+                              ApplicationEventPublisher eventPublisher,
+                              ProductFacetIndex productFacetIndex,
+                              StockAvailabilityIndex stockAvailabilityIndex,
+                              LowStockIndex lowStockIndex,
+                              MeterRegistry meterRegistry,
+                              SparseFieldsetRepository sparseFieldsetRepository,
+                              @Qualifier("missingProductIds") NegativeLookupCache<Integer> missingProductIds,
+                              @Value("${application.products.single-flight.timeout-ms:2000}") long singleFlightTimeoutMillis,
+                              @Value("${application.products.bulk-update.chunk-size:1000}") int bulkUpdateChunkSize) {
+        if (bulkUpdateChunkSize < 1) {
+            throw new IllegalArgumentException("application.products.bulk-update.chunk-size must be at least 1");
+        }
         this.productRepository = productRepository;
-        this.modelMapper = modelMapper;
+        this.productMapper = productMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.productFacetIndex = productFacetIndex;
+        this.stockAvailabilityIndex = stockAvailabilityIndex;
+        this.lowStockIndex = lowStockIndex;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        Duration singleFlightTimeout = Duration.ofMillis(singleFlightTimeoutMillis);
+        // Every coalesced caller gets its own copy of the loaded products
+        this.productsById = new SingleFlight<>("product.by-id", Function.identity(), ProductDto::new,
+                singleFlightTimeout, meterRegistry);
+        this.productsBySlug = new SingleFlight<>("product.by-slug", Function.identity(),
+                products -> products.stream().map(ProductDto::new).toList(), singleFlightTimeout, meterRegistry);
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.missingProductIds = missingProductIds;
+        this.bulkUpdateChunkSize = bulkUpdateChunkSize;
+        this.productFields = SparseFieldset.of("Product", Product.class)
+                .column("id")
+                .column("slug")
+                .column("name")
+                .column("reference")
+                .column("price")
+                .column("vat")
+                .column("stockable")
+                .column("reorderThreshold")
+                .derived("availableQuantity", values -> stockAvailabilityIndex.getAvailableQuantity((Integer) values.get("id")), "id");
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
-        List<Product> products = productRepository.findAll();
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findAllDtos());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllProducts(Set<String> fields) {
+        return sparseFieldsetRepository.findAll(productFields, fields);
     }
 
     @Override
     public ProductDto getProductById(int productId) {
-        Product product = getProduct(productId);
-        return convertToDto(product);
+        // Concurrent requests for the same product share one load, and only the loading call opens a transaction
+        return productsById.load(productId,
+                id -> readOnlyTransactionTemplate.execute(status -> convertToDto(getProduct(id))));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getByPriceLessThan(double price) {
-        List<Product> products = productRepository.findByPriceLessThan(price);
-        return products.stream()
-                .map(product -> modelMapper.map(product, ProductDto.class))
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByPriceLessThan(price));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getByVatGreaterThan(double vat) {
-        List<Product> products = productRepository.findByVatGreaterThan(vat);
-        return products.stream()
-                .map(product -> modelMapper.map(product, ProductDto.class))
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByVatGreaterThan(vat));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getByOrderByPriceDesc() {
-        List<Product> products = productRepository.findByOrderByPriceDesc();
-        return products.stream()
-                .map(product -> modelMapper.map(product, ProductDto.class))
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosOrderByPriceDesc());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getByVatBetween(double minVat, double maxVat) {
-        List<Product> products = productRepository.findByVatBetween(minVat, maxVat);
-        return products.stream()
-                .map(product -> modelMapper.map(product, ProductDto.class))
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByVatBetween(minVat, maxVat));
     }
 
     @Override
     public ProductDto createProduct(ProductDto productDto) {
         Product product = convertToEntity(productDto);
         Product savedProduct = productRepository.save(product);
+        missingProductIds.invalidate(savedProduct.getId());
+        productFacetIndex.index(savedProduct);
+        lowStockIndex.setThreshold(savedProduct.getId(), savedProduct.getReorderThreshold());
         return convertToDto(savedProduct);
     }
 
@@ -86,7 +168,10 @@ public class ProductServiceImpl implements ProductService {
         existingProduct.setPrice(productDto.getPrice());
         existingProduct.setVat(productDto.getVat());
         existingProduct.setStockable(productDto.isStockable());
+        existingProduct.setReorderThreshold(productDto.getReorderThreshold());
         Product updatedProduct = productRepository.save(existingProduct);
+        productFacetIndex.index(updatedProduct);
+        lowStockIndex.setThreshold(updatedProduct.getId(), updatedProduct.getReorderThreshold());
         return convertToDto(updatedProduct);
     }
 
@@ -94,66 +179,168 @@ public class ProductServiceImpl implements ProductService {
     public void deleteProduct(int productId) {
         Product product = getProduct(productId);
         productRepository.delete(product);
+        productFacetIndex.delete(productId);
+        lowStockIndex.delete(productId);
     }
 
     @Override
     public List<ProductDto> getProductsBySlug(String slug) {
-        List<Product> products = productRepository.findBySlug(slug);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return productsBySlug.load(slug, key -> readOnlyTransactionTemplate.execute(status ->
+                productRepository.findBySlug(key).stream()
+                        .map(this::convertToDto)
+                        .toList()));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsByName(String name) {
-        List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByNameContainingIgnoreCase(name));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsByReference(String reference) {
-        List<Product> products = productRepository.findByReference(reference);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByReference(reference));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsByPriceRange(double minPrice, double maxPrice) {
-        List<Product> products = productRepository.findByPriceBetween(minPrice, maxPrice);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByPriceBetween(minPrice, maxPrice));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsByVat(double vat) {
-        List<Product> products = productRepository.findByVat(vat);
-        return products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withAvailableQuantities(productRepository.findDtosByVat(vat));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ProductDto> getProductsInStock() {
-        List<Product> products = productRepository.findByStockableTrue(true);
-        return products.stream()
-                .map(this::convertToDto)
+        return withAvailableQuantities(productRepository.findDtosByIdIn(stockAvailabilityIndex.getInStockProductIds()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<ProductDto>> getProductsByIds(List<Integer> productIds) {
+        List<Integer> distinctIds = BatchLookups.distinctIds(productIds, maxBatchSize);
+        Map<Integer, ProductDto> found = withAvailableQuantities(productRepository.findDtosByIdIn(distinctIds)).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        return BatchLookups.inRequestOrder(productIds, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductSearchResultDto searchProducts(List<Double> vatRates, Double minPrice, Double maxPrice,
+                                                 Boolean stockable, int page, int size) {
+        if (page < 0 || size < 1) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Page must be at least 0 and size at least 1");
+        }
+        ProductFacetIndex.FacetSearchResult result = productFacetIndex.search(vatRates, minPrice, maxPrice, stockable);
+        List<Integer> pageIds = result.page(page, size);
+        Map<Integer, ProductDto> productsById = withAvailableQuantities(productRepository.findDtosByIdIn(pageIds)).stream()
+                .collect(Collectors.toMap(ProductDto::getId, Function.identity()));
+        List<ProductDto> products = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return new ProductSearchResultDto(result.getMatches().cardinality(), products,
+                result.getPriceCounts(), result.getVatCounts(), result.getStockableCounts());
+    }
+
+    @Override
+    public BulkUpdateResultDto bulkUpdateProducts(ProductBulkUpdateDto bulkUpdateDto) {
+        validateBulkUpdate(bulkUpdateDto);
+        List<Integer> candidateIds = bulkUpdateDto.getIds() != null && !bulkUpdateDto.getIds().isEmpty()
+                ? bulkUpdateDto.getIds().stream().distinct().sorted().collect(Collectors.toList())
+                : productRepository.findIdsByFilter(bulkUpdateDto.getVat(), bulkUpdateDto.getMinPrice(), bulkUpdateDto.getMaxPrice());
+
+        int matched = 0;
+        int updated = 0;
+        int chunks = 0;
+        for (int from = 0; from < candidateIds.size(); from += bulkUpdateChunkSize) {
+            List<Integer> chunk = candidateIds.subList(from, Math.min(from + bulkUpdateChunkSize, candidateIds.size()));
+            List<Integer> chunkIds = bulkUpdateDto.getIds() != null && !bulkUpdateDto.getIds().isEmpty()
+                    ? productRepository.findIdsByIdInAndFilter(chunk, bulkUpdateDto.getVat(), bulkUpdateDto.getMinPrice(), bulkUpdateDto.getMaxPrice())
+                    : chunk;
+            if (chunkIds.isEmpty()) {
+                continue;
+            }
+            Integer rows = transactionTemplate.execute(status -> applyBulkOperation(chunkIds, bulkUpdateDto));
+            matched += chunkIds.size();
+            updated += rows != null ? rows : 0;
+            chunks++;
+            eventPublisher.publishEvent(new ProductsChangedEvent(chunkIds));
+            log.info("Bulk {} progress: {}/{} candidate products processed, {} updated",
+                    bulkUpdateDto.getOperation(), Math.min(from + bulkUpdateChunkSize, candidateIds.size()),
+                    candidateIds.size(), updated);
+        }
+        return new BulkUpdateResultDto(matched, updated, chunks);
+    }
+
+    private int applyBulkOperation(List<Integer> ids, ProductBulkUpdateDto bulkUpdateDto) {
+        double value = bulkUpdateDto.getValue();
+        switch (bulkUpdateDto.getOperation()) {
+            case SET_PRICE:
+                return productRepository.updatePriceByIdIn(ids, value);
+            case PERCENT_CHANGE:
+                return productRepository.multiplyPriceByIdIn(ids, 1 + value / 100);
+            case SET_VAT:
+                return productRepository.updateVatByIdIn(ids, value);
+            default:
+                throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Unsupported operation: " + bulkUpdateDto.getOperation());
+        }
+    }
+
+    private void validateBulkUpdate(ProductBulkUpdateDto bulkUpdateDto) {
+        if (bulkUpdateDto.getOperation() == null || bulkUpdateDto.getValue() == null) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Operation and value are required");
+        }
+        double value = bulkUpdateDto.getValue();
+        switch (bulkUpdateDto.getOperation()) {
+            case SET_PRICE:
+            case SET_VAT:
+                if (value <= 0) {
+                    throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Value must be greater than 0.0");
+                }
+                break;
+            case PERCENT_CHANGE:
+                if (value <= -100) {
+                    throw new OrderAPIException(HttpStatus.BAD_REQUEST, "Percent change must be greater than -100");
+                }
+                break;
+            default:
+                break;
+        }
     }
 
     private Product getProduct(int productId) {
-        return productRepository.findById(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Product", "id", productId));
+        if (missingProductIds.isKnownMissing(productId)) {
+            throw new ResourceNotFoundException("Product", "id", productId);
+        }
+        long generation = missingProductIds.generation(productId);
+        return productRepository.findById(productId).orElseThrow(() -> {
+            missingProductIds.recordMissing(productId, generation);
+            return new ResourceNotFoundException("Product", "id", productId);
+        });
+    }
+
+    private List<ProductDto> withAvailableQuantities(List<ProductDto> productDtos) {
+        productDtos.forEach(this::setAvailableQuantity);
+        return productDtos;
     }
 
     private ProductDto convertToDto(Product product) {
-        return modelMapper.map(product, ProductDto.class);
+        return setAvailableQuantity(productMapper.toDto(product));
+    }
+
+    private ProductDto setAvailableQuantity(ProductDto productDto) {
+        productDto.setAvailableQuantity(stockAvailabilityIndex.getAvailableQuantity(productDto.getId()));
+        return productDto;
     }
 
     private Product convertToEntity(ProductDto productDto) {
-        return modelMapper.map(productDto, Product.class);
+        return productMapper.toEntity(productDto);
     }
 }
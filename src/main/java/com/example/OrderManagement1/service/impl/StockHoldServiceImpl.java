@@ -0,0 +1,213 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.entity.StockHold;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.hold.TimingWheel;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.payload.StockHoldDto;
+import com.example.OrderManagement1.payload.StockHoldRequestDto;
+import com.example.OrderManagement1.repository.StockHoldRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import com.example.OrderManagement1.service.StockHoldService;
+import com.example.OrderManagement1.service.StockService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Holds take their quantity from the stock when placed. Their expiry is tracked in memory by a
+ * {@link TimingWheel} instead of polling the stock_hold table; the wheel is filled from the table at startup
+ * and advanced every tick, and the holds it expires are released to the database in batches.
+ */
+@Slf4j
+@Service
+public class StockHoldServiceImpl implements StockHoldService {
+
+    private final StockHoldRepository holdRepository;
+    private final StockRepository stockRepository;
+    private final StockService stockService;
+    private final StockMapper stockMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TimingWheel<Long> expiryWheel;
+    private final Map<Long, TimingWheel.Timer<Long>> timers = new ConcurrentHashMap<>();
+    private final Timer expiryLag;
+    private final Counter expiredHolds;
+
+    @Value("${application.stocks.holds.default-ttl-seconds:300}")
+    private int defaultTtlSeconds;
+
+    @Value("${application.stocks.holds.max-ttl-seconds:3600}")
+    private int maxTtlSeconds;
+
+    @Value("${application.stocks.holds.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    public StockHoldServiceImpl(StockHoldRepository holdRepository, StockRepository stockRepository,
+                                StockService stockService, StockMapper stockMapper,
+                                PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                @Value("${application.stocks.holds.tick-ms:100}") long tickMillis) {
+        this.holdRepository = holdRepository;
+        this.stockRepository = stockRepository;
+        this.stockService = stockService;
+        this.stockMapper = stockMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expiryWheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        Gauge.builder("stock.holds.active", expiryWheel, TimingWheel::size)
+                .description("Stock holds waiting to expire")
+                .register(meterRegistry);
+        this.expiryLag = Timer.builder("stock.holds.expiry.lag")
+                .description("Time from the expiry of a stock hold until its quantity is released")
+                .register(meterRegistry);
+        this.expiredHolds = Counter.builder("stock.holds.expired")
+                .description("Stock holds released on expiry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the expiry of the holds that survived a restart; holds that expired meanwhile go on the next tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadHolds() {
+        List<Object[]> rows = holdRepository.findExpiryRows();
+        rows.forEach(row -> schedule((Long) row[0], (LocalDateTime) row[1]));
+        log.info("Scheduled the expiry of {} stock holds", rows.size());
+    }
+
+    @Override
+    public StockHoldDto placeHold(int stockId, StockHoldRequestDto request) {
+        int ttlSeconds = request.getTtlSeconds() != null ? request.getTtlSeconds() : defaultTtlSeconds;
+        if (ttlSeconds > maxTtlSeconds) {
+            throw new OrderAPIException(HttpStatus.BAD_REQUEST, "A hold must not last more than " + maxTtlSeconds + " seconds");
+        }
+        // The quantity and the hold are written together, so a failure in between cannot leak the quantity
+        StockHold hold = transactionTemplate.execute(status -> {
+            stockService.adjustStockQuantity(stockId, -request.getQuantity());
+            LocalDateTime now = LocalDateTime.now();
+            return holdRepository.save(new StockHold(0, stockId, request.getQuantity(), now, now.plusSeconds(ttlSeconds)));
+        });
+        schedule(hold.getId(), hold.getExpiresAt());
+        return convertToDto(hold);
+    }
+
+    @Override
+    public StockHoldDto getHold(long holdId) {
+        return convertToDto(getStockHold(holdId));
+    }
+
+    @Override
+    public void releaseHold(long holdId) {
+        StockHold hold = getStockHold(holdId);
+        transactionTemplate.executeWithoutResult(status -> {
+            if (holdRepository.deleteHold(holdId) == 0) {
+                throw new ResourceNotFoundException("StockHold", "id", holdId);
+            }
+            giveBack(Map.of(hold.getStockId(), hold.getQuantity()));
+        });
+        cancelTimer(holdId);
+    }
+
+    @Override
+    public StockHoldDto confirmHold(long holdId) {
+        StockHold hold = getStockHold(holdId);
+        Integer deleted = transactionTemplate.execute(status -> holdRepository.deleteHold(holdId));
+        if (deleted == null || deleted == 0) {
+            throw new ResourceNotFoundException("StockHold", "id", holdId);
+        }
+        cancelTimer(holdId);
+        return convertToDto(hold);
+    }
+
+    /**
+     * Advances the expiry wheel to now and releases the holds it expired, release-batch-size holds per transaction.
+     */
+    @Scheduled(fixedDelayString = "${application.stocks.holds.tick-ms:100}")
+    public void releaseExpiredHolds() {
+        List<Long> due = new ArrayList<>();
+        expiryWheel.advance(System.currentTimeMillis(), timer -> {
+            timers.remove(timer.getValue(), timer);
+            due.add(timer.getValue());
+        });
+        for (int from = 0; from < due.size(); from += releaseBatchSize) {
+            List<Long> batch = due.subList(from, Math.min(from + releaseBatchSize, due.size()));
+            try {
+                List<StockHold> released = transactionTemplate.execute(status -> releaseBatch(batch));
+                LocalDateTime now = LocalDateTime.now();
+                released.forEach(hold -> expiryLag.record(Duration.between(hold.getExpiresAt(), now)));
+                expiredHolds.increment(released.size());
+            } catch (RuntimeException e) {
+                log.error("Could not release {} expired stock holds, retrying in one second", batch.size(), e);
+                LocalDateTime retryAt = LocalDateTime.now().plusSeconds(1);
+                batch.forEach(holdId -> schedule(holdId, retryAt));
+            }
+        }
+    }
+
+    private List<StockHold> releaseBatch(List<Long> holdIds) {
+        // Holds released or confirmed in the meantime are no longer found
+        List<StockHold> holds = holdRepository.findByIdIn(holdIds);
+        if (holds.isEmpty()) {
+            return holds;
+        }
+        holdRepository.deleteHolds(holds.stream().map(StockHold::getId).collect(Collectors.toList()));
+        giveBack(holds.stream().collect(Collectors.groupingBy(StockHold::getStockId, Collectors.summingInt(StockHold::getQuantity))));
+        return holds;
+    }
+
+    private void giveBack(Map<Integer, Integer> quantityByStock) {
+        // Holds of deleted stocks have nothing to give back to
+        Set<Integer> existingStocks = stockRepository.findAllById(quantityByStock.keySet()).stream()
+                .map(Stock::getId)
+                .collect(Collectors.toSet());
+        quantityByStock.forEach((stockId, quantity) -> {
+            if (existingStocks.contains(stockId)) {
+                stockService.adjustStockQuantity(stockId, quantity);
+            }
+        });
+    }
+
+    private void schedule(long holdId, LocalDateTime expiresAt) {
+        long expiresAtMillis = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        TimingWheel.Timer<Long> previous = timers.put(holdId, expiryWheel.schedule(holdId, expiresAtMillis));
+        if (previous != null) {
+            expiryWheel.cancel(previous);
+        }
+    }
+
+    private void cancelTimer(long holdId) {
+        TimingWheel.Timer<Long> timer = timers.remove(holdId);
+        if (timer != null) {
+            expiryWheel.cancel(timer);
+        }
+    }
+
+    private StockHold getStockHold(long holdId) {
+        return holdRepository.findById(holdId)
+                .orElseThrow(() -> new ResourceNotFoundException("StockHold", "id", holdId));
+    }
+
+    private StockHoldDto convertToDto(StockHold hold) {
+        return stockMapper.toDto(hold);
+    }
+}
@@ -1,140 +1,459 @@
 package com.example.OrderManagement1.service.impl;
 
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.entity.HotStockFlush;
+import com.example.OrderManagement1.entity.ProductStockSummary;
 import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.event.StockChangeListener;
+import com.example.OrderManagement1.exception.OrderAPIException;
 import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.ledger.StockLedger;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.LowStockDto;
+import com.example.OrderManagement1.payload.ProductQuantityAtDto;
+import com.example.OrderManagement1.payload.ProductStockSummaryDto;
 import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockMovementDto;
+import com.example.OrderManagement1.repository.HotStockFlushRepository;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.SparseFieldset;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
 import com.example.OrderManagement1.repository.StockRepository;
 import com.example.OrderManagement1.service.StockService;
-import org.modelmapper.ModelMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class StockServiceImpl implements StockService {
 
     @Autowired
     private final StockRepository stockRepository;
-    private final ModelMapper modelMapper;
+    private final ProductStockSummaryRepository summaryRepository;
+    private final StockMapper stockMapper;
+    private final List<StockChangeListener> stockChangeListeners;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate newTransactionTemplate;
+    private final HotStockCounters hotStockCounters;
+    private final HotStockFlushRepository hotStockFlushRepository;
+    private final StockLedger stockLedger;
+    private final LowStockIndex lowStockIndex;
+    private final StockThresholdNotifier stockThresholdNotifier;
+    private final SparseFieldsetRepository sparseFieldsetRepository;
+    private final SparseFieldset stockFields;
+    private final NegativeLookupCache<Integer> missingStockIds;
+
+    @Value("${application.batch.max-size:100}")
+    private int maxBatchSize;
+
+    @Value("${application.stocks.update-max-attempts:3}")
+    private int updateMaxAttempts;
+
+    @Value("${application.stocks.hot-sku.flush-log-retention-hours:24}")
+    private long flushLogRetentionHours;
 
     @Autowired
-    public StockServiceImpl(StockRepository stockRepository, ModelMapper modelMapper) {
+    public StockServiceImpl(StockRepository stockRepository, ProductStockSummaryRepository summaryRepository,
+                            StockMapper stockMapper,
+                            List<StockChangeListener> stockChangeListeners,
+                            PlatformTransactionManager transactionManager, HotStockCounters hotStockCounters,
+                            HotStockFlushRepository hotStockFlushRepository,
+                            StockLedger stockLedger, LowStockIndex lowStockIndex,
+                            StockThresholdNotifier stockThresholdNotifier,
+                            SparseFieldsetRepository sparseFieldsetRepository,
+                            @Qualifier("missingStockIds") NegativeLookupCache<Integer> missingStockIds) {
         this.stockRepository = stockRepository;
-        this.modelMapper = modelMapper;
+        this.summaryRepository = summaryRepository;
+        this.stockMapper = stockMapper;
+        this.stockChangeListeners = stockChangeListeners;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hotStockCounters = hotStockCounters;
+        this.hotStockFlushRepository = hotStockFlushRepository;
+        this.stockLedger = stockLedger;
+        this.lowStockIndex = lowStockIndex;
+        this.stockThresholdNotifier = stockThresholdNotifier;
+        this.sparseFieldsetRepository = sparseFieldsetRepository;
+        this.missingStockIds = missingStockIds;
+        this.stockFields = SparseFieldset.of("Stock", Stock.class)
+                .column("id")
+                .column("productId", "product.id")
+                // A hot stock is ahead of the table by the delta not flushed yet
+                .derived("quantity", values -> (Integer) values.get("quantity")
+                        + (int) hotStockCounters.getPendingDelta((Integer) values.get("id")), "id", "quantity")
+                .column("updatedAt")
+                .column("version");
+    }
+
+    /**
+     * Writes the deltas recovered from the hot stock journal before any request is served.
+     */
+    @PostConstruct
+    void recoverHotStocks() {
+        hotStockCounters.flush(this::writeHotStockDelta);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getAllStocks() {
-        List<Stock> stocks = stockRepository.findAll();
-        return stocks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withPendingDeltas(stockRepository.findAllDtos());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllStocks(Set<String> fields) {
+        return sparseFieldsetRepository.findAll(stockFields, fields);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public StockDto getStockById(int stockId) {
         Stock stock = getStock(stockId);
         return convertToDto(stock);
     }
 
     @Override
+    @Transactional
     public StockDto createStock(StockDto stockDto) {
         Stock stock = convertToEntity(stockDto);
+        stock.setVersion(0);
         Stock savedStock = stockRepository.save(stock);
+        missingStockIds.invalidate(savedStock.getId());
+        publishChange(savedStock, 0, savedStock.getQuantity(), StockChange.Type.CREATED);
         return convertToDto(savedStock);
     }
 
     @Override
     public StockDto updateStock(int stockId, StockDto stockDto) {
-        Stock existingStock = getStock(stockId);
-        existingStock.setId(stockDto.getProductId());
-        existingStock.setQuantity(stockDto.getQuantity());
-        existingStock.setUpdatedAt(stockDto.getUpdatedAt());
-        Stock updatedStock = stockRepository.save(existingStock);
-        return convertToDto(updatedStock);
+        hotStockCounters.demote(stockId, this::writeHotStockDelta);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> doUpdateStock(stockId, stockDto));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= updateMaxAttempts) {
+                    throw new OrderAPIException(HttpStatus.CONFLICT, "Stock " + stockId + " is being modified concurrently, please retry");
+                }
+            }
+        }
     }
 
     @Override
+    public StockDto adjustStockQuantity(int stockId, int delta) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (inTransaction && delta > 0 && hotStockCounters.isHot(stockId)) {
+            // Quantity given back to a hot stock only lives in memory, so it must not be usable before the commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjustAfterCompletion(stockId, delta);
+                }
+            });
+            return getStockById(stockId);
+        }
+        // The database changes of the caller roll back on their own; the in-memory one is compensated unless the
+        // compensation batch recorded in the caller's transaction commits with it, even after a crash
+        String compensationId = inTransaction ? UUID.randomUUID().toString() : null;
+        HotStockCounters.Outcome outcome = inTransaction
+                ? hotStockCounters.adjustInTransaction(compensationId, stockId, delta)
+                : hotStockCounters.adjust(stockId, delta);
+        switch (outcome) {
+            case APPLIED:
+                if (inTransaction) {
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            hotStockCounters.complete(compensationId, status == STATUS_COMMITTED);
+                        }
+                    });
+                    hotStockFlushRepository.save(new HotStockFlush(compensationId, stockId, -delta, LocalDateTime.now()));
+                }
+                return getStockById(stockId);
+            case INSUFFICIENT:
+                throw new OrderAPIException(HttpStatus.CONFLICT, "Insufficient quantity in stock " + stockId);
+            default:
+                break;
+        }
+        if (!hotStockCounters.enterDatabasePath(stockId)) {
+            // Promoted by a concurrent adjustment
+            return adjustStockQuantity(stockId, delta);
+        }
+        StockDto adjustedStock;
+        try {
+            adjustedStock = transactionTemplate.execute(status -> doAdjustStockQuantity(stockId, delta));
+        } finally {
+            hotStockCounters.exitDatabasePath(stockId);
+        }
+        if (hotStockCounters.shouldPromote(stockId)) {
+            if (inTransaction) {
+                // The promotion waits for the adjustments in flight, which may wait for the row lock of the caller
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        promote(stockId);
+                    }
+                });
+            } else {
+                promote(stockId);
+            }
+        }
+        return adjustedStock;
+    }
+
+    /**
+     * Writes the net delta of the hot stocks to the stock table.
+     */
+    @Scheduled(fixedDelayString = "${application.stocks.hot-sku.flush-interval-ms:200}")
+    public void flushHotStocks() {
+        hotStockCounters.flush(this::writeHotStockDelta);
+    }
+
+    /**
+     * Deletes the records of the hot stock batches written longer ago than any journal replay could reach.
+     */
+    @Scheduled(fixedDelayString = "${application.stocks.hot-sku.flush-log-prune-interval-ms:3600000}")
+    @Transactional
+    public void pruneHotStockFlushes() {
+        hotStockFlushRepository.deleteFlushedBefore(LocalDateTime.now().minusHours(flushLogRetentionHours));
+    }
+
+    @Override
+    @Transactional
     public void deleteStock(int stockId) {
+        hotStockCounters.demote(stockId, this::writeHotStockDelta);
         Stock stock = getStock(stockId);
         stockRepository.delete(stock);
+        publishChange(stock, stock.getQuantity(), 0, StockChange.Type.DELETED);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getStocksByProductId(int productId) {
-        List<Stock> stocks = stockRepository.findByProductId(productId);
-        return stocks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+        return withPendingDeltas(stockRepository.findDtosByProductId(productId));
     }
 
     @Override
-    public List<StockDto> getStocksByQuality(int quality) {
-        List<Stock> stocks = stockRepository.findByQuality(quality);
-        return stocks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<StockDto>> getStocksByIds(List<Integer> stockIds) {
+        List<Integer> distinctIds = BatchLookups.distinctIds(stockIds, maxBatchSize);
+        Map<Integer, StockDto> found = withPendingDeltas(stockRepository.findDtosByIdIn(distinctIds)).stream()
+                .collect(Collectors.toMap(StockDto::getId, stockDto -> stockDto));
+        return BatchLookups.inRequestOrder(stockIds, found);
     }
 
     @Override
-    public List<StockDto> getStocksByUpdateDateRange(LocalDate startDate, LocalDate endDate) {
-        List<Stock> stocks = stockRepository.findByUpdateDateBetween(startDate, endDate);
-        return stocks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<List<StockDto>>> getStocksByProductIds(List<Integer> productIds) {
+        List<Integer> distinctIds = BatchLookups.distinctIds(productIds, maxBatchSize);
+        Map<Integer, List<StockDto>> found = withPendingDeltas(stockRepository.findDtosByProductIdIn(distinctIds)).stream()
+                .collect(Collectors.groupingBy(StockDto::getProductId));
+        return BatchLookups.inRequestOrder(productIds, found);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductStockSummaryDto getProductStockSummary(int productId) {
+        ProductStockSummary summary = summaryRepository.findById(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("ProductStockSummary", "productId", productId));
+        return stockMapper.toDto(summary);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BatchItemDto<ProductStockSummaryDto>> getProductStockSummaries(List<Integer> productIds) {
+        List<Integer> distinctIds = BatchLookups.distinctIds(productIds, maxBatchSize);
+        Map<Integer, ProductStockSummaryDto> found = summaryRepository.findByProductIdIn(distinctIds).stream()
+                .collect(Collectors.toMap(ProductStockSummary::getProductId,
+                        summary -> stockMapper.toDto(summary)));
+        return BatchLookups.inRequestOrder(productIds, found);
     }
 
     @Override
-    public List<StockDto> getStocksByProductIdAndQuality(int productId, int quality) {
-        List<Stock> stocks = stockRepository.findByProductIdAndQuality(productId, quality);
-        return stocks.stream()
-                .map(this::convertToDto)
+    public List<StockMovementDto> getStockMovements(int stockId, LocalDateTime from, LocalDateTime to, int page, int size) {
+        return stockLedger.getMovements(stockId, from, to, page, size).stream()
+                .map(movement -> stockMapper.toDto(movement))
                 .collect(Collectors.toList());
     }
+
     @Override
+    public ProductQuantityAtDto getProductQuantityAt(int productId, LocalDateTime at) {
+        return new ProductQuantityAtDto(productId, at, stockLedger.getProductQuantityAt(productId, at));
+    }
+
+    @Override
+    public List<LowStockDto> getLowStockProducts(long maxMargin, int limit) {
+        return lowStockIndex.getLowStock(maxMargin, limit);
+    }
+
+    @Override
+    public SseEmitter subscribeToThresholdCrossings() {
+        return stockThresholdNotifier.subscribe();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<StockDto> getStocksByUpdateDateRange(LocalDate startDate, LocalDate endDate) {
+        return withPendingDeltas(stockRepository.findDtosByUpdatedAtBetween(startDate.atStartOfDay(),
+                endDate.plusDays(1).atStartOfDay().minusNanos(1)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getByQuantityGreaterThan(int quantity) {
-        List<Stock> stocks = stockRepository.findByQuantityGreaterThan(quantity);
-        return mapStocksToDto(stocks);
+        return withPendingDeltas(stockRepository.findDtosByQuantityGreaterThan(quantity));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getByUpdateAtBetween(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Stock> stocks = stockRepository.findByUpdateAtBetween(startDate, endDate);
-        return mapStocksToDto(stocks);
+        return withPendingDeltas(stockRepository.findDtosByUpdatedAtBetween(startDate, endDate));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getByProductIdAndQuantityGreaterThan(int productId, int quantity) {
-        List<Stock> stocks = stockRepository.findByProductIdAndQuantityGreaterThan(productId, quantity);
-        return mapStocksToDto(stocks);
+        return withPendingDeltas(stockRepository.findDtosByProductIdAndQuantityGreaterThan(productId, quantity));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<StockDto> getByProductIdAndUpdateAtBetween(int productId, LocalDateTime startDate, LocalDateTime endDate) {
-        List<Stock> stocks = stockRepository.findByProductIdAndUpdateAtBetween(productId, startDate, endDate);
-        return mapStocksToDto(stocks);
+        return withPendingDeltas(stockRepository.findDtosByProductIdAndUpdatedAtBetween(productId, startDate, endDate));
+    }
+
+    private StockDto doAdjustStockQuantity(int stockId, int delta) {
+        int updated = stockRepository.adjustQuantity(stockId, delta, LocalDateTime.now());
+        if (updated == 0) {
+            if (!stockRepository.existsById(stockId)) {
+                throw new ResourceNotFoundException("Stock", "id", stockId);
+            }
+            throw new OrderAPIException(HttpStatus.CONFLICT, "Insufficient quantity in stock " + stockId);
+        }
+        Stock stock = getStock(stockId);
+        publishChange(stock, stock.getQuantity() - delta, stock.getQuantity(), StockChange.Type.UPDATED);
+        return convertToDto(stock);
+    }
+
+    /**
+     * Applies an adjustment deferred to the end of the caller's transaction, in a transaction of its own
+     * if the stock was demoted in the meantime.
+     */
+    private void adjustAfterCompletion(int stockId, int delta) {
+        try {
+            if (hotStockCounters.adjust(stockId, delta) == HotStockCounters.Outcome.NOT_HOT) {
+                newTransactionTemplate.executeWithoutResult(status -> doAdjustStockQuantity(stockId, delta));
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not adjust stock {} by {} after the transaction completed", stockId, delta, e);
+        }
+    }
+
+    /**
+     * Moves a stock to the in-memory path, seeded with its committed quantity. Must not be called
+     * within a transaction that adjusted the stock.
+     */
+    private void promote(int stockId) {
+        try {
+            hotStockCounters.promote(stockId, () -> newTransactionTemplate.execute(status -> getStock(stockId).getQuantity()));
+        } catch (RuntimeException e) {
+            log.error("Could not promote stock {} to hot-SKU mode", stockId, e);
+        }
+    }
+
+    private void writeHotStockDelta(String batchId, int stockId, long delta) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (hotStockFlushRepository.existsById(batchId)) {
+                log.info("Hot stock batch {} of stock {} was already written", batchId, stockId);
+                return;
+            }
+            int quantityDelta = Math.toIntExact(delta);
+            if (stockRepository.adjustQuantity(stockId, quantityDelta, LocalDateTime.now()) == 0) {
+                // Only possible if the row was changed outside this service; the batch is kept and retried
+                throw new OrderAPIException(HttpStatus.CONFLICT, "Stock " + stockId
+                        + " is missing or its quantity is too low for hot stock delta " + delta);
+            }
+            hotStockFlushRepository.save(new HotStockFlush(batchId, stockId, delta, LocalDateTime.now()));
+            Stock stock = getStock(stockId);
+            publishChange(stock, stock.getQuantity() - quantityDelta, stock.getQuantity(), StockChange.Type.UPDATED);
+        });
+    }
+
+    private StockDto doUpdateStock(int stockId, StockDto stockDto) {
+        Stock existingStock = getStock(stockId);
+        if (stockDto.getVersion() != null && stockDto.getVersion() != existingStock.getVersion()) {
+            throw new OrderAPIException(HttpStatus.CONFLICT, "Stock " + stockId + " has been modified since version " + stockDto.getVersion());
+        }
+        int previousQuantity = existingStock.getQuantity();
+        existingStock.setQuantity(stockDto.getQuantity());
+        existingStock.setUpdatedAt(stockDto.getUpdatedAt());
+        // Flush inside the transaction so a concurrent version bump fails here and the update is retried
+        Stock updatedStock = stockRepository.saveAndFlush(existingStock);
+        publishChange(updatedStock, previousQuantity, updatedStock.getQuantity(), StockChange.Type.UPDATED);
+        return convertToDto(updatedStock);
     }
 
+    private void publishChange(Stock stock, int previousQuantity, int newQuantity, StockChange.Type type) {
+        StockChange change = new StockChange(stock.getId(), stock.getProduct().getId(), previousQuantity, newQuantity, type);
+        stockChangeListeners.forEach(listener -> listener.onStockChanged(change));
+    }
 
     private Stock getStock(int stockId) {
-        return stockRepository.findById(stockId)
-                .orElseThrow(() -> new ResourceNotFoundException("Stock", "id", stockId));
+        if (missingStockIds.isKnownMissing(stockId)) {
+            throw new ResourceNotFoundException("Stock", "id", stockId);
+        }
+        long generation = missingStockIds.generation(stockId);
+        return stockRepository.findById(stockId).orElseThrow(() -> {
+            missingStockIds.recordMissing(stockId, generation);
+            return new ResourceNotFoundException("Stock", "id", stockId);
+        });
     }
-    private List<StockDto> mapStocksToDto(List<Stock> stocks) {
-        return stocks.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+
+    private List<StockDto> withPendingDeltas(List<StockDto> stockDtos) {
+        stockDtos.forEach(this::addPendingDelta);
+        return stockDtos;
     }
 
     private StockDto convertToDto(Stock stock) {
-        return modelMapper.map(stock, StockDto.class);
+        return addPendingDelta(stockMapper.toDto(stock));
+    }
+
+    private StockDto addPendingDelta(StockDto stockDto) {
+        long pendingDelta = hotStockCounters.getPendingDelta(stockDto.getId());
+        if (pendingDelta != 0) {
+            // A hot stock is ahead of the table by the delta not flushed yet
+            stockDto.setQuantity(stockDto.getQuantity() + (int) pendingDelta);
+        }
+        return stockDto;
     }
 
     private Stock convertToEntity(StockDto stockDto) {
-        return modelMapper.map(stockDto, Stock.class);
+        return stockMapper.toEntity(stockDto);
     }
 }
@@ -0,0 +1,114 @@
+-- Schema of the application when migrations were introduced, run on an empty database.
+-- It is not the schema ddl-auto=update created before, so such databases are not baselined and must be recreated.
+-- Enum columns are plain varchars, so adding a constant to a Java enum needs no migration.
+
+create table customer (
+    id integer not null auto_increment,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    born_at date,
+    role varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table token (
+    id integer not null,
+    token varchar(255),
+    token_type varchar(255),
+    revoked bit not null,
+    expired bit not null,
+    user_id integer,
+    primary key (id)
+) engine=InnoDB;
+
+create table token_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into token_seq values (1);
+
+create table `order` (
+    id integer not null auto_increment,
+    customer_id integer not null,
+    order_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table product (
+    id integer not null auto_increment,
+    name varchar(255),
+    reference varchar(255),
+    slug varchar(255),
+    price float(53) not null,
+    vat float(53) not null,
+    stockable bit not null,
+    reorder_threshold integer,
+    primary key (id)
+) engine=InnoDB;
+
+create table product_order (
+    `order_id` integer not null,
+    product_id integer not null,
+    quantity integer not null,
+    price float(53) not null,
+    vat float(53) not null,
+    primary key (`order_id`, product_id)
+) engine=InnoDB;
+
+create table stock (
+    id integer not null auto_increment,
+    product_id integer not null,
+    quantity integer not null,
+    updated_at datetime(6),
+    version bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table product_stock_summary (
+    product_id integer not null,
+    total_quantity bigint not null,
+    updated_at datetime(6),
+    primary key (product_id)
+) engine=InnoDB;
+
+create table stock_movement (
+    id bigint not null auto_increment,
+    stock_id integer not null,
+    product_id integer not null,
+    delta integer not null,
+    quantity_after integer not null,
+    occurred_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stock_snapshot (
+    id bigint not null auto_increment,
+    product_id integer not null,
+    last_movement_id bigint not null,
+    total_quantity bigint not null,
+    taken_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table stock_hold (
+    id bigint not null auto_increment,
+    stock_id integer not null,
+    quantity integer not null,
+    created_at datetime(6),
+    expires_at datetime(6) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table customer add constraint uk_customer_email unique (email);
+alter table token add constraint uk_token_token unique (token);
+alter table token add constraint fk_token_customer foreign key (user_id) references customer (id);
+alter table `order` add constraint fk_order_customer foreign key (customer_id) references customer (id);
+alter table product_order add constraint fk_product_order_order foreign key (`order_id`) references `order` (id);
+alter table product_order add constraint fk_product_order_product foreign key (product_id) references product (id);
+alter table stock add constraint fk_stock_product foreign key (product_id) references product (id);
+
+create index idx_stock_movement_stock on stock_movement (stock_id, occurred_at);
+create index idx_stock_movement_product on stock_movement (product_id, id);
+create index idx_stock_snapshot_product on stock_snapshot (product_id, taken_at);
@@ -0,0 +1,14 @@
+-- Stock time range queries: per product, and across all products.
+-- The composite index also serves the product_id foreign key and the plain product_id lookups.
+create index idx_stock_product_updated_at on stock (product_id, updated_at);
+create index idx_stock_updated_at on stock (updated_at);
+
+-- The insert-only ledger is the table that grows with time. MySQL requires the partitioning column in every
+-- unique key of a partitioned table, so its primary key takes occurred_at; the table can then be
+-- partitioned by RANGE COLUMNS (occurred_at) without another migration. The stock table itself
+-- cannot be partitioned while it has a foreign key, which MySQL does not allow on partitioned tables.
+-- The auto increment is dropped while the key is replaced, as MySQL only allows it on a key column.
+alter table stock_movement modify id bigint not null;
+alter table stock_movement drop primary key;
+alter table stock_movement add primary key (id, occurred_at);
+alter table stock_movement modify id bigint not null auto_increment;
@@ -0,0 +1,4 @@
+-- Token IDs came from the token_seq table that Hibernate emulates sequences with on MySQL;
+-- they are now auto increment like the IDs of the other tables, which works the same on every database.
+alter table token modify id integer not null auto_increment;
+drop table token_seq;
@@ -0,0 +1,12 @@
+-- The summary also counts the stock rows of each product, so the aggregated view needs no query on the stock table.
+alter table product_stock_summary add column stock_count integer not null default 0;
+
+update product_stock_summary
+set stock_count = (select count(*) from stock where stock.product_id = product_stock_summary.product_id);
+
+-- Products whose stocks never changed quantity have no summary row yet
+insert into product_stock_summary (product_id, total_quantity, stock_count, updated_at)
+select product_id, sum(quantity), count(*), max(updated_at)
+from stock
+where product_id not in (select product_id from product_stock_summary)
+group by product_id;
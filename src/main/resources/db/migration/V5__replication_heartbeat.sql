@@ -0,0 +1,9 @@
+-- Heartbeat written on the primary and read on the replicas to measure the replication lag.
+-- beat_at is the epoch millisecond of the last beat; 0 until the first one.
+create table replication_heartbeat (
+    id integer not null,
+    beat_at bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+insert into replication_heartbeat (id, beat_at) values (1, 0);
@@ -0,0 +1,11 @@
+-- Batches of hot stock deltas written to the stock table, saved in the same transaction as the write so a
+-- batch replayed from the local journal after a crash is not applied twice. Rows older than the retention are pruned.
+create table hot_stock_flush (
+    batch_id varchar(36) not null,
+    stock_id integer not null,
+    delta bigint not null,
+    flushed_at datetime(6) not null,
+    primary key (batch_id)
+) engine=InnoDB;
+
+create index idx_hot_stock_flush_flushed_at on hot_stock_flush (flushed_at);
@@ -0,0 +1,30 @@
+package com.example.OrderManagement1;
+
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.repository.StockRepository;
+import com.example.OrderManagement1.token.Token;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The entities, Spring Data repositories and meter registry shared by the JPA slice tests and the benchmarks
+ * that start a context of their own. The beans under test are imported next to it.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+@EntityScan(basePackageClasses = {Stock.class, Token.class})
+@EnableJpaRepositories(basePackageClasses = StockRepository.class)
+public class JpaSliceConfig {
+
+	/**
+	 * An in-memory H2 database in MySQL mode, named at random so every context gets a database of its own.
+	 */
+	public static final String H2_URL = "jdbc:h2:mem:${random.uuid};MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Bean
+	SimpleMeterRegistry meterRegistry() {
+		return new SimpleMeterRegistry();
+	}
+}
@@ -0,0 +1,37 @@
+package com.example.OrderManagement1;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.annotation.AliasFor;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A {@link DataJpaTest} against an H2 database of its own whose schema is built by the Flyway migrations
+ * and validated against the entities. The test imports {@link JpaSliceConfig} and the beans under test
+ * from a nested configuration.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=" + JpaSliceConfig.H2_URL,
+		"spring.jpa.hibernate.ddl-auto=validate"
+})
+public @interface JpaSliceTest {
+
+	/**
+	 * Properties added to the environment of the test, as for {@link DataJpaTest#properties()}.
+	 */
+	@AliasFor(annotation = DataJpaTest.class, attribute = "properties")
+	String[] properties() default {};
+}
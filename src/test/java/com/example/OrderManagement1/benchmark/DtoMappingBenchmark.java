@@ -0,0 +1,99 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.mapper.OrderMapper;
+import com.example.OrderManagement1.mapper.ProductMapper;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.StockDto;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of mapping one entity to its DTO with the explicit mappers and with ModelMapper.
+ * Run the main method from the test classpath; the GC profiler reports the bytes allocated per mapping
+ * as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+	private final ModelMapper modelMapper = new ModelMapper();
+	private final StockMapper stockMapper = new StockMapper();
+	private final OrderMapper orderMapper = new OrderMapper();
+	private final ProductMapper productMapper = new ProductMapper();
+
+	private Stock stock;
+	private Order order;
+	private Product product;
+
+	@Setup
+	public void createEntities() {
+		product = new Product(3, "desk-lamp", "Desk lamp", "DL-1", 19.9, 20.0, true, 5, null, null);
+		stock = new Stock(5, product, 40, LocalDateTime.now(), 4);
+		Customer customer = new Customer();
+		customer.setId(7);
+		order = new Order(11, customer, LocalDateTime.now(), null);
+	}
+
+	@Benchmark
+	public StockDto stockWithMapper() {
+		return stockMapper.toDto(stock);
+	}
+
+	@Benchmark
+	public StockDto stockWithModelMapper() {
+		return modelMapper.map(stock, StockDto.class);
+	}
+
+	@Benchmark
+	public OrderDto orderWithMapper() {
+		return orderMapper.toDto(order);
+	}
+
+	@Benchmark
+	public OrderDto orderWithModelMapper() {
+		return modelMapper.map(order, OrderDto.class);
+	}
+
+	@Benchmark
+	public ProductDto productWithMapper() {
+		return productMapper.toDto(product);
+	}
+
+	@Benchmark
+	public ProductDto productWithModelMapper() {
+		return modelMapper.map(product, ProductDto.class);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DtoMappingBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares listing the stocks of one product by loading the Stock entities and mapping them
+ * with the StockMapper, as the services did, with the StockDto constructor-expression query they use now.
+ * Both run in a read-only transaction against an in-memory H2 database migrated by Flyway.
+ * Run the main method from the test classpath; the GC profiler reports the bytes allocated per listing
+ * as gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtoQueryBenchmark {
+
+	private static final int STOCKS_PER_PRODUCT = 500;
+
+	private ConfigurableApplicationContext context;
+	private TransactionTemplate readOnlyTransaction;
+	private EntityManager entityManager;
+	private StockRepository stockRepository;
+	private final StockMapper stockMapper = new StockMapper();
+	private int productId;
+
+	@Setup
+	public void startContext() {
+		context = new SpringApplicationBuilder(BenchmarkConfig.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=" + JpaSliceConfig.H2_URL,
+						"--spring.datasource.username=sa",
+						"--spring.datasource.password=",
+						"--spring.jpa.hibernate.ddl-auto=validate",
+						"--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"--spring.jpa.properties.hibernate.generate_statistics=false",
+						"--spring.jpa.show-sql=false",
+						"--spring.docker.compose.enabled=false",
+						"--logging.level.root=WARN");
+		stockRepository = context.getBean(StockRepository.class);
+		entityManager = context.getBean(EntityManager.class);
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+
+		ProductRepository productRepository = context.getBean(ProductRepository.class);
+		Product product = new Product();
+		product.setName("Benchmarked item");
+		product.setStockable(true);
+		product = productRepository.save(product);
+		productId = product.getId();
+		List<Stock> stocks = new ArrayList<>();
+		for (int i = 0; i < STOCKS_PER_PRODUCT; i++) {
+			stocks.add(new Stock(0, product, i, LocalDateTime.now(), 0));
+		}
+		stockRepository.saveAll(stocks);
+	}
+
+	@TearDown
+	public void closeContext() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<StockDto> entitiesMappedToDtos() {
+		return readOnlyTransaction.execute(status -> entityManager
+				.createQuery("select s from Stock s where s.product.id = :productId", Stock.class)
+				.setParameter("productId", productId)
+				.getResultList().stream()
+				.map(stockMapper::toDto)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<StockDto> constructorExpression() {
+		return readOnlyTransaction.execute(status -> stockRepository.findDtosByProductId(productId));
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(DtoQueryBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	@ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class,
+			HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+	@Import(JpaSliceConfig.class)
+	static class BenchmarkConfig {
+	}
+}
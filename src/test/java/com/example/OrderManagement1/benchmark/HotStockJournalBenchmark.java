@@ -0,0 +1,125 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.counter.HotStockCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the adjustments of a hot stock, each appended to the stock journal, at 1, 4 and 16 threads:
+ * the HotStockCounters, whose journal group commits the appends, and a journal that writes and flushes
+ * every line under one lock, as the stock journal did before. On a machine with as many cores as threads
+ * the throughput of the first should grow with the threads while the other stays near that of one thread.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HotStockJournalBenchmark {
+
+	private static final int STOCK_ID = 1;
+
+	private Path directory;
+	private HotStockCounters counters;
+	private SynchronizedJournal synchronizedJournal;
+
+	@Setup
+	public void promoteStock() throws IOException {
+		directory = Files.createTempDirectory("hot-stock-benchmark");
+		counters = new HotStockCounters(true, 16, 50, 60_000, directory.resolve("hot-sku-stock.journal").toString());
+		counters.promote(STOCK_ID, () -> 0);
+		synchronizedJournal = new SynchronizedJournal(directory.resolve("synchronized.journal"));
+	}
+
+	@TearDown(Level.Iteration)
+	public void flush() throws IOException {
+		// Keeps the journal from growing across iterations
+		counters.flush((batchId, stockId, delta) -> {
+		});
+		synchronizedJournal.truncate();
+	}
+
+	@TearDown
+	public void close() throws IOException {
+		counters.close();
+		synchronizedJournal.close();
+		try (var files = Files.list(directory)) {
+			for (Path file : files.toList()) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	@Benchmark
+	public HotStockCounters.Outcome groupCommitted() {
+		return counters.adjust(STOCK_ID, 1);
+	}
+
+	@Benchmark
+	public void synchronizedAppend() throws IOException {
+		synchronizedJournal.append("D " + STOCK_ID + " 1");
+	}
+
+	public static void main(String[] args) throws Exception {
+		for (int threads : new int[]{1, 4, 16}) {
+			new Runner(new OptionsBuilder()
+					.include(HotStockJournalBenchmark.class.getSimpleName())
+					.threads(threads)
+					.build()).run();
+		}
+	}
+
+	/**
+	 * The stock journal as it was before it group committed its appends.
+	 */
+	static class SynchronizedJournal {
+
+		private final Path path;
+		private BufferedWriter writer;
+
+		SynchronizedJournal(Path path) throws IOException {
+			this.path = path;
+			truncate();
+		}
+
+		synchronized void append(String line) throws IOException {
+			writer.write(line + "\n");
+			writer.flush();
+		}
+
+		synchronized void truncate() throws IOException {
+			close();
+			writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path.toFile()), StandardCharsets.UTF_8));
+		}
+
+		synchronized void close() throws IOException {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+}
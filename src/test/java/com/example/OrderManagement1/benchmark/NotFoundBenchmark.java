@@ -0,0 +1,106 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.exception.ErrorResponse;
+import com.example.OrderManagement1.exception.GlobalExceptionHandler;
+import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the cost of answering a lookup of a missing ID, thrown STACK_DEPTH frames deep as under the
+ * servlet, security and proxy frames of a request: the former exception, which formatted its message and
+ * filled in its stack trace when created, the stackless ResourceNotFoundException rendered by the
+ * GlobalExceptionHandler, and a hit of the NegativeLookupCache, which answers before the lookup.
+ * Run the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotFoundBenchmark {
+
+	@Param({"20", "120"})
+	public int stackDepth;
+
+	private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+	private NegativeLookupCache<Integer> missingIds;
+	private int id;
+
+	@Setup
+	public void recordMissingId() {
+		missingIds = new NegativeLookupCache<>("benchmark", 10_000, Duration.ofHours(1), new SimpleMeterRegistry());
+		missingIds.recordMissing(42, missingIds.generation(42));
+	}
+
+	@Benchmark
+	public String formattedWithStackTrace() {
+		try {
+			return lookup(stackDepth, () -> {
+				throw new FormattedNotFoundException("Product", "id", nextId());
+			});
+		} catch (FormattedNotFoundException e) {
+			return e.getMessage();
+		}
+	}
+
+	@Benchmark
+	public ResponseEntity<ErrorResponse> stacklessRendered() {
+		try {
+			lookup(stackDepth, () -> {
+				throw new ResourceNotFoundException("Product", "id", nextId());
+			});
+			return null;
+		} catch (ResourceNotFoundException e) {
+			return handler.handleResourceNotFoundException(e);
+		}
+	}
+
+	@Benchmark
+	public boolean negativeCacheHit() {
+		return lookup(stackDepth, () -> missingIds.isKnownMissing(42));
+	}
+
+	public static void main(String[] args) throws Exception {
+		new Runner(new OptionsBuilder()
+				.include(NotFoundBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	private int nextId() {
+		return id++;
+	}
+
+	private static <T> T lookup(int depth, Supplier<T> lookup) {
+		return depth == 0 ? lookup.get() : lookup(depth - 1, lookup);
+	}
+
+	/**
+	 * The ResourceNotFoundException as it was before it became stackless.
+	 */
+	static class FormattedNotFoundException extends RuntimeException {
+
+		FormattedNotFoundException(String resourceName, String fieldName, Object fieldValue) {
+			super(String.format("%s not found with %s: %s", resourceName, fieldName, fieldValue));
+		}
+	}
+}
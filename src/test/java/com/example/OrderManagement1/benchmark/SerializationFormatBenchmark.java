@@ -0,0 +1,128 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares JSON, Smile and CBOR for a page of LIST_SIZE OrderDto, ProductDto or StockDto objects, as the
+ * controllers return them: the throughput of encoding and of decoding the page, with mappers built like the
+ * ones of the HTTP message converters. Run the main method from the test classpath; it first prints the size
+ * of each encoded page, raw and gzipped, then runs the benchmarks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationFormatBenchmark {
+
+	private static final int LIST_SIZE = 100;
+
+	@Param({"json", "smile", "cbor"})
+	public String format;
+
+	@Param({"orders", "products", "stocks"})
+	public String payload;
+
+	private ObjectMapper mapper;
+	private JavaType listType;
+	private List<?> page;
+	private byte[] encodedPage;
+
+	@Setup
+	public void encodePage() throws IOException {
+		mapper = mapper(format);
+		page = page(payload);
+		listType = mapper.getTypeFactory().constructCollectionType(List.class, page.get(0).getClass());
+		encodedPage = mapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] encode() throws IOException {
+		return mapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public List<?> decode() throws IOException {
+		return mapper.readValue(encodedPage, listType);
+	}
+
+	public static void main(String[] args) throws Exception {
+		System.out.printf("%-9s %-6s %8s %8s%n", "payload", "format", "bytes", "gzipped");
+		for (String payload : new String[]{"orders", "products", "stocks"}) {
+			for (String format : new String[]{"json", "smile", "cbor"}) {
+				byte[] encoded = mapper(format).writeValueAsBytes(page(payload));
+				System.out.printf("%-9s %-6s %8d %8d%n", payload, format, encoded.length, gzip(encoded).length);
+			}
+		}
+		new Runner(new OptionsBuilder()
+				.include(SerializationFormatBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	private static ObjectMapper mapper(String format) {
+		JsonFactory factory = switch (format) {
+			case "smile" -> new SmileFactory();
+			case "cbor" -> new CBORFactory();
+			default -> new JsonFactory();
+		};
+		return new Jackson2ObjectMapperBuilder().factory(factory).build();
+	}
+
+	private static List<?> page(String payload) {
+		LocalDateTime at = LocalDateTime.of(2023, 7, 1, 12, 0);
+		List<Object> page = new ArrayList<>();
+		for (int i = 1; i <= LIST_SIZE; i++) {
+			page.add(switch (payload) {
+				case "orders" -> new OrderDto(i, i % 17, at.plusMinutes(i));
+				case "products" -> product(i);
+				default -> new StockDto(i, i % 17, i * 13, at.plusMinutes(i), (long) i % 5);
+			});
+		}
+		return page;
+	}
+
+	private static ProductDto product(int id) {
+		ProductDto product = new ProductDto(id, "product-" + id, "Product " + id, "REF-" + (10_000 + id),
+				9.99 + id, 20.0, id % 2 == 0, id % 3 == 0 ? null : 10);
+		product.setAvailableQuantity((long) id * 7);
+		return product;
+	}
+
+	private static byte[] gzip(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		return out.toByteArray();
+	}
+}
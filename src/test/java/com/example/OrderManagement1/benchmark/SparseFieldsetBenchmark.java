@@ -0,0 +1,187 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldset;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares listing PRODUCTS products in full, through the ProductDto constructor-expression query, with listing
+ * only their id and name through the SparseFieldsetRepository, each encoded to JSON as the controllers return it.
+ * Both run in a read-only transaction against an in-memory H2 database migrated by Flyway.
+ * Run the main method from the test classpath; it first prints, for each listing, the bytes of the JSON body and
+ * of the rows read from the database, then runs the benchmarks with the GC profiler. The row bytes are the length
+ * of every selected value in text form, as the MySQL text protocol sends it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseFieldsetBenchmark {
+
+	private static final int PRODUCTS = 1_000;
+	private static final Set<String> SPARSE_FIELDS = Set.of("id", "name");
+
+	private final SparseFieldset productFields = SparseFieldset.of("Product", Product.class)
+			.column("id")
+			.column("slug")
+			.column("name")
+			.column("reference")
+			.column("price")
+			.column("vat")
+			.column("stockable")
+			.column("reorderThreshold");
+	private final ObjectMapper mapper = new Jackson2ObjectMapperBuilder().build();
+
+	private ConfigurableApplicationContext context;
+	private TransactionTemplate readOnlyTransaction;
+	private ProductRepository productRepository;
+	private SparseFieldsetRepository sparseFieldsetRepository;
+
+	@Setup
+	public void startContext() {
+		context = new SpringApplicationBuilder(BenchmarkConfig.class)
+				.web(WebApplicationType.NONE)
+				.run("--spring.datasource.url=" + JpaSliceConfig.H2_URL,
+						"--spring.datasource.username=sa",
+						"--spring.datasource.password=",
+						"--spring.jpa.hibernate.ddl-auto=validate",
+						"--spring.jpa.properties.hibernate.session_factory.statement_inspector=" + LastSelect.class.getName(),
+						"--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"--spring.jpa.properties.hibernate.generate_statistics=false",
+						"--spring.jpa.show-sql=false",
+						"--spring.docker.compose.enabled=false",
+						"--logging.level.root=WARN");
+		productRepository = context.getBean(ProductRepository.class);
+		sparseFieldsetRepository = context.getBean(SparseFieldsetRepository.class);
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+
+		List<Product> products = new ArrayList<>();
+		for (int i = 0; i < PRODUCTS; i++) {
+			Product product = new Product();
+			product.setSlug("benchmarked-item-" + i);
+			product.setName("Benchmarked item " + i);
+			product.setReference("BENCH-" + i);
+			product.setPrice(10 + i);
+			product.setVat(20);
+			product.setStockable(true);
+			product.setReorderThreshold(5);
+			products.add(product);
+		}
+		productRepository.saveAll(products);
+	}
+
+	@TearDown
+	public void closeContext() {
+		context.close();
+	}
+
+	@Benchmark
+	public byte[] fullListing() throws IOException {
+		return mapper.writeValueAsBytes(readOnlyTransaction.execute(status -> productRepository.findAllDtos()));
+	}
+
+	@Benchmark
+	public byte[] sparseListing() throws IOException {
+		return mapper.writeValueAsBytes(readOnlyTransaction.execute(status ->
+				sparseFieldsetRepository.findAll(productFields, SPARSE_FIELDS)));
+	}
+
+	public static void main(String[] args) throws Exception {
+		SparseFieldsetBenchmark benchmark = new SparseFieldsetBenchmark();
+		benchmark.startContext();
+		try {
+			JdbcTemplate jdbcTemplate = new JdbcTemplate(benchmark.context.getBean(DataSource.class));
+			System.out.printf("%-8s %10s %10s%n", "listing", "json", "rows");
+			int fullJson = benchmark.fullListing().length;
+			System.out.printf("%-8s %10d %10d%n", "full", fullJson, rowBytes(jdbcTemplate, LastSelect.sql));
+			int sparseJson = benchmark.sparseListing().length;
+			System.out.printf("%-8s %10d %10d%n", "sparse", sparseJson, rowBytes(jdbcTemplate, LastSelect.sql));
+		} finally {
+			benchmark.closeContext();
+		}
+		new Runner(new OptionsBuilder()
+				.include(SparseFieldsetBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build()).run();
+	}
+
+	private static long rowBytes(JdbcTemplate jdbcTemplate, String sql) {
+		AtomicLong bytes = new AtomicLong();
+		jdbcTemplate.query(sql, (ResultSet row) -> {
+			for (int column = 1; column <= row.getMetaData().getColumnCount(); column++) {
+				Object value = row.getObject(column);
+				bytes.addAndGet(value == null ? 0 : value.toString().getBytes(StandardCharsets.UTF_8).length);
+			}
+		});
+		return bytes.get();
+	}
+
+	/**
+	 * Keeps the SQL of the last select Hibernate ran, so the row bytes are measured for exactly what a listing sends.
+	 */
+	public static class LastSelect implements StatementInspector {
+
+		static volatile String sql;
+
+		@Override
+		public String inspect(String sql) {
+			if (sql.startsWith("select")) {
+				LastSelect.sql = sql;
+			}
+			return sql;
+		}
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	@ImportAutoConfiguration({DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class,
+			HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+	@Import({JpaSliceConfig.class, SparseFieldsetRepository.class})
+	static class BenchmarkConfig {
+	}
+}
@@ -0,0 +1,207 @@
+package com.example.OrderManagement1.benchmark;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.config.VirtualThreadConfig;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.repository.ProductRepository;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.embedded.EmbeddedWebServerFactoryCustomizerAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test of a product lookup endpoint, backed by the ProductRepository, with Tomcat's platform threads
+ * and with virtual threads. Every query waits DB_LATENCY_MS on its connection, as if the database were slow,
+ * and CLIENTS concurrent clients call the endpoint in a loop. Tomcat has TOMCAT_THREADS threads and the
+ * connection pool POOL_SIZE connections, so the platform threads are the bound in the first mode and the
+ * pool in the second. The sizes are small enough for the latency, not the CPU, to set the throughput.
+ * Run the main method on Java 21 from the test classpath; it prints the throughput and the latency
+ * percentiles of each mode.
+ */
+public class VirtualThreadLoadBenchmark {
+
+	private static final int DB_LATENCY_MS = 500;
+	private static final int TOMCAT_THREADS = 50;
+	private static final int POOL_SIZE = 100;
+	private static final int CLIENTS = 150;
+	private static final int WARMUP_SECONDS = 5;
+	private static final int MEASUREMENT_SECONDS = 15;
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		for (boolean virtualThreads : new boolean[]{false, true}) {
+			run(virtualThreads);
+		}
+	}
+
+	private static void run(boolean virtualThreads) throws Exception {
+		try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(BenchmarkConfig.class)
+				.run("--server.port=0",
+						"--server.tomcat.threads.max=" + TOMCAT_THREADS,
+						"--application.threads.virtual.enabled=" + virtualThreads,
+						"--spring.datasource.url=" + JpaSliceConfig.H2_URL,
+						"--spring.datasource.username=sa",
+						"--spring.datasource.password=",
+						"--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+						"--spring.jpa.hibernate.ddl-auto=validate",
+						"--spring.jpa.open-in-view=false",
+						"--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+						"--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+						"--spring.jpa.properties.hibernate.generate_statistics=false",
+						"--spring.docker.compose.enabled=false",
+						"--logging.level.root=WARN")) {
+			Product product = new Product();
+			product.setName("Viral item");
+			int productId = context.getBean(ProductRepository.class).save(product).getId();
+			URI uri = URI.create("http://localhost:" + context.getWebServer().getPort() + "/products/" + productId);
+
+			callConcurrently(uri, WARMUP_SECONDS);
+			List<Long> latencies = callConcurrently(uri, MEASUREMENT_SECONDS);
+
+			latencies.sort(null);
+			System.out.printf("%-16s %7.0f req/s   p50 %4d ms   p99 %4d ms   max %5d ms%n",
+					virtualThreads ? "virtual threads" : "platform threads",
+					(double) latencies.size() / MEASUREMENT_SECONDS,
+					percentile(latencies, 0.50), percentile(latencies, 0.99), latencies.get(latencies.size() - 1));
+		}
+	}
+
+	private static List<Long> callConcurrently(URI uri, int seconds) throws Exception {
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest request = HttpRequest.newBuilder(uri).build();
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+		List<Future<List<Long>>> results = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			results.add(clients.submit(() -> {
+				List<Long> latencies = new ArrayList<>();
+				while (System.nanoTime() < end) {
+					long start = System.nanoTime();
+					HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+					if (response.statusCode() != 200) {
+						throw new IllegalStateException("Unexpected status " + response.statusCode());
+					}
+					latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				}
+				return latencies;
+			}));
+		}
+		List<Long> latencies = new ArrayList<>();
+		for (Future<List<Long>> result : results) {
+			latencies.addAll(result.get());
+		}
+		clients.shutdown();
+		return latencies;
+	}
+
+	private static long percentile(List<Long> sortedLatencies, double percentile) {
+		return sortedLatencies.get((int) Math.ceil(percentile * sortedLatencies.size()) - 1);
+	}
+
+	@TestComponent
+	@RestController
+	static class ProductLookupController {
+
+		private final ProductRepository productRepository;
+
+		ProductLookupController(ProductRepository productRepository) {
+			this.productRepository = productRepository;
+		}
+
+		@GetMapping("/products/{id}")
+		public String getProductName(@PathVariable int id) {
+			return productRepository.findById(id).map(Product::getName).orElseThrow();
+		}
+	}
+
+	/**
+	 * Delays every query by DB_LATENCY_MS while it holds its connection.
+	 */
+	static class SlowDatabase implements BeanPostProcessor {
+
+		@Override
+		public Object postProcessAfterInitialization(Object bean, String beanName) {
+			if (!(bean instanceof DataSource dataSource) || bean instanceof DelegatingDataSource) {
+				return bean;
+			}
+			return new DelegatingDataSource(dataSource) {
+				@Override
+				public Connection getConnection() throws java.sql.SQLException {
+					Connection connection = super.getConnection();
+					return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+							(proxy, method, methodArgs) -> {
+								Object result = invoke(connection, method, methodArgs);
+								return result instanceof PreparedStatement statement ? slow(statement) : result;
+							});
+				}
+			};
+		}
+
+		private static PreparedStatement slow(PreparedStatement statement) {
+			return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+					(proxy, method, methodArgs) -> {
+						if (method.getName().equals("executeQuery")) {
+							Thread.sleep(DB_LATENCY_MS);
+						}
+						return invoke(statement, method, methodArgs);
+					});
+		}
+
+		private static Object invoke(Object target, java.lang.reflect.Method method, Object[] methodArgs) throws Throwable {
+			try {
+				return method.invoke(target, methodArgs);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+
+	@TestConfiguration(proxyBeanMethods = false)
+	@ImportAutoConfiguration({ServletWebServerFactoryAutoConfiguration.class, EmbeddedWebServerFactoryCustomizerAutoConfiguration.class,
+			DispatcherServletAutoConfiguration.class,
+			WebMvcAutoConfiguration.class, HttpMessageConvertersAutoConfiguration.class, JacksonAutoConfiguration.class,
+			DataSourceAutoConfiguration.class, FlywayAutoConfiguration.class, HibernateJpaAutoConfiguration.class,
+			TransactionAutoConfiguration.class})
+	@Import({JpaSliceConfig.class, VirtualThreadConfig.class, ProductLookupController.class})
+	static class BenchmarkConfig {
+
+		@Bean
+		static SlowDatabase slowDatabase() {
+			return new SlowDatabase();
+		}
+	}
+}
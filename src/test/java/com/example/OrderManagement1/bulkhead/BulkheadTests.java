@@ -0,0 +1,123 @@
+package com.example.OrderManagement1.bulkhead;
+
+import com.example.OrderManagement1.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+	@Test
+	void callsBeyondTheThreadsAndQueueAreRejected() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("reports", 1, 1, Duration.ofMinutes(1), transactionManager, meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> running = bulkhead.supply(() -> await(release));
+		CompletableFuture<String> queued = bulkhead.supply(() -> "queued");
+
+		CompletableFuture<String> rejected = bulkhead.supply(() -> "rejected");
+
+		assertThat(rejected).isCompletedExceptionally();
+		assertThatThrownBy(rejected::get).cause()
+				.isInstanceOf(ServiceUnavailableException.class)
+				.satisfies(e -> assertThat(((ServiceUnavailableException) e).getHeaders().getFirst("Retry-After")).isEqualTo("60"));
+		release.countDown();
+		assertThat(running.get()).isEqualTo("released");
+		assertThat(queued.get()).isEqualTo("queued");
+		assertThat(meterRegistry.get("bulkhead.calls").tag("result", "rejected").counter().count()).isEqualTo(1);
+		assertThat(transactionManager.definitions).hasSize(2)
+				.allSatisfy(definition -> assertThat(definition.isReadOnly()).isTrue());
+		bulkhead.shutdown();
+	}
+
+	@Test
+	void callsPastTheDeadlineFailAndQueuedOnesDoNotRun() throws Exception {
+		Bulkhead bulkhead = new Bulkhead("reports", 1, 1, Duration.ofMillis(200), transactionManager, meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> slow = bulkhead.supply(() -> await(release));
+		CompletableFuture<String> queued = bulkhead.supply(() -> "queued");
+
+		assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.cause().isInstanceOf(ServiceUnavailableException.class);
+		assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+				.cause().isInstanceOf(ServiceUnavailableException.class);
+		release.countDown();
+
+		assertThat(meterRegistry.get("bulkhead.calls").tag("result", "timeout").counter().count()).isEqualTo(2);
+		// The queued call was dropped at its deadline without starting a transaction
+		assertThat(transactionManager.definitions).singleElement()
+				.satisfies(definition -> assertThat(definition.getTimeout()).isEqualTo(1));
+		bulkhead.shutdown();
+	}
+
+	@Test
+	void theDeadlineCancelsTheRunningStatement() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		Bulkhead bulkhead = new Bulkhead("reports", 1, 0, Duration.ofMillis(500),
+				new DataSourceTransactionManager(dataSource), meterRegistry);
+
+		long start = System.nanoTime();
+		CompletableFuture<Long> report = bulkhead.supply(() ->
+				jdbcTemplate.queryForObject("select sum(x) from system_range(1, 100000000000)", Long.class));
+
+		assertThatThrownBy(report::get).cause().isInstanceOf(ServiceUnavailableException.class);
+		// The thread is free again once the database has cancelled the query, instead of after the whole range
+		while (meterRegistry.get("bulkhead.active").gauge().value() > 0) {
+			assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(10));
+			Thread.onSpinWait();
+		}
+		bulkhead.shutdown();
+	}
+
+	private static String await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+		return "released";
+	}
+
+	static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+		final List<TransactionDefinition> definitions = new CopyOnWriteArrayList<>();
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			definitions.add(definition);
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+	}
+}
@@ -0,0 +1,130 @@
+package com.example.OrderManagement1.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NegativeLookupCacheTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void missesAreRememberedUntilTheTtl() throws Exception {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMillis(100), meterRegistry);
+
+		assertThat(cache.isKnownMissing(7)).isFalse();
+		cache.recordMissing(7, cache.generation(7));
+		assertThat(cache.isKnownMissing(7)).isTrue();
+		assertThat(cache.isKnownMissing(8)).isFalse();
+
+		Thread.sleep(150);
+		assertThat(cache.isKnownMissing(7)).isFalse();
+		assertThat(meterRegistry.get("negative.lookup.cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("negative.lookup.cache.size").gauge().value()).isZero();
+	}
+
+	@Test
+	void theCacheIsBounded() {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 100, Duration.ofMinutes(1), meterRegistry);
+
+		for (int id = 0; id < 1000; id++) {
+			cache.recordMissing(id, cache.generation(id));
+		}
+
+		assertThat(meterRegistry.get("negative.lookup.cache.size").gauge().value()).isLessThanOrEqualTo(100);
+		assertThat(cache.isKnownMissing(999)).isTrue();
+	}
+
+	@Test
+	void createdKeysAreInvalidatedAgainAfterTheCommit() {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+		cache.recordMissing(7, cache.generation(7));
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.invalidate(7);
+			assertThat(cache.isKnownMissing(7)).isFalse();
+			// A concurrent lookup does not see the uncommitted entity yet
+			cache.recordMissing(7, cache.generation(7));
+			assertThat(cache.isKnownMissing(7)).isFalse();
+			commit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(cache.isKnownMissing(7)).isFalse();
+	}
+
+	@Test
+	void aMissReadBeforeTheCommitIsNotRecordedAfterIt() {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+		long generation = cache.generation(7);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.invalidate(7);
+			commit();
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		cache.recordMissing(7, generation);
+
+		assertThat(cache.isKnownMissing(7)).isFalse();
+		cache.recordMissing(8, cache.generation(8));
+		assertThat(cache.isKnownMissing(8)).isTrue();
+	}
+
+	@Test
+	void anInvalidationOnlyDiscardsTheConcurrentMissesOfItsStripe() {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMinutes(1), meterRegistry);
+		long generation = cache.generation(7);
+
+		cache.invalidate(8);
+		cache.recordMissing(7, generation);
+
+		assertThat(cache.isKnownMissing(7)).isTrue();
+	}
+
+	@Test
+	void aCreatedKeyIsNotRecordedWithinTheReadLagOfTheCommit() throws Exception {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMinutes(1),
+				Duration.ofMillis(100), meterRegistry);
+
+		cache.invalidate(7);
+		// A lookup served by a replica that has not replicated the commit yet
+		cache.recordMissing(7, cache.generation(7));
+		assertThat(cache.isKnownMissing(7)).isFalse();
+
+		Thread.sleep(150);
+		cache.recordMissing(7, cache.generation(7));
+		assertThat(cache.isKnownMissing(7)).isTrue();
+	}
+
+	@Test
+	void aRolledBackCreationDoesNotHoldTheKey() {
+		NegativeLookupCache<Integer> cache = new NegativeLookupCache<>("test", 10, Duration.ofMinutes(1),
+				Duration.ofMinutes(1), meterRegistry);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			cache.invalidate(7);
+			TransactionSynchronizationManager.getSynchronizations()
+					.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		cache.recordMissing(7, cache.generation(7));
+
+		assertThat(cache.isKnownMissing(7)).isTrue();
+	}
+
+	private static void commit() {
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+	}
+}
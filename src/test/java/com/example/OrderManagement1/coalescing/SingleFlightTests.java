@@ -0,0 +1,162 @@
+package com.example.OrderManagement1.coalescing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void concurrentIdenticalCallsShareOneLoad() throws Exception {
+		SingleFlight<Integer, StringBuilder> singleFlight = new SingleFlight<>("test", Function.identity(), Duration.ofMinutes(1), meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		Function<Integer, StringBuilder> loader = id -> {
+			loads.incrementAndGet();
+			await(release);
+			return new StringBuilder("product " + id);
+		};
+
+		List<AtomicReference<StringBuilder>> results = new ArrayList<>();
+		List<Thread> callers = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			AtomicReference<StringBuilder> result = new AtomicReference<>();
+			results.add(result);
+			Thread caller = new Thread(() -> result.set(singleFlight.load(7, loader)));
+			callers.add(caller);
+			caller.start();
+			if (i == 0) {
+				awaitState(caller, Thread.State.WAITING);
+			}
+		}
+		callers.subList(1, callers.size()).forEach(caller -> awaitState(caller, Thread.State.TIMED_WAITING));
+		release.countDown();
+		for (Thread caller : callers) {
+			caller.join();
+		}
+
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(results).allSatisfy(result -> assertThat(result.get()).isSameAs(results.get(0).get()));
+		assertThat(meterRegistry.get("singleflight.calls").tag("result", "shared").counter().count()).isEqualTo(8);
+		assertThat(meterRegistry.get("singleflight.coalescing.ratio").gauge().value()).isEqualTo(8.0 / 9);
+
+		// Nothing is cached: the next call loads again
+		singleFlight.load(7, loader);
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	@Test
+	void aCopierGivesEveryCallerItsOwnResult() throws Exception {
+		SingleFlight<Integer, StringBuilder> singleFlight = new SingleFlight<>("test", Function.identity(),
+				StringBuilder::new, Duration.ofMinutes(1), meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger loads = new AtomicInteger();
+		Function<Integer, StringBuilder> loader = id -> {
+			loads.incrementAndGet();
+			await(release);
+			return new StringBuilder("product " + id);
+		};
+
+		AtomicReference<StringBuilder> leaderResult = new AtomicReference<>();
+		AtomicReference<StringBuilder> waiterResult = new AtomicReference<>();
+		Thread leader = new Thread(() -> leaderResult.set(singleFlight.load(7, loader).append(" changed by the leader")));
+		leader.start();
+		awaitState(leader, Thread.State.WAITING);
+		Thread waiter = new Thread(() -> waiterResult.set(singleFlight.load(7, loader)));
+		waiter.start();
+		awaitState(waiter, Thread.State.TIMED_WAITING);
+		release.countDown();
+		leader.join();
+		waiter.join();
+
+		assertThat(loads.get()).isEqualTo(1);
+		assertThat(leaderResult.get()).hasToString("product 7 changed by the leader");
+		assertThat(waiterResult.get()).hasToString("product 7");
+	}
+
+	@Test
+	void waitingCallsReceiveTheExceptionOfTheLoad() throws Exception {
+		SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Function.identity(), Duration.ofMinutes(1), meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		IllegalArgumentException failure = new IllegalArgumentException("No product 7");
+		Function<Integer, String> loader = id -> {
+			await(release);
+			throw failure;
+		};
+
+		AtomicReference<Throwable> leaderFailure = new AtomicReference<>();
+		Thread leader = new Thread(() -> {
+			try {
+				singleFlight.load(7, loader);
+			} catch (RuntimeException e) {
+				leaderFailure.set(e);
+			}
+		});
+		leader.start();
+		awaitState(leader, Thread.State.WAITING);
+		AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+		Thread follower = new Thread(() -> {
+			try {
+				singleFlight.load(7, loader);
+			} catch (RuntimeException e) {
+				followerFailure.set(e);
+			}
+		});
+		follower.start();
+		awaitState(follower, Thread.State.TIMED_WAITING);
+		release.countDown();
+		leader.join();
+		follower.join();
+
+		assertThat(leaderFailure.get()).isSameAs(failure);
+		assertThat(followerFailure.get()).isSameAs(failure);
+	}
+
+	@Test
+	void callsLoadThemselvesAfterTheTimeout() throws Exception {
+		SingleFlight<Integer, String> singleFlight = new SingleFlight<>("test", Function.identity(), Duration.ofMillis(50), meterRegistry);
+		CountDownLatch release = new CountDownLatch(1);
+		Thread leader = new Thread(() -> singleFlight.load(7, id -> {
+			await(release);
+			return "slow";
+		}));
+		leader.start();
+		awaitState(leader, Thread.State.WAITING);
+
+		String result = singleFlight.load(7, id -> "fast");
+		release.countDown();
+		leader.join();
+
+		assertThat(result).isEqualTo("fast");
+		assertThat(meterRegistry.get("singleflight.calls").tag("result", "timeout").counter().count()).isEqualTo(1);
+		assertThatThrownBy(() -> singleFlight.load(8, id -> {
+			throw new IllegalStateException("Database down");
+		})).hasMessage("Database down");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static void awaitState(Thread thread, Thread.State state) {
+		while (thread.getState() != state) {
+			Thread.onSpinWait();
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.OrderManagement1.config;
+
+import com.example.OrderManagement1.payload.OrderDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Posts orders to a controller in a web slice with the message converters Spring Boot builds from the
+ * BinaryContentConfig beans, and checks which encoding the Accept header selects.
+ */
+@WebMvcTest
+// The security filters are not what is under test
+@AutoConfigureMockMvc(addFilters = false)
+class BinaryContentConfigTests {
+
+	private static final String SMILE = "application/x-jackson-smile";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	private final OrderDto order = new OrderDto(7, 3, LocalDateTime.of(2023, 7, 1, 12, 30));
+
+	@Test
+	void acceptHeaderSelectsTheEncoding() throws Exception {
+		ObjectMapper cbor = new Jackson2ObjectMapperBuilder().factory(new CBORFactory()).build();
+		MvcResult result = mockMvc.perform(post("/echo")
+						.contentType(MediaType.APPLICATION_CBOR)
+						.accept(MediaType.APPLICATION_CBOR)
+						.content(cbor.writeValueAsBytes(order)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn();
+
+		byte[] body = result.getResponse().getContentAsByteArray();
+		assertThat(cbor.readValue(body, OrderDto.class)).isEqualTo(order);
+		assertThat(body.length).isLessThan(new Jackson2ObjectMapperBuilder().build().writeValueAsBytes(order).length);
+
+		mockMvc.perform(post("/echo")
+						.contentType(MediaType.APPLICATION_CBOR)
+						.accept(SMILE)
+						.content(cbor.writeValueAsBytes(order)))
+				.andExpect(content().contentType(SMILE));
+	}
+
+	@Test
+	void jsonStaysTheDefault() throws Exception {
+		mockMvc.perform(post("/echo")
+						.contentType(MediaType.APPLICATION_JSON)
+						.accept(MediaType.ALL)
+						.content(new Jackson2ObjectMapperBuilder().build().writeValueAsBytes(order)))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+
+	@Configuration
+	@Import({BinaryContentConfig.class, EchoController.class})
+	static class TestConfig {
+	}
+
+	@RestController
+	static class EchoController {
+
+		@PostMapping("/echo")
+		public OrderDto echo(@RequestBody OrderDto order) {
+			return order;
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.example.OrderManagement1.counter;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotStockCountersTests {
+
+	@TempDir
+	Path journalDirectory;
+
+	@Test
+	void promotesOnContentionAndNeverReservesPastTheCeiling() throws Exception {
+		HotStockCounters counters = newCounters(2);
+		assertThat(counters.enterDatabasePath(7)).isTrue();
+		assertThat(counters.enterDatabasePath(7)).isTrue();
+		assertThat(counters.enterDatabasePath(7)).isTrue();
+		IntStream.range(0, 3).forEach(i -> counters.exitDatabasePath(7));
+		assertThat(counters.shouldPromote(7)).isTrue();
+		counters.promote(7, () -> 1_000);
+
+		AtomicInteger applied = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = IntStream.range(0, 64).<Future<?>>mapToObj(i -> executor.submit(() -> {
+			start.await();
+			for (int j = 0; j < 50; j++) {
+				if (counters.adjust(7, -1) == HotStockCounters.Outcome.APPLIED) {
+					applied.incrementAndGet();
+				} else {
+					rejected.incrementAndGet();
+				}
+			}
+			return null;
+		})).toList();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(1, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		assertThat(applied.get()).isEqualTo(1_000);
+		assertThat(rejected.get()).isEqualTo(64 * 50 - 1_000);
+		Map<Integer, Long> written = new HashMap<>();
+		counters.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).containsExactly(Map.entry(7, -1_000L));
+		assertThat(counters.getPendingDelta(7)).isZero();
+		counters.close();
+	}
+
+	@Test
+	void recoversUnflushedDeltasFromTheJournal() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(3, () -> 10);
+		counters.adjust(3, -4);
+		counters.adjust(3, 2);
+		counters.flush((batchId, stockId, delta) -> {
+			throw new IllegalStateException("database down");
+		});
+		counters.adjust(3, -1);
+		counters.close();
+
+		HotStockCounters restarted = newCounters(50);
+		Map<Integer, Long> written = new HashMap<>();
+		restarted.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).containsExactly(Map.entry(3, -3L));
+
+		written.clear();
+		restarted.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).isEmpty();
+		restarted.close();
+	}
+
+	@Test
+	void acceptedDeltasSurviveACrashWithoutClose() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(5, () -> 10);
+		counters.adjust(5, -2);
+		counters.adjust(5, -1);
+
+		HotStockCounters restarted = newCounters(50);
+		Map<Integer, Long> written = new HashMap<>();
+		restarted.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).containsExactly(Map.entry(5, -3L));
+		restarted.close();
+		counters.close();
+	}
+
+	@Test
+	void concurrentlyAcceptedDeltasSurviveACrashWithoutClose() throws Exception {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(6, () -> 1_000_000);
+		ExecutorService executor = Executors.newFixedThreadPool(16);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = IntStream.range(0, 16).<Future<?>>mapToObj(i -> executor.submit(() -> {
+			start.await();
+			for (int j = 0; j < 1_000; j++) {
+				counters.adjust(6, -1);
+			}
+			return null;
+		})).toList();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(1, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		HotStockCounters restarted = newCounters(50);
+		Map<Integer, Long> written = new HashMap<>();
+		restarted.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).containsExactly(Map.entry(6, -16_000L));
+		restarted.close();
+		counters.close();
+	}
+
+	@Test
+	void aBatchCommittedBeforeACrashIsReplayedWithTheSameId() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(4, () -> 10);
+		counters.adjust(4, -6);
+		// The database commits the batch, then the process dies before the journal marks it
+		Map<String, Long> database = new HashMap<>();
+		counters.flush((batchId, stockId, delta) -> {
+			database.put(batchId, delta);
+			throw new IllegalStateException("crashed after the commit");
+		});
+
+		HotStockCounters restarted = newCounters(50);
+		AtomicInteger applied = new AtomicInteger();
+		restarted.flush((batchId, stockId, delta) -> {
+			if (database.putIfAbsent(batchId, delta) == null) {
+				applied.incrementAndGet();
+			}
+		});
+		assertThat(database).hasSize(1).containsValue(-6L);
+		assertThat(applied.get()).isZero();
+		assertThat(restarted.getPendingDelta(4)).isZero();
+		restarted.close();
+		counters.close();
+	}
+
+	@Test
+	void aFailedBatchStaysPendingUntilItIsWritten() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(2, () -> 10);
+		counters.adjust(2, -4);
+		counters.flush((batchId, stockId, delta) -> {
+			throw new IllegalStateException("database down");
+		});
+		assertThat(counters.getPendingDelta(2)).isEqualTo(-4);
+
+		List<String> batchIds = new ArrayList<>();
+		counters.demote(2, (batchId, stockId, delta) -> batchIds.add(batchId));
+		assertThat(batchIds).hasSize(1);
+		assertThat(counters.getPendingDelta(2)).isZero();
+		assertThat(counters.isHot(2)).isFalse();
+		counters.close();
+	}
+
+	@Test
+	void aRemovalWithinATransactionIsCompensatedAfterACrashUnlessItCommitted() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(6, () -> 10);
+		counters.adjustInTransaction("committed", 6, -3);
+		counters.adjustInTransaction("rolled-back", 6, -2);
+		counters.complete("rolled-back", false);
+		counters.adjustInTransaction("in-flight", 6, -4);
+		// Only the first transaction committed, recording its batch, before the process died
+		Map<String, Long> database = new HashMap<>(Map.of("committed", 3L));
+
+		HotStockCounters restarted = newCounters(50);
+		Map<Integer, Long> written = new HashMap<>();
+		restarted.flush((batchId, stockId, delta) -> {
+			if (database.putIfAbsent(batchId, delta) == null) {
+				written.merge(stockId, delta, Long::sum);
+			}
+		});
+		assertThat(written).containsExactly(Map.entry(6, -3L));
+		restarted.close();
+		counters.close();
+	}
+
+	@Test
+	void aRolledBackRemovalIsGivenBackInMemory() {
+		HotStockCounters counters = newCounters(50);
+		counters.promote(8, () -> 5);
+		assertThat(counters.adjustInTransaction("first", 8, -5)).isEqualTo(HotStockCounters.Outcome.APPLIED);
+		assertThat(counters.adjustInTransaction("second", 8, -1)).isEqualTo(HotStockCounters.Outcome.INSUFFICIENT);
+
+		counters.complete("first", false);
+		assertThat(counters.adjustInTransaction("second", 8, -5)).isEqualTo(HotStockCounters.Outcome.APPLIED);
+		counters.complete("second", true);
+
+		Map<Integer, Long> written = new HashMap<>();
+		counters.flush((batchId, stockId, delta) -> written.merge(stockId, delta, Long::sum));
+		assertThat(written).containsExactly(Map.entry(8, -5L));
+		counters.close();
+	}
+
+	private HotStockCounters newCounters(int contentionThreshold) {
+		return new HotStockCounters(true, 8, contentionThreshold, 30_000,
+				journalDirectory.resolve("stock.journal").toString());
+	}
+}
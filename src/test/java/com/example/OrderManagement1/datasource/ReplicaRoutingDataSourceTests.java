@@ -0,0 +1,122 @@
+package com.example.OrderManagement1.datasource;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.config.ReplicaDataSourceConfig;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes between two in-memory H2 databases, one as the primary and one as its replica. Nothing replicates
+ * between them, so each holds a product the other does not, and a read shows which database served it.
+ */
+@JpaSliceTest(properties = {
+		"application.datasource.replicas.urls=" + ReplicaRoutingDataSourceTests.REPLICA_URL,
+		"application.datasource.replicas.max-lag-ms=60000"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingDataSourceTests {
+
+	static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ReplicaRoutingDataSource routingDataSource;
+
+	@Autowired
+	private ReplicaLagMonitor lagMonitor;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+
+	@BeforeEach
+	void createProducts() {
+		HikariDataSource replicaPool = routingDataSource.getReplicas().get(0).getDataSource();
+		// A real replica receives its schema from the primary
+		Flyway.configure().dataSource(replicaPool).load().migrate();
+		primary = new JdbcTemplate(routingDataSource.getPrimary());
+		replica = new JdbcTemplate(replicaPool);
+		primary.update("delete from product");
+		replica.update("delete from product");
+		Product product = new Product();
+		product.setName("On the primary");
+		productRepository.save(product);
+		replica.update("insert into product (name, price, vat, stockable) values ('On the replica', 0, 0, false)");
+		replicateHeartbeat();
+	}
+
+	@Test
+	void readOnlyTransactionsFollowTheReplicaLag() {
+		// The replica has applied the last beat
+		lagMonitor.checkLag();
+		assertThat(readOnlyProductNames()).containsExactly("On the replica");
+
+		// The replica stopped applying changes two minutes ago and has not received the beat written since
+		replica.update("update replication_heartbeat set beat_at = ?", System.currentTimeMillis() - 120_000);
+		lagMonitor.checkLag();
+		assertThat(routingDataSource.isHealthy(routingDataSource.getReplicas().get(0))).isFalse();
+		assertThat(readOnlyProductNames()).containsExactly("On the primary");
+		assertThat(meterRegistry.get("datasource.routing.fallbacks").tag("reason", "lagging").counter().count()).isEqualTo(1);
+
+		replicateHeartbeat();
+		lagMonitor.checkLag();
+		assertThat(readOnlyProductNames()).containsExactly("On the replica");
+		assertThat(meterRegistry.get("datasource.replica.lag").tag("pool", "replica-1").gauge().value()).isZero();
+	}
+
+	@Test
+	void readWriteTransactionsAlwaysUseThePrimary() {
+		lagMonitor.checkLag();
+
+		List<String> names = new TransactionTemplate(transactionManager).execute(status -> productNames());
+
+		assertThat(names).containsExactly("On the primary");
+		assertThat(productRepository.count()).isEqualTo(1);
+	}
+
+	private void replicateHeartbeat() {
+		replica.update("update replication_heartbeat set beat_at = ?",
+				primary.queryForObject("select beat_at from replication_heartbeat", Long.class));
+	}
+
+	private List<String> readOnlyProductNames() {
+		TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+		readOnly.setReadOnly(true);
+		return readOnly.execute(status -> productNames());
+	}
+
+	private List<String> productNames() {
+		return productRepository.findAllDtos().stream().map(ProductDto::getName).toList();
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, ReplicaDataSourceConfig.class})
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,135 @@
+package com.example.OrderManagement1.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChangeEventBusTests {
+
+	private final ChangeEventBus bus = new ChangeEventBus(3, new SimpleMeterRegistry());
+
+	@Test
+	void aSubscriberResumesAfterTheLastEventItReceived() {
+		for (int id = 1; id <= 4; id++) {
+			bus.publish("order", ChangeEvent.Type.CREATED, id, null);
+		}
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+
+		bus.subscribe(2, subscriber);
+		bus.publish("order", ChangeEvent.Type.DELETED, 1, null);
+
+		assertThat(subscriber.events).extracting(ChangeEvent::getId).containsExactly(3L, 4L, 5L);
+		assertThat(subscriber.events.get(2).getName()).isEqualTo("order.deleted");
+		assertThat(subscriber.gaps).isEmpty();
+	}
+
+	@Test
+	void aSubscriberBehindTheBufferIsToldToReload() {
+		for (int id = 1; id <= 5; id++) {
+			bus.publish("stock", ChangeEvent.Type.UPDATED, id, null);
+		}
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+
+		Runnable cancellation = bus.subscribe(1, subscriber);
+		bus.publish("stock", ChangeEvent.Type.UPDATED, 6, null);
+		cancellation.run();
+		bus.publish("stock", ChangeEvent.Type.UPDATED, 7, null);
+
+		assertThat(subscriber.gaps).containsExactly(5L);
+		assertThat(subscriber.events).extracting(ChangeEvent::getId).containsExactly(6L);
+	}
+
+	@Test
+	void aBacklogBeyondTheReplayCapacityIsReplacedByAGap() {
+		for (int id = 1; id <= 3; id++) {
+			bus.publish("stock", ChangeEvent.Type.UPDATED, id, null);
+		}
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		subscriber.replayCapacity = 1;
+
+		bus.subscribe(1, subscriber);
+		bus.publish("stock", ChangeEvent.Type.UPDATED, 4, null);
+
+		assertThat(subscriber.gaps).containsExactly(3L);
+		assertThat(subscriber.events).extracting(ChangeEvent::getId).containsExactly(4L);
+	}
+
+	@Test
+	void aSubscriberCancellingDuringTheReplayIsRemoved() {
+		for (int id = 1; id <= 3; id++) {
+			bus.publish("order", ChangeEvent.Type.CREATED, id, null);
+		}
+		RecordingSubscriber subscriber = new RecordingSubscriber() {
+			@Override
+			public void onEvent(ChangeEvent event) {
+				super.onEvent(event);
+				cancellation.run();
+			}
+		};
+
+		bus.subscribe(1, subscriber);
+		bus.publish("order", ChangeEvent.Type.DELETED, 1, null);
+
+		assertThat(subscriber.events).extracting(ChangeEvent::getId).doesNotContain(4L);
+	}
+
+	@Test
+	void theBufferMustHoldAnEvent() {
+		assertThatThrownBy(() -> new ChangeEventBus(0, new SimpleMeterRegistry()))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("application.changes.buffer-size must be at least 1");
+	}
+
+	@Test
+	void changesInATransactionArePublishedAfterTheCommit() {
+		RecordingSubscriber subscriber = new RecordingSubscriber();
+		bus.subscribe(-1, subscriber);
+
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			bus.publish("order", ChangeEvent.Type.CREATED, 1, null);
+			assertThat(subscriber.events).isEmpty();
+			assertThat(bus.getLastEventId()).isZero();
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(subscriber.events).extracting(ChangeEvent::getId).containsExactly(1L);
+	}
+
+	private static class RecordingSubscriber implements ChangeEventSubscriber {
+
+		private final List<ChangeEvent> events = new ArrayList<>();
+		private final List<Long> gaps = new ArrayList<>();
+		private int replayCapacity = Integer.MAX_VALUE;
+		Runnable cancellation;
+
+		@Override
+		public void onSubscribed(Runnable cancellation) {
+			this.cancellation = cancellation;
+		}
+
+		@Override
+		public int getReplayCapacity() {
+			return replayCapacity;
+		}
+
+		@Override
+		public void onEvent(ChangeEvent event) {
+			events.add(event);
+		}
+
+		@Override
+		public void onGap(long lastEventId) {
+			gaps.add(lastEventId);
+		}
+	}
+}
@@ -0,0 +1,77 @@
+package com.example.OrderManagement1.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTests {
+
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new FailingController())
+			.setControllerAdvice(new GlobalExceptionHandler())
+			.build();
+
+	@Test
+	void missingResourcesAreRenderedAsNotFound() throws Exception {
+		mockMvc.perform(get("/products/42"))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.status").value(404))
+				.andExpect(jsonPath("$.message").value("Product not found with id: 42"));
+	}
+
+	@Test
+	void apiExceptionsKeepTheirStatus() throws Exception {
+		mockMvc.perform(get("/batch"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("At most 100 ids can be requested at once"));
+	}
+
+	@Test
+	void asynchronousFailuresAreRenderedWithRetryAfter() throws Exception {
+		var result = mockMvc.perform(get("/report"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mockMvc.perform(asyncDispatch(result))
+				.andExpect(status().isServiceUnavailable())
+				.andExpect(header().string("Retry-After", "10"))
+				.andExpect(jsonPath("$.message").value("Too many reports running"));
+	}
+
+	@Test
+	void notFoundExceptionsHaveNoStackTrace() {
+		assertThat(new ResourceNotFoundException("Order", "id", 7).getStackTrace()).isEmpty();
+	}
+
+	@RestController
+	static class FailingController {
+
+		@GetMapping("/products/{id}")
+		public String getProduct(@PathVariable int id) {
+			throw new ResourceNotFoundException("Product", "id", id);
+		}
+
+		@GetMapping("/batch")
+		public String getBatch() {
+			throw new OrderAPIException(HttpStatus.BAD_REQUEST, "At most 100 ids can be requested at once");
+		}
+
+		@GetMapping("/report")
+		public CompletableFuture<String> getReport() {
+			return CompletableFuture.failedFuture(new ServiceUnavailableException("Too many reports running", 10));
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.example.OrderManagement1.hold;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTests {
+
+	private static final long TICK = 100;
+	private static final long START = 1_700_000_000_000L;
+
+	@Test
+	void expiresEveryTimerOnItsTickAcrossAllLevels() {
+		TimingWheel<Integer> wheel = new TimingWheel<>(TICK, START);
+		// Delays within level 0, 1, 2, 3 and beyond the range of the top level
+		long[] delays = {50, 100, 6_300, 6_400, 6_500, 409_500, 409_700, 26_214_400, 1_677_721_600, 2_000_000_000};
+		Map<Integer, Long> expiryByTimer = new TreeMap<>();
+		for (int i = 0; i < delays.length; i++) {
+			wheel.schedule(i, START + delays[i]);
+			expiryByTimer.put(i, START + delays[i]);
+		}
+		assertThat(wheel.size()).isEqualTo(delays.length);
+
+		Map<Integer, Long> expiredAt = new TreeMap<>();
+		long now = START;
+		long lastExpiry = START + 2_000_000_000L;
+		while (now <= lastExpiry + TICK) {
+			// Uneven steps, as the scheduler would advance the wheel
+			now += TICK * ThreadLocalRandom.current().nextLong(1, 4000);
+			long advancedTo = now;
+			wheel.advance(now, timer -> expiredAt.put(timer.getValue(), advancedTo));
+		}
+
+		assertThat(expiredAt.keySet()).containsExactlyElementsOf(expiryByTimer.keySet());
+		assertThat(wheel.size()).isZero();
+		expiryByTimer.forEach((timer, expiry) -> assertThat(expiredAt.get(timer)).isGreaterThanOrEqualTo(expiry));
+	}
+
+	@Test
+	void neverExpiresEarlyWhenAdvancedTickByTick() {
+		TimingWheel<Long> wheel = new TimingWheel<>(TICK, START);
+		for (long delay = 0; delay < 10_000_000; delay += 37_777) {
+			wheel.schedule(delay, START + delay);
+		}
+		List<Long> late = new ArrayList<>();
+		for (long now = START; now <= START + 10_000_000 + TICK; now += TICK) {
+			long current = now;
+			wheel.advance(now, timer -> {
+				assertThat(current).isGreaterThanOrEqualTo(timer.getExpiresAtMillis());
+				if (current - timer.getExpiresAtMillis() >= TICK) {
+					late.add(timer.getValue());
+				}
+			});
+		}
+		assertThat(wheel.size()).isZero();
+		assertThat(late).isEmpty();
+	}
+
+	@Test
+	void cancelledTimersDoNotExpire() {
+		TimingWheel<String> wheel = new TimingWheel<>(TICK, START);
+		TimingWheel.Timer<String> kept = wheel.schedule("kept", START + 10_000);
+		TimingWheel.Timer<String> cancelled = wheel.schedule("cancelled", START + 10_000);
+
+		assertThat(wheel.cancel(cancelled)).isTrue();
+		assertThat(wheel.cancel(cancelled)).isFalse();
+		List<String> expired = new ArrayList<>();
+		wheel.advance(START + 10_000, timer -> expired.add(timer.getValue()));
+
+		assertThat(expired).containsExactly("kept");
+		assertThat(wheel.cancel(kept)).isFalse();
+	}
+}
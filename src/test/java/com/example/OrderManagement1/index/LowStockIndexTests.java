@@ -0,0 +1,104 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.event.StockThresholdCrossedEvent;
+import com.example.OrderManagement1.payload.LowStockDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LowStockIndexTests {
+
+	private final Map<Integer, Long> quantities = new HashMap<>();
+	private final List<Object> events = new ArrayList<>();
+	private LowStockIndex index;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findReorderThresholds()).thenReturn(List.of(
+				new Object[]{1, 10},
+				new Object[]{2, 5},
+				new Object[]{3, 0}));
+		StockAvailabilityIndex availability = mock(StockAvailabilityIndex.class);
+		when(availability.getAvailableQuantity(anyInt())).thenAnswer(call -> quantities.getOrDefault(call.<Integer>getArgument(0), 0L));
+		quantities.put(1, 30L);
+		quantities.put(2, 5L);
+		quantities.put(3, 7L);
+		ApplicationEventPublisher publisher = events::add;
+		index = new LowStockIndex(productRepository, availability, publisher);
+		index.load();
+	}
+
+	@Test
+	void ordersProductsByQuantityAboveThreshold() {
+		assertThat(index.getLowStock(0, 10)).extracting(LowStockDto::getProductId).containsExactly(2);
+		assertThat(index.getLowStock(10, 10)).extracting(LowStockDto::getProductId).containsExactly(2, 3);
+		assertThat(index.getLowStock(Long.MAX_VALUE, 2)).extracting(LowStockDto::getMargin).containsExactly(0L, 7L);
+	}
+
+	@Test
+	void publishesOnlyThresholdCrossings() {
+		change(1, 30, 12);
+		assertThat(events).isEmpty();
+
+		change(1, 12, 10);
+		change(1, 10, 4);
+		change(2, 5, 9);
+		change(4, 0, 1);
+
+		assertThat(events).hasSize(2);
+		StockThresholdCrossedEvent low = (StockThresholdCrossedEvent) events.get(0);
+		assertThat(low.getProductId()).isEqualTo(1);
+		assertThat(low.isLow()).isTrue();
+		assertThat(low.getQuantity()).isEqualTo(10);
+		StockThresholdCrossedEvent restocked = (StockThresholdCrossedEvent) events.get(1);
+		assertThat(restocked.getProductId()).isEqualTo(2);
+		assertThat(restocked.isLow()).isFalse();
+		assertThat(index.getLowStock(0, 10)).extracting(LowStockDto::getProductId).containsExactly(1);
+	}
+
+	@Test
+	void raisingTheThresholdCanMakeAProductLow() {
+		index.setThreshold(3, 7);
+
+		assertThat(events).singleElement()
+				.satisfies(event -> assertThat(((StockThresholdCrossedEvent) event).isLow()).isTrue());
+		index.delete(3);
+		assertThat(index.getLowStock(0, 10)).extracting(LowStockDto::getProductId).containsExactly(2);
+	}
+
+	@Test
+	void thresholdsSetInATransactionApplyOnlyAfterTheCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.setThreshold(3, 7);
+			assertThat(events).isEmpty();
+			assertThat(index.getLowStock(0, 10)).extracting(LowStockDto::getProductId).containsExactly(2);
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(events).hasSize(1);
+		assertThat(index.getLowStock(0, 10)).extracting(LowStockDto::getProductId).containsExactly(2, 3);
+	}
+
+	private void change(int productId, int previousQuantity, int newQuantity) {
+		quantities.put(productId, (long) newQuantity);
+		index.onStockChanged(new StockChange(100 + productId, productId, previousQuantity, newQuantity, StockChange.Type.UPDATED));
+	}
+}
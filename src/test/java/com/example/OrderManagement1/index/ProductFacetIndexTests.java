@@ -0,0 +1,76 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTests {
+
+	private ProductFacetIndex index;
+
+	@BeforeEach
+	void setUp() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+		when(productRepository.findFacetRows()).thenReturn(List.of(
+				new Object[]{1, 5.0, 20.0, true},
+				new Object[]{2, 15.0, 20.0, false},
+				new Object[]{3, 25.0, 10.0, true},
+				new Object[]{4, 12.0, 10.0, true}));
+		index = new ProductFacetIndex(productRepository, 10);
+		index.rebuild();
+	}
+
+	@Test
+	void combinesFiltersAndCountsOtherFacets() {
+		ProductFacetIndex.FacetSearchResult result = index.search(List.of(20.0), 10.0, 30.0, null);
+
+		assertThat(result.page(0, 10)).containsExactly(2);
+		assertThat(result.getVatCounts()).containsEntry("20.0", 1L).containsEntry("10.0", 2L);
+		assertThat(result.getPriceCounts()).containsEntry("0.0-10.0", 1L).containsEntry("10.0-20.0", 1L);
+		assertThat(result.getStockableCounts()).containsEntry("true", 0L).containsEntry("false", 1L);
+	}
+
+	@Test
+	void updatesIncrementally() {
+		Product product = new Product();
+		product.setId(2);
+		product.setPrice(35.0);
+		product.setVat(10.0);
+		product.setStockable(true);
+		index.index(product);
+		index.delete(3);
+
+		ProductFacetIndex.FacetSearchResult result = index.search(List.of(10.0), null, null, true);
+
+		assertThat(result.page(0, 10)).containsExactly(2, 4);
+		assertThat(result.getVatCounts()).containsEntry("20.0", 1L).containsEntry("10.0", 2L);
+	}
+
+	@Test
+	void pagesAreBoundedAndValidated() {
+		ProductFacetIndex.FacetSearchResult result = index.search(null, null, null, null);
+
+		assertThat(result.page(1, 3)).containsExactly(4);
+		assertThat(result.page(Integer.MAX_VALUE, Integer.MAX_VALUE)).isEmpty();
+		assertThatThrownBy(() -> result.page(-1, 10)).isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> result.page(0, -1)).isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	void rejectsAPriceBucketWidthBelowOrAtZero() {
+		ProductRepository productRepository = mock(ProductRepository.class);
+
+		assertThatThrownBy(() -> new ProductFacetIndex(productRepository, 0))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessageContaining("price-bucket-width");
+		assertThatThrownBy(() -> new ProductFacetIndex(productRepository, -5)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
@@ -0,0 +1,111 @@
+package com.example.OrderManagement1.index;
+
+import com.example.OrderManagement1.entity.ProductStockSummary;
+import com.example.OrderManagement1.event.StockChange;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockAvailabilityIndexTests {
+
+	private final ProductStockSummaryRepository summaryRepository = mock(ProductStockSummaryRepository.class);
+	private final StockRepository stockRepository = mock(StockRepository.class);
+	private StockAvailabilityIndex index;
+
+	@BeforeEach
+	void setUp() {
+		when(summaryRepository.findAll()).thenReturn(List.of(
+				new ProductStockSummary(1, 5L, 2, LocalDateTime.now()),
+				new ProductStockSummary(2, 0L, 1, LocalDateTime.now())));
+		index = new StockAvailabilityIndex(summaryRepository, stockRepository);
+		index.load();
+	}
+
+	@Test
+	void loadsTheSummariesAndListsOnlyProductsWithQuantity() {
+		assertThat(index.getAvailableQuantity(1)).isEqualTo(5);
+		assertThat(index.getAvailableQuantity(3)).isZero();
+		assertThat(index.getInStockProductIds()).containsExactly(1);
+		verify(stockRepository, never()).sumQuantityByProduct();
+	}
+
+	@Test
+	void buildsTheSummaryTableFromTheStocksWhenItIsEmpty() {
+		when(summaryRepository.findAll()).thenReturn(List.of());
+		when(stockRepository.sumQuantityByProduct()).thenReturn(List.<Object[]>of(new Object[]{4, 12L, 3L}));
+
+		index.load();
+
+		verify(summaryRepository).saveAll(anyList());
+		assertThat(index.getInStockProductIds()).containsExactly(4);
+		assertThat(index.getAvailableQuantity(4)).isEqualTo(12);
+	}
+
+	@Test
+	void productsEnterAndLeaveTheInStockSetAsTheirQuantityChanges() {
+		index.onStockChanged(new StockChange(20, 2, 0, 3, StockChange.Type.CREATED));
+		index.onStockChanged(new StockChange(10, 1, 5, 0, StockChange.Type.UPDATED));
+
+		assertThat(index.getInStockProductIds()).containsExactly(2);
+		assertThat(index.isInStock(1)).isFalse();
+		verify(summaryRepository).addChange(eq(2), eq(3L), eq(1), any(LocalDateTime.class));
+		verify(summaryRepository).addChange(eq(1), eq(-5L), eq(0), any(LocalDateTime.class));
+	}
+
+	@Test
+	void changesInATransactionAreVisibleOnlyAfterTheCommit() {
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			index.onStockChanged(new StockChange(20, 2, 0, 3, StockChange.Type.CREATED));
+			assertThat(index.isInStock(2)).isFalse();
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		assertThat(index.isInStock(2)).isTrue();
+	}
+
+	@Test
+	void theInStockSetFollowsConcurrentChangesAroundZero() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = IntStream.range(0, 8).<Future<?>>mapToObj(i -> executor.submit(() -> {
+			start.await();
+			for (int j = 0; j < 10_000; j++) {
+				index.onStockChanged(new StockChange(20, 2, 0, 5, StockChange.Type.UPDATED));
+				index.onStockChanged(new StockChange(20, 2, 5, 0, StockChange.Type.UPDATED));
+			}
+			return null;
+		})).toList();
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(1, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		assertThat(index.getAvailableQuantity(2)).isZero();
+		assertThat(index.isInStock(2)).isFalse();
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.OrderManagement1.ledger;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.config.NegativeCacheConfig;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.index.StockAvailabilityIndex;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockMovementDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.repository.StockSnapshotRepository;
+import com.example.OrderManagement1.service.StockService;
+import com.example.OrderManagement1.service.impl.StockServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@JpaSliceTest(properties = "application.stocks.ledger.snapshot-interval=3")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerTests {
+
+	@Autowired
+	private StockService stockService;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private StockSnapshotRepository snapshotRepository;
+
+	@Test
+	void rebuildsPastQuantitiesFromSnapshotsAndMovements() throws Exception {
+		Product product = new Product();
+		product.setName("Ledgered item");
+		product.setStockable(true);
+		product = productRepository.save(product);
+		StockDto stock = new StockDto();
+		stock.setProductId(product.getId());
+		stock.setQuantity(10);
+		stock = stockService.createStock(stock);
+		StockDto secondStock = new StockDto();
+		secondStock.setProductId(product.getId());
+		secondStock.setQuantity(4);
+		stockService.createStock(secondStock);
+		LocalDateTime afterCreate = pause();
+
+		stockService.adjustStockQuantity(stock.getId(), -2);
+		stockService.adjustStockQuantity(stock.getId(), -3);
+		LocalDateTime afterRemovals = pause();
+
+		stockService.adjustStockQuantity(stock.getId(), 5);
+		stockService.adjustStockQuantity(stock.getId(), -1);
+		LocalDateTime end = pause();
+
+		assertThat(stockService.getProductQuantityAt(product.getId(), afterCreate).getQuantity()).isEqualTo(14);
+		assertThat(stockService.getProductQuantityAt(product.getId(), afterRemovals).getQuantity()).isEqualTo(9);
+		assertThat(stockService.getProductQuantityAt(product.getId(), end).getQuantity()).isEqualTo(13);
+		// One snapshot on the first movement of the product, one after three more
+		assertThat(snapshotRepository.count()).isEqualTo(2);
+
+		List<StockMovementDto> movements = stockService.getStockMovements(stock.getId(), afterCreate, end, 0, 10);
+		assertThat(movements).extracting(StockMovementDto::getDelta).containsExactly(-2, -3, 5, -1);
+		assertThat(movements).extracting(StockMovementDto::getQuantityAfter).containsExactly(8, 5, 10, 9);
+	}
+
+	@Test
+	void movementPagesAreValidated() {
+		LocalDateTime now = LocalDateTime.now();
+		assertThatThrownBy(() -> stockService.getStockMovements(1, now.minusDays(1), now, -1, 10))
+				.isInstanceOfSatisfying(OrderAPIException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST))
+				.hasMessage("Page must be at least 0 and size at least 1");
+		assertThatThrownBy(() -> stockService.getStockMovements(1, now.minusDays(1), now, 0, 0))
+				.isInstanceOfSatisfying(OrderAPIException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+	}
+
+	private static LocalDateTime pause() throws InterruptedException {
+		Thread.sleep(5);
+		LocalDateTime now = LocalDateTime.now();
+		Thread.sleep(5);
+		return now;
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, StockServiceImpl.class, StockAvailabilityIndex.class, HotStockCounters.class,
+			StockLedger.class, LowStockIndex.class, StockThresholdNotifier.class, StockMapper.class,
+			SparseFieldsetRepository.class, NegativeCacheConfig.class})
+	static class TestConfig {
+	}
+}
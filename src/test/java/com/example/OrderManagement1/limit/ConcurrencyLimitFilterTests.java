@@ -0,0 +1,96 @@
+package com.example.OrderManagement1.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimitFilterTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void readsAreShedBeforeWrites() {
+		AimdLimiter limiter = new AimdLimiter(EndpointGroup.ORDERS, 10, 2, 100, Duration.ofSeconds(1), 0.5, 0.8, meterRegistry);
+
+		for (int i = 0; i < 8; i++) {
+			assertThat(limiter.tryAcquire(false)).isTrue();
+		}
+		assertThat(limiter.tryAcquire(false)).isFalse();
+		assertThat(limiter.tryAcquire(true)).isTrue();
+		assertThat(limiter.tryAcquire(true)).isTrue();
+		assertThat(limiter.tryAcquire(true)).isFalse();
+
+		assertThat(limiter.getInFlight()).isEqualTo(10);
+		assertThat(meterRegistry.get("concurrency.rejected").tag("group", "orders").tag("priority", "read").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("concurrency.rejected").tag("group", "orders").tag("priority", "write").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void limitFollowsTheLatency() {
+		AimdLimiter limiter = new AimdLimiter(EndpointGroup.STOCK, 10, 2, 12, Duration.ofSeconds(1), 0.5, 0.8, meterRegistry);
+		long fast = TimeUnit.MILLISECONDS.toNanos(10);
+		long slow = TimeUnit.SECONDS.toNanos(2);
+
+		// Fast requests using at least half of the limit increase it, up to the maximum
+		for (int round = 0; round < 3; round++) {
+			for (int i = 0; i < 6; i++) {
+				limiter.tryAcquire(true);
+			}
+			for (int i = 0; i < 6; i++) {
+				limiter.release(fast, false);
+			}
+		}
+		assertThat(limiter.getLimit()).isEqualTo(12);
+
+		// A single fast request does not use the limit and leaves it alone
+		limiter.tryAcquire(false);
+		limiter.release(fast, false);
+		assertThat(limiter.getLimit()).isEqualTo(12);
+
+		// Slow and failed requests decrease it, down to the minimum
+		limiter.tryAcquire(false);
+		limiter.release(slow, false);
+		assertThat(limiter.getLimit()).isEqualTo(6);
+		limiter.tryAcquire(false);
+		limiter.release(fast, true);
+		limiter.tryAcquire(false);
+		limiter.release(slow, false);
+		assertThat(limiter.getLimit()).isEqualTo(2);
+		assertThat(meterRegistry.get("concurrency.limit").tag("group", "stock").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	void rejectedRequestsGetServiceUnavailableWithRetryAfter() throws Exception {
+		ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, new ObjectMapper(), 4, 4, 4, 1000, 0.9, 0.5, 3);
+		AimdLimiter catalog = filter.getLimiter(EndpointGroup.CATALOG);
+		catalog.tryAcquire(false);
+		catalog.tryAcquire(false);
+
+		MockHttpServletResponse listing = filter(filter, "GET", "/products");
+		assertThat(listing.getStatus()).isEqualTo(503);
+		assertThat(listing.getHeader("Retry-After")).isEqualTo("3");
+		assertThat(listing.getContentAsString()).contains("\"status\":503");
+
+		MockHttpServletResponse creation = filter(filter, "POST", "/products");
+		assertThat(creation.getStatus()).isEqualTo(200);
+		MockHttpServletResponse stockListing = filter(filter, "GET", "/stocks");
+		assertThat(stockListing.getStatus()).isEqualTo(200);
+		assertThat(catalog.getInFlight()).isEqualTo(2);
+	}
+
+	private static MockHttpServletResponse filter(ConcurrencyLimitFilter filter, String method, String path) throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+		request.setServletPath(path);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		filter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,74 @@
+package com.example.OrderManagement1.mapper;
+
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.ProductOrder;
+import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.payload.CustomerDto;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
+import com.example.OrderManagement1.payload.StockDto;
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the explicit mappers produce the same DTOs as the reflective ModelMapper they replaced,
+ * including the IDs read from associations such as customerId and productId.
+ */
+class DtoMappersTests {
+
+	private final ModelMapper modelMapper = new ModelMapper();
+
+	@Test
+	void mapsEntitiesLikeModelMapper() {
+		Customer customer = Customer.builder().id(7).email("jane@mail.com").password("secret")
+				.firstName("Jane").lastName("Doe").bornAt(LocalDate.of(1990, 5, 17)).build();
+		Order order = new Order(11, customer, LocalDateTime.of(2024, 3, 1, 10, 30), null);
+		Product product = new Product(3, "desk-lamp", "Desk lamp", "DL-1", 19.9, 20.0, true, 5, null, null);
+		Stock stock = new Stock(5, product, 40, LocalDateTime.of(2024, 3, 2, 8, 0), 4);
+		ProductOrder productOrder = new ProductOrder(new ProductOrderId(3, 11), product, order, 2, 19.9, 20.0);
+
+		assertThat(new CustomerMapper().toDto(customer)).isEqualTo(modelMapper.map(customer, CustomerDto.class));
+		assertThat(new OrderMapper().toDto(order)).isEqualTo(modelMapper.map(order, OrderDto.class))
+				.extracting(OrderDto::getCustomerId).isEqualTo(7);
+		assertThat(new ProductMapper().toDto(product)).isEqualTo(modelMapper.map(product, ProductDto.class));
+		assertThat(new StockMapper().toDto(stock)).isEqualTo(modelMapper.map(stock, StockDto.class))
+				.extracting(StockDto::getProductId).isEqualTo(3);
+		assertThat(new ProductOrderMapper().toDto(productOrder)).isEqualTo(modelMapper.map(productOrder, ProductOrderDto.class));
+	}
+
+	@Test
+	void mapsDtosToEntitiesWithAssociationReferences() {
+		StockDto stockDto = new StockDto();
+		stockDto.setId(5);
+		stockDto.setProductId(3);
+		stockDto.setQuantity(40);
+		stockDto.setVersion(4L);
+		Stock stock = new StockMapper().toEntity(stockDto);
+		assertThat(stock.getProduct().getId()).isEqualTo(3);
+		assertThat(stock.getVersion()).isEqualTo(4);
+
+		OrderDto orderDto = new OrderDto();
+		orderDto.setCustomerId(7);
+		assertThat(new OrderMapper().toEntity(orderDto).getCustomer().getId()).isEqualTo(7);
+
+		ProductOrderDto productOrderDto = new ProductOrderDto();
+		productOrderDto.setProductId(3);
+		productOrderDto.setOrderId(11);
+		productOrderDto.setQuantity(2);
+		productOrderDto.setPrice(19.9);
+		productOrderDto.setVat(20.0);
+		ProductOrder productOrder = new ProductOrderMapper().toEntity(productOrderDto);
+		assertThat(productOrder.getId()).isEqualTo(new ProductOrderId(3, 11));
+		assertThat(productOrder.getProduct().getId()).isEqualTo(3);
+		assertThat(productOrder.getOrder().getId()).isEqualTo(11);
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.OrderManagement1.notification;
+
+import com.example.OrderManagement1.controller.ChangeEventController;
+import com.example.OrderManagement1.event.ChangeEvent;
+import com.example.OrderManagement1.event.ChangeEventBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ChangeEventNotifierTests {
+
+	private static final Pattern EVENT_ID = Pattern.compile("id:(\\w+)-(\\d+)");
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final ChangeEventBus bus = new ChangeEventBus(100, meterRegistry);
+	private final ChangeEventNotifier notifier = new ChangeEventNotifier(bus, meterRegistry, 60000, 16, 1);
+	private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new ChangeEventController(notifier)).build();
+
+	@AfterEach
+	void tearDown() {
+		notifier.close();
+	}
+
+	@Test
+	void aReconnectingClientResumesAfterItsLastEventId() throws Exception {
+		bus.publish("order", ChangeEvent.Type.CREATED, 1, null);
+		MockHttpServletResponse first = subscribe(get("/api/changes"));
+		bus.publish("order", ChangeEvent.Type.UPDATED, 1, null);
+		String firstContent = awaitContent(first, "event:order.updated");
+		assertThat(firstContent).doesNotContain("event:order.created");
+		Matcher id = EVENT_ID.matcher(firstContent);
+		assertThat(id.find()).isTrue();
+		assertThat(id.group(2)).isEqualTo("2");
+
+		bus.publish("order", ChangeEvent.Type.DELETED, 1, null);
+		MockHttpServletResponse resumed = subscribe(get("/api/changes").header("Last-Event-ID", id.group(1) + "-2"));
+
+		String resumedContent = awaitContent(resumed, "event:order.deleted");
+		assertThat(resumedContent).contains("id:" + id.group(1) + "-3").doesNotContain("event:order.updated");
+	}
+
+	@Test
+	void aClientWithAnIdFromBeforeARestartIsResynced() throws Exception {
+		bus.publish("stock", ChangeEvent.Type.CREATED, 1, null);
+
+		MockHttpServletResponse response = subscribe(get("/api/changes").header("Last-Event-ID", "previous-5"));
+
+		assertThat(awaitContent(response, "event:resync")).doesNotContain("event:stock.created");
+		assertThat(meterRegistry.get("change.events.resyncs").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void aClientThatMissedMoreEventsThanItsQueueHoldsIsResyncedNotDropped() throws Exception {
+		MockHttpServletResponse first = subscribe(get("/api/changes").param("entities", "stock"));
+		bus.publish("stock", ChangeEvent.Type.UPDATED, 1, null);
+		Matcher id = EVENT_ID.matcher(awaitContent(first, "event:stock.updated"));
+		assertThat(id.find()).isTrue();
+		for (int order = 1; order <= 40; order++) {
+			bus.publish("order", ChangeEvent.Type.CREATED, order, null);
+		}
+
+		MockHttpServletResponse resumed = subscribe(get("/api/changes").header("Last-Event-ID", id.group(1) + "-1"));
+		bus.publish("order", ChangeEvent.Type.DELETED, 1, null);
+
+		assertThat(awaitContent(resumed, "event:order.deleted")).contains("event:resync").doesNotContain("event:order.created");
+		assertThat(meterRegistry.get("change.events.dropped.subscribers").counter().count()).isZero();
+	}
+
+	@Test
+	void onlyTheRequestedEntitiesAreStreamed() throws Exception {
+		MockHttpServletResponse response = subscribe(get("/api/changes").param("entities", "stock"));
+
+		bus.publish("order", ChangeEvent.Type.CREATED, 1, null);
+		bus.publish("stock", ChangeEvent.Type.UPDATED, 4, null);
+
+		assertThat(awaitContent(response, "event:stock.updated")).doesNotContain("event:order.created");
+	}
+
+	private MockHttpServletResponse subscribe(RequestBuilder request) throws Exception {
+		MvcResult result = mockMvc.perform(request)
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		return result.getResponse();
+	}
+
+	private String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		String content = response.getContentAsString();
+		while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			content = response.getContentAsString();
+		}
+		assertThat(content).contains(expected);
+		return content;
+	}
+}
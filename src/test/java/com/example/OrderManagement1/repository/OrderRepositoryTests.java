@@ -0,0 +1,131 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.ProductOrder;
+import com.example.OrderManagement1.entity.ProductOrderId;
+import com.example.OrderManagement1.payload.OrderDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Runs the OrderDto constructor-expression finders against the schema built by the Flyway migrations.
+ */
+@JpaSliceTest
+class OrderRepositoryTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Customer ada;
+	private Order cheapOrder;
+	private Order expensiveOrder;
+	private Order emptyOrder;
+	private Order otherCustomerOrder;
+
+	@BeforeEach
+	void createOrders() {
+		ada = customer("ada@example.com", "Ada", "Lovelace");
+		Customer charles = customer("charles@example.com", "Charles", "Babbage");
+		Product gear = product("Gear", 10);
+		Product lever = product("Lever", 5);
+
+		cheapOrder = order(ada, START);
+		line(cheapOrder, gear, 2);
+		line(cheapOrder, lever, 1);
+		expensiveOrder = order(ada, START.plusDays(1));
+		line(expensiveOrder, gear, 10);
+		emptyOrder = order(ada, START.plusDays(2));
+		otherCustomerOrder = order(charles, START.plusDays(3));
+		line(otherCustomerOrder, lever, 10);
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	void customerFindersReturnTheOrdersAsDtos() {
+		assertThat(orderRepository.findDtosByCustomerId(ada.getId()))
+				.extracting(OrderDto::getId)
+				.containsExactlyInAnyOrder(cheapOrder.getId(), expensiveOrder.getId(), emptyOrder.getId());
+		assertThat(orderRepository.findDtosByCustomerId(ada.getId()))
+				.allSatisfy(order -> assertThat(order.getCustomerId()).isEqualTo(ada.getId()));
+		assertThat(orderRepository.findDtosByCustomerName("Ada", "Lovelace"))
+				.extracting(OrderDto::getId)
+				.containsExactlyInAnyOrder(cheapOrder.getId(), expensiveOrder.getId(), emptyOrder.getId());
+		assertThat(orderRepository.findDtosByCustomerIdAndOrderAtBetween(ada.getId(), START.plusHours(1), START.plusDays(3)))
+				.extracting(OrderDto::getId)
+				.containsExactlyInAnyOrder(expensiveOrder.getId(), emptyOrder.getId());
+	}
+
+	@Test
+	void dateFindersReturnTheOrdersAsDtos() {
+		assertThat(orderRepository.findDtosByOrderAt(START))
+				.extracting(OrderDto::getId, OrderDto::getOrderAt)
+				.containsExactly(tuple(cheapOrder.getId(), START));
+		assertThat(orderRepository.findDtosByOrderAtBetween(START.plusDays(1), START.plusDays(2)))
+				.extracting(OrderDto::getId)
+				.containsExactlyInAnyOrder(expensiveOrder.getId(), emptyOrder.getId());
+		assertThat(orderRepository.findAllDtos()).hasSize(4);
+	}
+
+	@Test
+	void priceFindersSumTheProductOrders() {
+		// Prices: cheap 2 * 10 + 1 * 5 = 25, expensive 10 * 10 = 100, empty 0, other customer 10 * 5 = 50
+		assertThat(orderRepository.findDtosByPriceLessThan(60))
+				.extracting(OrderDto::getId)
+				.containsExactlyInAnyOrder(cheapOrder.getId(), emptyOrder.getId(), otherCustomerOrder.getId());
+		assertThat(orderRepository.findDtosOrderByPriceDesc())
+				.extracting(OrderDto::getId)
+				.containsExactly(expensiveOrder.getId(), otherCustomerOrder.getId(), cheapOrder.getId(), emptyOrder.getId());
+	}
+
+	private Customer customer(String email, String firstName, String lastName) {
+		return entityManager.persist(Customer.builder()
+				.email(email)
+				.password("secret")
+				.firstName(firstName)
+				.lastName(lastName)
+				.build());
+	}
+
+	private Product product(String name, double price) {
+		Product product = new Product();
+		product.setName(name);
+		product.setPrice(price);
+		return entityManager.persist(product);
+	}
+
+	private Order order(Customer customer, LocalDateTime orderAt) {
+		Order order = new Order();
+		order.setCustomer(customer);
+		order.setOrderAt(orderAt);
+		return entityManager.persist(order);
+	}
+
+	private void line(Order order, Product product, int quantity) {
+		entityManager.persist(new ProductOrder(new ProductOrderId(product.getId(), order.getId()), product, order,
+				quantity, product.getPrice(), 0.2));
+	}
+
+	@Configuration
+	@Import(JpaSliceConfig.class)
+	static class TestConfig {
+	}
+}
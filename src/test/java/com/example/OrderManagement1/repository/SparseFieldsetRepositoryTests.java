@@ -0,0 +1,121 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Order;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Lists entities through sparse fieldsets and records the SQL of the queries, to check that only the
+ * columns of the requested fields are read.
+ */
+@JpaSliceTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.OrderManagement1.repository.SparseFieldsetRepositoryTests$RecordingInspector")
+class SparseFieldsetRepositoryTests {
+
+	private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+	private final SparseFieldset productFields = SparseFieldset.of("Product", Product.class)
+			.column("id")
+			.column("name")
+			.column("reference")
+			.column("price")
+			.derived("availableQuantity", values -> (Integer) values.get("id") * 10L, "id");
+
+	@Autowired
+	private SparseFieldsetRepository sparseFieldsetRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	private Product gear;
+
+	@BeforeEach
+	void createProduct() {
+		gear = new Product();
+		gear.setName("Gear");
+		gear.setReference("GR-1");
+		gear.setPrice(12.5);
+		entityManager.persist(gear);
+		entityManager.flush();
+		statements.clear();
+	}
+
+	@Test
+	void onlyTheRequestedColumnsAreSelected() {
+		List<Map<String, Object>> products = sparseFieldsetRepository.findAll(productFields, Set.of("price", "name"));
+
+		// Fields come in fieldset order whatever the request order
+		assertThat(products).singleElement().satisfies(product ->
+				assertThat(product).containsExactly(entry("name", "Gear"), entry("price", 12.5)));
+		assertThat(statements).singleElement().satisfies(sql -> {
+			String selectList = sql.substring(0, sql.indexOf(" from "));
+			assertThat(selectList).contains("name", "price").doesNotContain("reference", "slug", "vat");
+		});
+	}
+
+	@Test
+	void derivedFieldsAreComputedFromTheirRequiredColumns() {
+		List<Map<String, Object>> products = sparseFieldsetRepository.findAll(productFields, Set.of("availableQuantity"));
+
+		assertThat(products).singleElement().satisfies(product ->
+				assertThat(product).containsExactly(entry("availableQuantity", gear.getId() * 10L)));
+	}
+
+	@Test
+	void columnsMayFollowAssociations() {
+		Customer ada = entityManager.persist(Customer.builder().email("ada@example.com").password("secret").firstName("Ada").lastName("Lovelace").build());
+		Order order = new Order();
+		order.setCustomer(ada);
+		order.setOrderAt(LocalDateTime.of(2024, 1, 1, 10, 0));
+		entityManager.persist(order);
+		entityManager.flush();
+		SparseFieldset orderFields = SparseFieldset.of("Order", Order.class)
+				.column("id")
+				.column("customerId", "customer.id");
+
+		assertThat(sparseFieldsetRepository.findAll(orderFields, Set.of("customerId")))
+				.containsExactly(Map.of("customerId", ada.getId()));
+	}
+
+	@Test
+	void unknownFieldsAreRejected() {
+		assertThatThrownBy(() -> sparseFieldsetRepository.findAll(productFields, Set.of("name", "secret")))
+				.isInstanceOf(OrderAPIException.class)
+				.hasMessage("Product has no field 'secret', the fields are id, name, reference, price, availableQuantity");
+		assertThatThrownBy(() -> sparseFieldsetRepository.findAll(productFields, Set.of()))
+				.isInstanceOf(OrderAPIException.class);
+	}
+
+	public static class RecordingInspector implements StatementInspector {
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, SparseFieldsetRepository.class})
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,122 @@
+package com.example.OrderManagement1.repository;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.Stock;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs EXPLAIN on the SQL of each stock finder against the schema built by the Flyway migrations
+ * and checks which index the plan reads the stock table through.
+ */
+@JpaSliceTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.OrderManagement1.repository.StockRepositoryIndexTests$LastSelect")
+class StockRepositoryIndexTests {
+
+	private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+	private static final LocalDateTime END = LocalDateTime.of(2024, 1, 31, 0, 0);
+	private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* public\\.(?:stock\\.)?(\\w+)[: ]");
+
+	@Autowired
+	private StockRepository stockRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private int productId;
+
+	@BeforeEach
+	void createStocks() {
+		for (int i = 0; i < 20; i++) {
+			Product product = new Product();
+			product.setName("Indexed item " + i);
+			product.setStockable(true);
+			product = productRepository.save(product);
+			productId = product.getId();
+			for (int day = 0; day < 5; day++) {
+				stockRepository.save(new Stock(0, product, i + day, START.plusDays(day * 7L), 0));
+			}
+		}
+		stockRepository.flush();
+	}
+
+	@Test
+	void productAndTimeRangeFinderUsesTheCompositeIndex() {
+		stockRepository.findDtosByProductIdAndUpdatedAtBetween(productId, START, END);
+
+		assertThat(indexRead(explainLastSelect(productId, START, END))).isEqualTo("idx_stock_product_updated_at");
+	}
+
+	@Test
+	void timeRangeFinderUsesTheTimeIndex() {
+		stockRepository.findDtosByUpdatedAtBetween(START, END);
+
+		assertThat(indexRead(explainLastSelect(START, END))).isEqualTo("idx_stock_updated_at");
+	}
+
+	@Test
+	void productFindersUseAProductIndex() {
+		// H2 backs the product_id foreign key with an index of its own, which MySQL folds into the composite one
+		String productIndex = "idx_stock_product_updated_at|fk_stock_product_INDEX_\\w+";
+
+		stockRepository.findDtosByProductId(productId);
+		assertThat(indexRead(explainLastSelect(productId))).matches(productIndex);
+
+		stockRepository.findDtosByProductIdIn(List.of(productId, productId - 1));
+		assertThat(indexRead(explainLastSelect(productId, productId - 1))).matches(productIndex);
+
+		stockRepository.findDtosByProductIdAndQuantityGreaterThan(productId, 3);
+		assertThat(indexRead(explainLastSelect(productId, 3))).matches(productIndex);
+	}
+
+	private String explainLastSelect(Object... parameters) {
+		return jdbcTemplate.queryForObject("explain " + LastSelect.sql, String.class, parameters);
+	}
+
+	/**
+	 * Returns the name of the index H2 reads the stock table through, taken from the comment of the plan,
+	 * or "tableScan" if it scans the table.
+	 */
+	private static String indexRead(String plan) {
+		Matcher access = TABLE_ACCESS.matcher(plan);
+		assertThat(access.find()).as("table access in %s", plan).isTrue();
+		return access.group(1);
+	}
+
+	/**
+	 * Keeps the SQL of the last select Hibernate ran, so the test explains exactly what a finder sends.
+	 */
+	public static class LastSelect implements StatementInspector {
+
+		static volatile String sql;
+
+		@Override
+		public String inspect(String sql) {
+			if (sql.startsWith("select")) {
+				LastSelect.sql = sql;
+			}
+			return sql;
+		}
+	}
+
+	@Configuration
+	@Import(JpaSliceConfig.class)
+	static class TestConfig {
+	}
+}
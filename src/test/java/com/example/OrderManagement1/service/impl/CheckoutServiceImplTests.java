@@ -0,0 +1,120 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.CheckoutLineDto;
+import com.example.OrderManagement1.payload.CheckoutRequestDto;
+import com.example.OrderManagement1.payload.CheckoutResultDto;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.service.CustomerService;
+import com.example.OrderManagement1.service.OrderService;
+import com.example.OrderManagement1.service.ProductService;
+import com.example.OrderManagement1.service.StockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckoutServiceImplTests {
+
+	private final CustomerService customerService = mock(CustomerService.class);
+	private final ProductService productService = mock(ProductService.class);
+	private final StockService stockService = mock(StockService.class);
+	private final OrderService orderService = mock(OrderService.class);
+	private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+	private CheckoutServiceImpl checkoutService;
+
+	@BeforeEach
+	void setUp() {
+		checkoutService = new CheckoutServiceImpl(customerService, productService, stockService, orderService,
+				transactionManager);
+		ReflectionTestUtils.setField(checkoutService, "maxLines", 100);
+		when(productService.getProductsByIds(List.of(1, 2))).thenReturn(List.of(
+				new BatchItemDto<>(1, true, new ProductDto(1, "gear", "Gear", "G-1", 10.0, 20.0, true, null)),
+				new BatchItemDto<>(2, true, new ProductDto(2, "manual", "Manual", "M-1", 5.0, 0.0, false, null))));
+		when(stockService.getStocksByProductIds(List.of(1))).thenReturn(List.of(
+				new BatchItemDto<>(1, true, List.of(new StockDto(11, 1, 3, null, 0L), new StockDto(12, 1, 4, null, 0L)))));
+	}
+
+	@Test
+	void createsTheOrderAfterTakingTheQuantitiesFromTheLargestStocks() {
+		when(orderService.createOrder(any(OrderDto.class), anyList())).thenAnswer(call -> {
+			OrderDto order = call.getArgument(0);
+			order.setId(100);
+			return order;
+		});
+
+		CheckoutResultDto result = checkoutService.checkout(cart(line(1, 2), line(2, 1), line(1, 3)));
+
+		verify(stockService).adjustStockQuantity(12, -4);
+		verify(stockService).adjustStockQuantity(11, -1);
+		assertThat(result.getOrder().getCustomerId()).isEqualTo(7);
+		assertThat(result.getLines())
+				.extracting(ProductOrderDto::getProductId, ProductOrderDto::getOrderId, ProductOrderDto::getQuantity, ProductOrderDto::getPrice)
+				.containsExactly(tuple(1, 100, 5, 10.0), tuple(2, 100, 1, 5.0));
+		assertThat(result.getTotalPrice()).isEqualTo(55.0);
+		assertThat(result.getTotalVat()).isEqualTo(10.0);
+	}
+
+	@Test
+	void rejectsTheCartWithoutTouchingTheStocksWhenAQuantityIsMissing() {
+		assertThatThrownBy(() -> checkoutService.checkout(cart(line(1, 8), line(2, 1))))
+				.isInstanceOfSatisfying(OrderAPIException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.CONFLICT))
+				.hasMessage("Insufficient quantity of product 1 (1 missing)");
+
+		verify(stockService, never()).adjustStockQuantity(anyInt(), anyInt());
+		verify(orderService, never()).createOrder(any(OrderDto.class), anyList());
+	}
+
+	@Test
+	void rollsTheStockAdjustmentsBackWithTheOrderWhenItCannotBeCreated() {
+		when(orderService.createOrder(any(OrderDto.class), anyList())).thenThrow(new IllegalStateException("Database down"));
+
+		assertThatThrownBy(() -> checkoutService.checkout(cart(line(1, 5), line(2, 1))))
+				.hasMessage("Database down");
+
+		verify(stockService).adjustStockQuantity(11, -1);
+		verify(stockService).adjustStockQuantity(12, -4);
+		verify(transactionManager).rollback(any());
+		verify(transactionManager, never()).commit(any());
+		verify(stockService, never()).adjustStockQuantity(anyInt(), intThat(delta -> delta > 0));
+	}
+
+	@Test
+	void rollsTheQuantitiesTakenBackWhenAStockRunsOut() {
+		when(stockService.adjustStockQuantity(12, -4)).thenThrow(new OrderAPIException(HttpStatus.CONFLICT, "Insufficient quantity in stock 12"));
+
+		assertThatThrownBy(() -> checkoutService.checkout(cart(line(1, 5), line(2, 1))))
+				.hasMessage("Insufficient quantity in stock 12");
+
+		verify(transactionManager).rollback(any());
+		verify(stockService, never()).adjustStockQuantity(anyInt(), intThat(delta -> delta > 0));
+		verify(orderService, never()).createOrder(any(OrderDto.class), anyList());
+	}
+
+	private static CheckoutRequestDto cart(CheckoutLineDto... lines) {
+		return new CheckoutRequestDto(7, List.of(lines));
+	}
+
+	private static CheckoutLineDto line(int productId, int quantity) {
+		return new CheckoutLineDto(productId, quantity);
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.config.NegativeCacheConfig;
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.exception.ResourceNotFoundException;
+import com.example.OrderManagement1.mapper.CustomerMapper;
+import com.example.OrderManagement1.payload.CustomerDto;
+import com.example.OrderManagement1.repository.CustomerRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.service.CustomerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Looks up missing customers against an embedded database, and checks that repeated misses are answered by the
+ * negative cache and that creating the customer makes it visible at once.
+ */
+@JpaSliceTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerServiceImplNegativeCacheTests {
+
+	@Autowired
+	private CustomerService customerService;
+
+	@Autowired
+	private CustomerRepository customerRepository;
+
+	@Autowired
+	private NegativeLookupCache<String> missingCustomerEmails;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@AfterEach
+	void cleanUp() {
+		customerRepository.deleteAll();
+	}
+
+	@Test
+	void repeatedMissesSkipTheQueryUntilTheCustomerIsCreated() {
+		int nextId = customerService.createCustomer(customer("first@example.com")).getId() + 1;
+
+		for (int i = 0; i < 3; i++) {
+			assertThatThrownBy(() -> customerService.getCustomerById(nextId))
+					.isInstanceOf(ResourceNotFoundException.class)
+					.hasMessage("Customer not found with id: " + nextId);
+		}
+		assertThat(meterRegistry.get("negative.lookup.cache.requests")
+				.tags("name", "customer.by-id", "result", "hit").counter().count()).isEqualTo(2);
+
+		CustomerDto created = customerService.createCustomer(customer("second@example.com"));
+
+		assertThat(created.getId()).isEqualTo(nextId);
+		assertThat(customerService.getCustomerById(nextId).getEmail()).isEqualTo("second@example.com");
+	}
+
+	@Test
+	void registeringAnEmailForgetsThatItWasMissing() {
+		missingCustomerEmails.recordMissing("new@example.com", missingCustomerEmails.generation("new@example.com"));
+
+		customerService.registerCustomer(Customer.builder().email("new@example.com").password("secret").build());
+
+		assertThat(missingCustomerEmails.isKnownMissing("new@example.com")).isFalse();
+	}
+
+	private static CustomerDto customer(String email) {
+		CustomerDto customer = new CustomerDto();
+		customer.setEmail(email);
+		customer.setPassword("secret");
+		return customer;
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, CustomerServiceImpl.class, CustomerMapper.class, SparseFieldsetRepository.class,
+			NegativeCacheConfig.class})
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.config.NegativeCacheConfig;
+import com.example.OrderManagement1.entity.Customer;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.event.ChangeEventBus;
+import com.example.OrderManagement1.mapper.OrderMapper;
+import com.example.OrderManagement1.mapper.ProductOrderMapper;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductOrderDto;
+import com.example.OrderManagement1.repository.ProductOrderRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.service.OrderService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Creates an order with its product orders against an embedded database, recording the SQL to check that the
+ * product orders are inserted without being selected first.
+ */
+@JpaSliceTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.OrderManagement1.service.impl.OrderServiceImplTests$RecordingInspector")
+class OrderServiceImplTests {
+
+	private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ProductOrderRepository productOrderRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Test
+	void ordersAreCreatedWithTheirProductOrders() {
+		Customer customer = entityManager.persist(Customer.builder().email("ada@example.com").password("secret").build());
+		Product gear = product("Gear");
+		Product lever = product("Lever");
+		entityManager.flush();
+		entityManager.clear();
+		statements.clear();
+
+		List<ProductOrderDto> lines = List.of(
+				new ProductOrderDto(gear.getId(), null, 2, 10.0, 20.0),
+				new ProductOrderDto(lever.getId(), null, 1, 5.0, 20.0));
+		OrderDto order = orderService.createOrder(new OrderDto(0, customer.getId(), LocalDateTime.now()), lines);
+		entityManager.flush();
+
+		assertThat(statements).noneMatch(sql -> sql.startsWith("select"));
+		assertThat(lines).extracting(ProductOrderDto::getOrderId).containsOnlyNulls();
+		assertThat(productOrderRepository.findDtosByOrderId(order.getId()))
+				.extracting(ProductOrderDto::getProductId, ProductOrderDto::getQuantity)
+				.containsExactlyInAnyOrder(tuple(gear.getId(), 2), tuple(lever.getId(), 1));
+	}
+
+	private Product product(String name) {
+		Product product = new Product();
+		product.setName(name);
+		return entityManager.persist(product);
+	}
+
+	public static class RecordingInspector implements StatementInspector {
+
+		@Override
+		public String inspect(String sql) {
+			statements.add(sql);
+			return sql;
+		}
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, OrderServiceImpl.class, OrderMapper.class, ProductOrderMapper.class,
+			SparseFieldsetRepository.class, NegativeCacheConfig.class, ChangeEventBus.class})
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,98 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.index.ProductFacetIndex;
+import com.example.OrderManagement1.index.StockAvailabilityIndex;
+import com.example.OrderManagement1.mapper.ProductMapper;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceImplTests {
+
+	private final ProductRepository productRepository = mock(ProductRepository.class);
+	private final StockAvailabilityIndex stockAvailabilityIndex = mock(StockAvailabilityIndex.class);
+	private ProductServiceImpl productService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		productService = new ProductServiceImpl(productRepository, new ProductMapper(), mock(PlatformTransactionManager.class),
+				mock(ApplicationEventPublisher.class), mock(ProductFacetIndex.class), stockAvailabilityIndex,
+				mock(LowStockIndex.class), new SimpleMeterRegistry(), mock(SparseFieldsetRepository.class),
+				mock(NegativeLookupCache.class), 2000, 1000);
+		ReflectionTestUtils.setField(productService, "maxBatchSize", 3);
+		when(stockAvailabilityIndex.getAvailableQuantity(anyInt())).thenAnswer(call -> call.<Integer>getArgument(0) * 10L);
+	}
+
+	@Test
+	void productsInStockAreReadByTheIdsOfTheAvailabilityIndex() {
+		when(stockAvailabilityIndex.getInStockProductIds()).thenReturn(Set.of(1, 3));
+		when(productRepository.findDtosByIdIn(Set.of(1, 3))).thenReturn(new ArrayList<>(List.of(product(1), product(3))));
+
+		assertThat(productService.getProductsInStock())
+				.extracting(ProductDto::getId, ProductDto::getAvailableQuantity)
+				.containsExactly(tuple(1, 10L), tuple(3, 30L));
+	}
+
+	@Test
+	void batchReadsAnswerEveryRequestedIdInRequestOrder() {
+		when(productRepository.findDtosByIdIn(List.of(3, 1, 2))).thenReturn(new ArrayList<>(List.of(product(1), product(3))));
+
+		assertThat(productService.getProductsByIds(List.of(3, 1, 2)))
+				.extracting(BatchItemDto::getId, BatchItemDto::isFound)
+				.containsExactly(tuple(3, true), tuple(1, true), tuple(2, false));
+	}
+
+	@Test
+	void duplicateIdsAreReadOnceAndAnsweredEachTime() {
+		when(productRepository.findDtosByIdIn(List.of(1, 2))).thenReturn(new ArrayList<>(List.of(product(1))));
+
+		List<BatchItemDto<ProductDto>> items = productService.getProductsByIds(List.of(1, 2, 1));
+
+		assertThat(items).extracting(BatchItemDto::getId, BatchItemDto::isFound)
+				.containsExactly(tuple(1, true), tuple(2, false), tuple(1, true));
+		assertThat(items.get(1).getItem()).isNull();
+		verify(productRepository).findDtosByIdIn(List.of(1, 2));
+	}
+
+	@Test
+	void batchesOverTheLimitOrWithoutIdsAreRejected() {
+		assertThatThrownBy(() -> productService.getProductsByIds(List.of(1, 2, 3, 4)))
+				.isInstanceOfSatisfying(OrderAPIException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST))
+				.hasMessage("At most 3 ids can be requested at once");
+		assertThatThrownBy(() -> productService.getProductsByIds(List.of()))
+				.isInstanceOfSatisfying(OrderAPIException.class, e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST));
+		verifyNoInteractions(productRepository);
+	}
+
+	private static ProductDto product(int id) {
+		ProductDto product = new ProductDto();
+		product.setId(id);
+		product.setName("Product " + id);
+		return product;
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.ledger.StockLedger;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.repository.HotStockFlushRepository;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockServiceImplBatchTests {
+
+	private final StockRepository stockRepository = mock(StockRepository.class);
+	private StockServiceImpl stockService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		stockService = new StockServiceImpl(stockRepository, mock(ProductStockSummaryRepository.class), new StockMapper(),
+				List.of(), mock(PlatformTransactionManager.class), mock(HotStockCounters.class),
+				mock(HotStockFlushRepository.class), mock(StockLedger.class), mock(LowStockIndex.class),
+				mock(StockThresholdNotifier.class), mock(SparseFieldsetRepository.class), mock(NegativeLookupCache.class));
+		ReflectionTestUtils.setField(stockService, "maxBatchSize", 10);
+	}
+
+	@Test
+	void theStocksOfEveryRequestedProductAreGroupedInRequestOrder() {
+		when(stockRepository.findDtosByProductIdIn(List.of(2, 1, 3))).thenReturn(new ArrayList<>(List.of(
+				new StockDto(10, 1, 4, null, 0L),
+				new StockDto(11, 2, 6, null, 0L),
+				new StockDto(12, 1, 1, null, 0L))));
+
+		List<BatchItemDto<List<StockDto>>> items = stockService.getStocksByProductIds(List.of(2, 1, 3, 2));
+
+		assertThat(items).extracting(BatchItemDto::getId, BatchItemDto::isFound)
+				.containsExactly(tuple(2, true), tuple(1, true), tuple(3, false), tuple(2, true));
+		assertThat(items.get(1).getItem()).extracting(StockDto::getId).containsExactly(10, 12);
+	}
+
+	@Test
+	void theRequestedStocksAreReadAsDtosInRequestOrder() {
+		when(stockRepository.findDtosByIdIn(List.of(12, 10, 99))).thenReturn(new ArrayList<>(List.of(
+				new StockDto(10, 1, 4, null, 0L),
+				new StockDto(12, 1, 1, null, 0L))));
+
+		List<BatchItemDto<StockDto>> items = stockService.getStocksByIds(List.of(12, 10, 99));
+
+		assertThat(items).extracting(BatchItemDto::getId, BatchItemDto::isFound)
+				.containsExactly(tuple(12, true), tuple(10, true), tuple(99, false));
+		verify(stockRepository, never()).findAllById(anyIterable());
+	}
+}
@@ -0,0 +1,192 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.config.NegativeCacheConfig;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.exception.OrderAPIException;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.index.StockAvailabilityIndex;
+import com.example.OrderManagement1.ledger.StockLedger;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.ProductStockSummaryDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import com.example.OrderManagement1.service.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs hundreds of concurrent stock adjustments against an embedded database and checks that no update is lost.
+ */
+@JpaSliceTest(properties = "spring.datasource.hikari.maximum-pool-size=32")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockServiceImplConcurrencyTests {
+
+	private static final int THREADS = 200;
+	private static final int OPERATIONS_PER_THREAD = 10;
+
+	@Autowired
+	private StockService stockService;
+
+	@Autowired
+	private StockRepository stockRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private ProductStockSummaryRepository summaryRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@AfterEach
+	void cleanUp() {
+		stockRepository.deleteAll();
+		summaryRepository.deleteAll();
+		productRepository.deleteAll();
+	}
+
+	@Test
+	void concurrentDecrementsNeverLoseUpdatesOrOversell() throws Exception {
+		int initialQuantity = THREADS * OPERATIONS_PER_THREAD / 2;
+		StockDto stock = createStock(initialQuantity);
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		runConcurrently(() -> {
+			try {
+				stockService.adjustStockQuantity(stock.getId(), -1);
+				accepted.incrementAndGet();
+			} catch (OrderAPIException e) {
+				rejected.incrementAndGet();
+			}
+		});
+
+		assertThat(accepted.get()).isEqualTo(initialQuantity);
+		assertThat(rejected.get()).isEqualTo(THREADS * OPERATIONS_PER_THREAD - initialQuantity);
+		assertThat(stockRepository.findById(stock.getId()).orElseThrow().getQuantity()).isZero();
+	}
+
+	@Test
+	void concurrentMixedAdjustmentsKeepQuantityAndSummaryConsistent() throws Exception {
+		StockDto stock = createStock(1_000);
+		AtomicInteger net = new AtomicInteger();
+		AtomicInteger counter = new AtomicInteger();
+
+		runConcurrently(() -> {
+			int delta = counter.incrementAndGet() % 2 == 0 ? 3 : -2;
+			stockService.adjustStockQuantity(stock.getId(), delta);
+			net.addAndGet(delta);
+		});
+
+		int expected = 1_000 + net.get();
+		assertThat(stockRepository.findById(stock.getId()).orElseThrow().getQuantity()).isEqualTo(expected);
+		assertThat(summaryRepository.findById(stock.getProductId()).orElseThrow().getTotalQuantity()).isEqualTo(expected);
+	}
+
+	@Test
+	void concurrentCreatesAndDeletesKeepTheProductSummaryConsistent() throws Exception {
+		StockDto first = createStock(5);
+		AtomicInteger counter = new AtomicInteger();
+
+		runConcurrently(() -> {
+			StockDto stock = new StockDto();
+			stock.setProductId(first.getProductId());
+			stock.setQuantity(counter.incrementAndGet() % 3);
+			StockDto created = stockService.createStock(stock);
+			if (created.getId() % 2 == 0) {
+				stockService.deleteStock(created.getId());
+			}
+		});
+
+		List<StockDto> stocks = stockRepository.findDtosByProductId(first.getProductId());
+		ProductStockSummaryDto summary = stockService.getProductStockSummary(first.getProductId());
+		assertThat(summary.getStockCount()).isEqualTo(stocks.size());
+		assertThat(summary.getTotalQuantity()).isEqualTo(stocks.stream().mapToLong(StockDto::getQuantity).sum());
+		assertThat(stockService.getProductStockSummaries(List.of(first.getProductId(), -1)))
+				.extracting(BatchItemDto::isFound)
+				.containsExactly(true, false);
+	}
+
+	@Test
+	void anAdjustmentKeepsTheUnflushedChangesOfTheCallersTransaction() {
+		StockDto stock = createStock(5);
+
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			Product product = productRepository.findById(stock.getProductId()).orElseThrow();
+			product.setName("Renamed before the adjustment");
+			stockService.adjustStockQuantity(stock.getId(), -1);
+		});
+
+		assertThat(productRepository.findById(stock.getProductId()).orElseThrow().getName())
+				.isEqualTo("Renamed before the adjustment");
+		assertThat(stockRepository.findById(stock.getId()).orElseThrow().getQuantity()).isEqualTo(4);
+	}
+
+	private StockDto createStock(int quantity) {
+		Product product = new Product();
+		product.setName("Flash sale item");
+		product.setPrice(10.0);
+		product.setVat(20.0);
+		product.setStockable(true);
+		product = productRepository.save(product);
+
+		StockDto stock = new StockDto();
+		stock.setProductId(product.getId());
+		stock.setQuantity(quantity);
+		return stockService.createStock(stock);
+	}
+
+	private void runConcurrently(Runnable operation) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+					operation.run();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, StockServiceImpl.class, StockAvailabilityIndex.class, HotStockCounters.class,
+			StockLedger.class, LowStockIndex.class, StockThresholdNotifier.class, StockMapper.class,
+			SparseFieldsetRepository.class, NegativeCacheConfig.class})
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,88 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.cache.NegativeLookupCache;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.entity.Stock;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.ledger.StockLedger;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.repository.HotStockFlushRepository;
+import com.example.OrderManagement1.repository.ProductStockSummaryRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockServiceImplHotStockTests {
+
+	private final HotStockCounters hotStockCounters = mock(HotStockCounters.class);
+	private final HotStockFlushRepository hotStockFlushRepository = mock(HotStockFlushRepository.class);
+	private StockServiceImpl stockService;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		StockRepository stockRepository = mock(StockRepository.class);
+		stockService = new StockServiceImpl(stockRepository, mock(ProductStockSummaryRepository.class), new StockMapper(),
+				List.of(), mock(PlatformTransactionManager.class), hotStockCounters,
+				hotStockFlushRepository, mock(StockLedger.class), mock(LowStockIndex.class),
+				mock(StockThresholdNotifier.class), mock(SparseFieldsetRepository.class), mock(NegativeLookupCache.class));
+		when(stockRepository.findById(anyInt())).thenAnswer(call -> Optional.of(
+				new Stock(call.getArgument(0), new Product(), 10, LocalDateTime.now(), 0)));
+		TransactionSynchronizationManager.initSynchronization();
+	}
+
+	@AfterEach
+	void tearDown() {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	@Test
+	void aGiveBackToAHotStockIsAppliedOnlyAfterTheCommit() {
+		when(hotStockCounters.isHot(4)).thenReturn(true);
+
+		stockService.adjustStockQuantity(4, 3);
+		verify(hotStockCounters, never()).adjust(anyInt(), anyInt());
+
+		when(hotStockCounters.adjust(4, 3)).thenReturn(HotStockCounters.Outcome.APPLIED);
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		verify(hotStockCounters).adjust(4, 3);
+	}
+
+	@Test
+	void aRemovalFromAHotStockIsCompensatedUnlessTheTransactionCommits() {
+		ArgumentCaptor<String> compensationId = ArgumentCaptor.forClass(String.class);
+		when(hotStockCounters.adjustInTransaction(compensationId.capture(), eq(4), eq(-2)))
+				.thenReturn(HotStockCounters.Outcome.APPLIED);
+
+		stockService.adjustStockQuantity(4, -2);
+		verify(hotStockFlushRepository).save(argThat(flush ->
+				flush.getBatchId().equals(compensationId.getValue()) && flush.getStockId() == 4 && flush.getDelta() == 2));
+		verify(hotStockCounters, never()).complete(anyString(), anyBoolean());
+
+		TransactionSynchronizationManager.getSynchronizations()
+				.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+		verify(hotStockCounters).complete(compensationId.getValue(), false);
+	}
+}
@@ -0,0 +1,173 @@
+package com.example.OrderManagement1.service.impl;
+
+import com.example.OrderManagement1.JpaSliceConfig;
+import com.example.OrderManagement1.JpaSliceTest;
+import com.example.OrderManagement1.config.NegativeCacheConfig;
+import com.example.OrderManagement1.counter.HotStockCounters;
+import com.example.OrderManagement1.entity.Product;
+import com.example.OrderManagement1.index.LowStockIndex;
+import com.example.OrderManagement1.index.StockAvailabilityIndex;
+import com.example.OrderManagement1.ledger.StockLedger;
+import com.example.OrderManagement1.mapper.StockMapper;
+import com.example.OrderManagement1.notification.StockThresholdNotifier;
+import com.example.OrderManagement1.payload.BatchItemDto;
+import com.example.OrderManagement1.payload.CheckoutLineDto;
+import com.example.OrderManagement1.payload.CheckoutRequestDto;
+import com.example.OrderManagement1.payload.OrderDto;
+import com.example.OrderManagement1.payload.ProductDto;
+import com.example.OrderManagement1.payload.StockDto;
+import com.example.OrderManagement1.payload.StockHoldRequestDto;
+import com.example.OrderManagement1.repository.ProductRepository;
+import com.example.OrderManagement1.repository.SparseFieldsetRepository;
+import com.example.OrderManagement1.repository.StockRepository;
+import com.example.OrderManagement1.service.CustomerService;
+import com.example.OrderManagement1.service.OrderService;
+import com.example.OrderManagement1.service.ProductService;
+import com.example.OrderManagement1.service.StockHoldService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Promotes contended stocks to hot-SKU mode while transactions that adjust them are still open, as holds
+ * and checkouts do, and checks that no adjustment waits on a row lock held by the promotion.
+ */
+@JpaSliceTest(properties = {
+		"spring.datasource.hikari.maximum-pool-size=32",
+		"application.stocks.hot-sku.enabled=true",
+		"application.stocks.hot-sku.contention-threshold=5",
+		"application.stocks.hot-sku.journal-path=target/hot-sku-${random.uuid}.journal"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockServiceImplPromotionTests {
+
+	private static final int THREADS = 16;
+	private static final int OPERATIONS_PER_THREAD = 50;
+
+	@Autowired
+	private StockServiceImpl stockService;
+
+	@Autowired
+	private StockHoldService stockHoldService;
+
+	@Autowired
+	private HotStockCounters hotStockCounters;
+
+	@Autowired
+	private StockRepository stockRepository;
+
+	@Autowired
+	private ProductRepository productRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Test
+	void holdsArePlacedWhileOtherAdjustmentsPromoteTheStock() throws Exception {
+		StockDto stock = createStock(10_000);
+		AtomicInteger counter = new AtomicInteger();
+
+		runConcurrently(() -> {
+			if (counter.incrementAndGet() % 2 == 0) {
+				stockHoldService.placeHold(stock.getId(), new StockHoldRequestDto(1, null));
+			} else {
+				stockService.adjustStockQuantity(stock.getId(), -1);
+			}
+		});
+
+		assertThat(hotStockCounters.isHot(stock.getId())).isTrue();
+		stockService.flushHotStocks();
+		assertThat(stockRepository.findById(stock.getId()).orElseThrow().getQuantity())
+				.isEqualTo(10_000 - THREADS * OPERATIONS_PER_THREAD);
+	}
+
+	@Test
+	void concurrentCheckoutsPromoteTheStocksTheyTakeFrom() throws Exception {
+		StockDto first = createStock(10_000);
+		StockDto second = createStock(10_000);
+		ProductService productService = mock(ProductService.class);
+		OrderService orderService = mock(OrderService.class);
+		when(productService.getProductsByIds(List.of(first.getProductId(), second.getProductId()))).thenReturn(List.of(
+				new BatchItemDto<>(first.getProductId(), true, product(first.getProductId())),
+				new BatchItemDto<>(second.getProductId(), true, product(second.getProductId()))));
+		when(orderService.createOrder(any(OrderDto.class), anyList())).thenAnswer(call -> call.getArgument(0));
+		CheckoutServiceImpl checkoutService = new CheckoutServiceImpl(mock(CustomerService.class), productService,
+				stockService, orderService, transactionManager);
+		ReflectionTestUtils.setField(checkoutService, "maxLines", 100);
+		CheckoutRequestDto cart = new CheckoutRequestDto(7, List.of(
+				new CheckoutLineDto(first.getProductId(), 1), new CheckoutLineDto(second.getProductId(), 2)));
+
+		runConcurrently(() -> checkoutService.checkout(cart));
+
+		assertThat(hotStockCounters.isHot(first.getId())).isTrue();
+		assertThat(hotStockCounters.isHot(second.getId())).isTrue();
+		stockService.flushHotStocks();
+		assertThat(stockRepository.findById(first.getId()).orElseThrow().getQuantity())
+				.isEqualTo(10_000 - THREADS * OPERATIONS_PER_THREAD);
+		assertThat(stockRepository.findById(second.getId()).orElseThrow().getQuantity())
+				.isEqualTo(10_000 - 2 * THREADS * OPERATIONS_PER_THREAD);
+	}
+
+	private StockDto createStock(int quantity) {
+		Product product = new Product();
+		product.setName("Flash sale item");
+		product.setStockable(true);
+		product = productRepository.save(product);
+
+		StockDto stock = new StockDto();
+		stock.setProductId(product.getId());
+		stock.setQuantity(quantity);
+		return stockService.createStock(stock);
+	}
+
+	private static ProductDto product(int id) {
+		return new ProductDto(id, "item-" + id, "Item " + id, "I-" + id, 10.0, 20.0, true, null);
+	}
+
+	private void runConcurrently(Runnable operation) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < THREADS; i++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+					operation.run();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+	}
+
+	@Configuration
+	@Import({JpaSliceConfig.class, StockServiceImpl.class, StockHoldServiceImpl.class, StockAvailabilityIndex.class,
+			HotStockCounters.class, StockLedger.class, LowStockIndex.class, StockThresholdNotifier.class, StockMapper.class,
+			SparseFieldsetRepository.class, NegativeCacheConfig.class})
+	static class TestConfig {
+	}
+}